@@ -0,0 +1,92 @@
+// k6 test of many concurrent clients for the servlet and the reactive stack. Run it once with the default
+// profile and once with spring.profiles.active=reactive, against the same DB and Kafka:
+//   k6 run -e BASE_URL=http://localhost:8080 -e VUS=10000 load-test/concurrency.js
+// Compare http_reqs rate and p(99) of http_req_duration, and the live threads and DB connections gauges
+// which the monitor scenario scrapes from /actuator/prometheus (hikaricp_* for servlet, r2dbc_pool_* for reactive).
+// 10k VUs need a raised open files limit on both sides (ulimit -n 65535).
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+import { Trend } from 'k6/metrics';
+import encoding from 'k6/encoding';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = Number(__ENV.VUS || 10000);
+
+const liveThreads = new Trend('app_live_threads');
+const activeDbConnections = new Trend('app_active_db_connections');
+const pendingDbConnections = new Trend('app_pending_db_connections');
+
+export const options = {
+    scenarios: {
+        clients: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '1m', target: VUS },
+                { duration: '3m', target: VUS },
+                { duration: '30s', target: 0 },
+            ],
+            exec: 'client',
+        },
+        monitor: {
+            executor: 'constant-arrival-rate',
+            rate: 1,
+            timeUnit: '5s',
+            duration: '4m30s',
+            preAllocatedVUs: 1,
+            exec: 'monitor',
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+    const response = http.post(`${BASE_URL}/api/v1/auth/token`, null, {
+        headers: { Authorization: `Basic ${encoding.b64encode('admin:admin')}` },
+    });
+    return { token: response.json('accessToken') };
+}
+
+// Clients wait between requests, so most of the connections are idle at any moment as with real users
+export function client(data) {
+    if (__ITER % 10 === 0) {
+        const response = http.post(`${BASE_URL}/api/v1/employees`, JSON.stringify({
+            firstName: 'Concurrent',
+            lastName: 'Client',
+            email: `concurrent.${__VU}.${__ITER}.${Date.now()}@test.com`,
+            birthday: '1990-01-01',
+            hobbies: ['k6'],
+        }), {
+            headers: { 'Content-Type': 'application/json', Authorization: `Bearer ${data.token}` },
+            tags: { name: 'create' },
+        });
+        check(response, { 'created': (r) => r.status === 200 });
+    } else {
+        const response = http.get(`${BASE_URL}/api/v1/employees?size=20`, { tags: { name: 'list' } });
+        check(response, { 'listed': (r) => r.status === 200 });
+    }
+    sleep(1);
+}
+
+export function monitor() {
+    const response = http.get(`${BASE_URL}/actuator/prometheus`, { tags: { name: 'prometheus' } });
+    if (response.status !== 200) {
+        return;
+    }
+    liveThreads.add(gauge(response.body, 'jvm_threads_live_threads'));
+    activeDbConnections.add(gauge(response.body, 'hikaricp_connections_active')
+        + gauge(response.body, 'r2dbc_pool_acquired_connections'));
+    pendingDbConnections.add(gauge(response.body, 'hikaricp_connections_pending')
+        + gauge(response.body, 'r2dbc_pool_pending_connections'));
+}
+
+// Sum of all series of a gauge, 0 when the stack doesn't have it
+function gauge(body, name) {
+    let sum = 0;
+    for (const line of body.split('\n')) {
+        if (line.startsWith(`${name}{`) || line.startsWith(`${name} `)) {
+            sum += Number(line.substring(line.lastIndexOf(' ') + 1));
+        }
+    }
+    return sum;
+}
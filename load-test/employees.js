@@ -0,0 +1,49 @@
+// k6 load test of the employee API. Run it once with employee.threads.virtual=false and once with true,
+// against the same DB and Kafka, and compare http_reqs rate and p(99) of http_req_duration:
+//   k6 run -e BASE_URL=http://localhost:8080 -e VUS=400 load-test/employees.js
+import http from 'k6/http';
+import { check } from 'k6';
+import encoding from 'k6/encoding';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+
+export const options = {
+    scenarios: {
+        spike: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: Number(__ENV.VUS || 400) },
+                { duration: '2m', target: Number(__ENV.VUS || 400) },
+                { duration: '15s', target: 0 },
+            ],
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+};
+
+export function setup() {
+    const response = http.post(`${BASE_URL}/api/v1/auth/token`, null, {
+        headers: { Authorization: `Basic ${encoding.b64encode('admin:admin')}` },
+    });
+    return { token: response.json('accessToken') };
+}
+
+export default function (data) {
+    // Mostly reads, with every fifth request creating an employee
+    if (__ITER % 5 === 0) {
+        const response = http.post(`${BASE_URL}/api/v1/employees`, JSON.stringify({
+            firstName: 'Load',
+            lastName: 'Test',
+            email: `load.${__VU}.${__ITER}.${Date.now()}@test.com`,
+            birthday: '1990-01-01',
+            hobbies: ['k6'],
+        }), {
+            headers: { 'Content-Type': 'application/json', Authorization: `Bearer ${data.token}` },
+        });
+        check(response, { 'created': (r) => r.status === 200 });
+    } else {
+        const response = http.get(`${BASE_URL}/api/v1/employees?size=50`);
+        check(response, { 'listed': (r) => r.status === 200 });
+    }
+}
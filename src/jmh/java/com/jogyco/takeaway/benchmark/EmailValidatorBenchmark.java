@@ -0,0 +1,25 @@
+package com.jogyco.takeaway.benchmark;
+
+import com.jogyco.takeaway.EmailValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmailValidatorBenchmark {
+
+    @Param({"john.doe@gmail.com", "john.doe.with.a.very.long.local.part@sub.domain.example.com", "not-an-email"})
+    private String email;
+
+    private final EmailValidator emailValidator = new EmailValidator();
+
+    @Benchmark
+    public boolean test() {
+        return emailValidator.test(email);
+    }
+}
@@ -0,0 +1,121 @@
+package com.jogyco.takeaway.benchmark;
+
+import com.jogyco.takeaway.model.EmployeeIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert throughput with random and time ordered ids, in rows per second. After each run size of the primary
+ * key index is printed, which is where random ids hurt the most. Runs against in memory H2 by default, which
+ * doesn't report index size. For real numbers run it against Postgres, e.g. the one from docker-compose.yml:
+ * <pre>
+ * mvn -P benchmark test-compile exec:exec -Djmh.args="EmployeeIdBenchmark -t 4 \
+ *   -jvmArgsAppend -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:2345/employee?reWriteBatchedInserts=true"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@OperationsPerInvocation(EmployeeIdBenchmark.BATCH_SIZE)
+public class EmployeeIdBenchmark {
+
+    static final int BATCH_SIZE = 100;
+
+    private static final String TABLE = "employee_id_benchmark";
+
+    private static final String URL = System.getProperty("benchmark.jdbc.url", "jdbc:h2:mem:ids;DB_CLOSE_DELAY=-1");
+    private static final String USERNAME = System.getProperty("benchmark.jdbc.username", "jogyco");
+    private static final String PASSWORD = System.getProperty("benchmark.jdbc.password", "password");
+
+    @State(Scope.Benchmark)
+    public static class Table {
+
+        @Param({"RANDOM", "TIME_ORDERED"})
+        private EmployeeIdGenerator.Strategy strategy;
+
+        private EmployeeIdGenerator generator;
+
+        @Setup
+        public void setUp() throws SQLException {
+            generator = new EmployeeIdGenerator(strategy);
+            try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS " + TABLE);
+                statement.execute("CREATE TABLE " + TABLE + " (id UUID PRIMARY KEY, full_name VARCHAR(255))");
+            }
+        }
+
+        @TearDown
+        public void tearDown() throws SQLException {
+            try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+                long rows;
+                try (ResultSet count = statement.executeQuery("SELECT COUNT(*) FROM " + TABLE)) {
+                    count.next();
+                    rows = count.getLong(1);
+                }
+                System.out.printf("%n%s: %d rows", strategy, rows);
+                if (URL.startsWith("jdbc:postgresql:")) {
+                    try (ResultSet size = statement.executeQuery("SELECT pg_relation_size('" + TABLE + "_pkey')")) {
+                        size.next();
+                        System.out.printf(", primary key index %d bytes, %.1f bytes per row",
+                                size.getLong(1), (double) size.getLong(1) / rows);
+                    }
+                }
+                System.out.println();
+                statement.execute("DROP TABLE " + TABLE);
+            }
+        }
+
+        UUID nextId() {
+            return (UUID) generator.generate(null, null, null, null);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+
+        private Connection connection;
+        private PreparedStatement insert;
+
+        // Table parameter makes JMH create the table first
+        @Setup
+        public void setUp(Table table) throws SQLException {
+            connection = connect();
+            connection.setAutoCommit(false);
+            insert = connection.prepareStatement("INSERT INTO " + TABLE + " (id, full_name) VALUES (?, ?)");
+        }
+
+        @TearDown
+        public void tearDown() throws SQLException {
+            insert.close();
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public int[] insertBatch(Table table, Session session) throws SQLException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            session.insert.setObject(1, table.nextId());
+            session.insert.setString(2, "John Doe");
+            session.insert.addBatch();
+        }
+        int[] inserted = session.insert.executeBatch();
+        session.connection.commit();
+        return inserted;
+    }
+
+    private static Connection connect() throws SQLException {
+        return URL.startsWith("jdbc:h2:")
+                ? DriverManager.getConnection(URL, "sa", "")
+                : DriverManager.getConnection(URL, USERNAME, PASSWORD);
+    }
+}
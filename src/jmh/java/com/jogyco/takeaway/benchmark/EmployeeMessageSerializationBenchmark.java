@@ -0,0 +1,74 @@
+package com.jogyco.takeaway.benchmark;
+
+import com.jogyco.takeaway.kafka.EmployeeMessage;
+import com.jogyco.takeaway.kafka.EmployeeMessageAvroDeserializer;
+import com.jogyco.takeaway.kafka.EmployeeMessageAvroSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialize/deserialize cost of EmployeeMessage in JSON and Avro.
+ * Payload sizes are printed once per fork.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeMessageSerializationBenchmark {
+
+    private static final String TOPIC = "takeaway";
+
+    private final JsonSerializer<EmployeeMessage> jsonSerializer = new JsonSerializer<>();
+    private final JsonDeserializer<EmployeeMessage> jsonDeserializer = new JsonDeserializer<>(EmployeeMessage.class, false);
+    private final EmployeeMessageAvroSerializer avroSerializer = new EmployeeMessageAvroSerializer();
+    private final EmployeeMessageAvroDeserializer avroDeserializer = new EmployeeMessageAvroDeserializer();
+
+    private EmployeeMessage employeeMessage;
+    private byte[] json;
+    private byte[] avro;
+
+    @Setup
+    public void setUp() {
+        jsonSerializer.configure(Map.of(JsonSerializer.ADD_TYPE_INFO_HEADERS, false), false);
+        employeeMessage = EmployeeMessage.builder()
+                .id(UUID.randomUUID().toString())
+                .employeeName("John Doe")
+                .email("john.doe@gmail.com")
+                .birthday(LocalDate.of(1990, 5, 17))
+                .hobbies(List.of("Football", "Chess", "Hiking"))
+                .event(EmployeeMessage.Event.UPDATED)
+                .build();
+        json = jsonSerializer.serialize(TOPIC, employeeMessage);
+        avro = avroSerializer.serialize(TOPIC, employeeMessage);
+        System.out.printf("%nPayload size: JSON %d bytes, Avro %d bytes%n", json.length, avro.length);
+    }
+
+    @Benchmark
+    public byte[] jsonSerialize() {
+        return jsonSerializer.serialize(TOPIC, employeeMessage);
+    }
+
+    @Benchmark
+    public EmployeeMessage jsonDeserialize() {
+        return jsonDeserializer.deserialize(TOPIC, json);
+    }
+
+    @Benchmark
+    public byte[] avroSerialize() {
+        return avroSerializer.serialize(TOPIC, employeeMessage);
+    }
+
+    @Benchmark
+    public EmployeeMessage avroDeserialize() {
+        return avroDeserializer.deserialize(TOPIC, avro);
+    }
+}
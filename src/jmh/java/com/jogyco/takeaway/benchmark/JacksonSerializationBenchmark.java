@@ -0,0 +1,85 @@
+package com.jogyco.takeaway.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.jogyco.takeaway.kafka.EmployeeMessage;
+import com.jogyco.takeaway.model.Employee;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of REST responses ({@link Employee}) and outbox payloads ({@link EmployeeMessage}),
+ * with an ObjectMapper configured the same way as Spring Boot's one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JacksonSerializationBenchmark {
+
+    private ObjectWriter employeeWriter;
+    private ObjectReader employeeReader;
+    private ObjectWriter employeeMessageWriter;
+    private ObjectReader employeeMessageReader;
+
+    private Employee employee;
+    private EmployeeMessage employeeMessage;
+    private String employeeJson;
+    private String employeeMessageJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        employeeWriter = objectMapper.writerFor(Employee.class);
+        employeeReader = objectMapper.readerFor(Employee.class);
+        employeeMessageWriter = objectMapper.writerFor(EmployeeMessage.class);
+        employeeMessageReader = objectMapper.readerFor(EmployeeMessage.class);
+
+        employee = Employee.builder()
+                .id(UUID.randomUUID())
+                .fullName("John Doe")
+                .email("john.doe@gmail.com")
+                .birthday(LocalDate.of(1990, 5, 17))
+                .hobbies(List.of("Football", "Chess", "Hiking"))
+                .build();
+        employeeMessage = EmployeeMessage.builder()
+                .id(employee.getId().toString())
+                .employeeName(employee.getFullName())
+                .email(employee.getEmail())
+                .birthday(employee.getBirthday())
+                .hobbies(employee.getHobbies())
+                .event(EmployeeMessage.Event.CREATED)
+                .build();
+        employeeJson = employeeWriter.writeValueAsString(employee);
+        employeeMessageJson = employeeMessageWriter.writeValueAsString(employeeMessage);
+    }
+
+    @Benchmark
+    public String serializeEmployee() throws JsonProcessingException {
+        return employeeWriter.writeValueAsString(employee);
+    }
+
+    @Benchmark
+    public Employee deserializeEmployee() throws JsonProcessingException {
+        return employeeReader.readValue(employeeJson);
+    }
+
+    @Benchmark
+    public String serializeEmployeeMessage() throws JsonProcessingException {
+        return employeeMessageWriter.writeValueAsString(employeeMessage);
+    }
+
+    @Benchmark
+    public EmployeeMessage deserializeEmployeeMessage() throws JsonProcessingException {
+        return employeeMessageReader.readValue(employeeMessageJson);
+    }
+}
@@ -0,0 +1,40 @@
+package com.jogyco.takeaway.service;
+
+import com.jogyco.takeaway.kafka.EmployeeMessage;
+import com.jogyco.takeaway.model.Employee;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In the service package, because message building is package-private.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeMessageBenchmark {
+
+    private Employee employee;
+
+    @Setup
+    public void setUp() {
+        employee = Employee.builder()
+                .id(UUID.randomUUID())
+                .fullName("John Doe")
+                .email("john.doe@gmail.com")
+                .birthday(LocalDate.of(1990, 5, 17))
+                .hobbies(List.of("Football", "Chess", "Hiking"))
+                .build();
+    }
+
+    @Benchmark
+    public EmployeeMessage buildEmployeeMessage() {
+        return EmployeeService.buildEmployeeMessage(employee, EmployeeMessage.Event.UPDATED);
+    }
+}
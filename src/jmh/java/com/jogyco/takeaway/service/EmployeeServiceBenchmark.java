@@ -0,0 +1,88 @@
+package com.jogyco.takeaway.service;
+
+import com.jogyco.takeaway.TakeawayApplication;
+import com.jogyco.takeaway.controller.EmployeeCreationRequest;
+import com.jogyco.takeaway.dao.EmployeeRepository;
+import com.jogyco.takeaway.model.Employee;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service calls through the whole Spring stack (transactions, cache, outbox) against in memory H2.
+ * Numbers are only comparable between runs on the same machine - H2 is much faster than Postgres over network.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeServiceBenchmark {
+
+    private final AtomicLong emailSequence = new AtomicLong();
+
+    private ConfigurableApplicationContext context;
+    private EmployeeService employeeService;
+    private EmployeeRepository employeeRepository;
+    private UUID employeeId;
+
+    @Setup
+    public void setUp() {
+        // Command line arguments, so they win over application.yml and test application.properties
+        context = new SpringApplicationBuilder(TakeawayApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driverClassName=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.show-sql=false",
+                "--spring.jpa.properties.hibernate.format_sql=false",
+                "--spring.docker.compose.enabled=false",
+                "--spring.kafka.admin.auto-create=false",
+                "--outbox.relay.enabled=false",
+                "--employee.cache.kafka-invalidation=false",
+                "--logging.level.root=WARN");
+        employeeService = context.getBean(EmployeeService.class);
+        employeeRepository = context.getBean(EmployeeRepository.class);
+        employeeId = employeeService.createEmployee(newEmployeeRequest()).getBody().getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Employee createEmployee() {
+        return employeeService.createEmployee(newEmployeeRequest()).getBody();
+    }
+
+    @Benchmark
+    public Employee findEmployeeById() {
+        return employeeService.findEmployeeById(employeeId);
+    }
+
+    // Same lookup without the cache in front of it
+    @Benchmark
+    public Employee findEmployeeByIdFromDb() {
+        return employeeRepository.findById(employeeId).orElseThrow();
+    }
+
+    private EmployeeCreationRequest newEmployeeRequest() {
+        return new EmployeeCreationRequest(
+                "John",
+                "Doe",
+                "john.doe." + emailSequence.incrementAndGet() + "@gmail.com",
+                LocalDate.of(1990, 5, 17),
+                List.of("Football", "Chess"));
+    }
+}
@@ -0,0 +1,92 @@
+package com.jogyco.takeaway;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of taken emails. It can say that an email is definitely not taken without a DB round trip,
+ * but "might be taken" still has to be confirmed by the DB. Until it is warmed up with all emails from the
+ * DB every email might be taken. Emails are never removed, so emails of deleted employees only cost a DB
+ * check. The unique constraint on the email column stays the source of truth, e.g. for emails taken by
+ * other instances or between the check and the insert.
+ */
+@Component
+public class EmailBloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long numberOfBits;
+    private final int numberOfHashFunctions;
+    private volatile boolean warm;
+
+    public EmailBloomFilter(@Value("${employee.email-filter.expected-insertions:1000000}") long expectedInsertions,
+                            @Value("${employee.email-filter.false-positive-probability:0.01}") double falsePositiveProbability) {
+        if (expectedInsertions < 1 || falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("Expected insertions must be positive and false positive probability between 0 and 1");
+        }
+        // Optimal size and number of hash functions for expected insertions and false positive probability
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray(Math.toIntExact((optimalBits + 63) / 64));
+        this.numberOfBits = bits.length() * 64L;
+        this.numberOfHashFunctions = Math.max(1, (int) Math.round((double) numberOfBits / expectedInsertions * Math.log(2)));
+    }
+
+    public void put(String email) {
+        long hash1 = hash(email);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < numberOfHashFunctions; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, numberOfBits);
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(index);
+            } while ((current & mask) == 0 && !bits.compareAndSet(index, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(String email) {
+        if (!warm) {
+            return true;
+        }
+        long hash1 = hash(email);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < numberOfHashFunctions; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, numberOfBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marks the filter as complete - from now on it answers "definitely not taken" for unknown emails.
+     */
+    public void markWarm() {
+        warm = true;
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    // FNV-1a over UTF-8 bytes, followed by a mixing step for better spread of the bits
+    private static long hash(String email) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : email.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // Finalizer of SplitMix64
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
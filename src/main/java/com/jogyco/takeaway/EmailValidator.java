@@ -1,5 +1,6 @@
 package com.jogyco.takeaway;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.stereotype.Component;
 
 import java.util.function.Predicate;
@@ -15,6 +16,7 @@ public class EmailValidator implements Predicate<String> {
             ).asPredicate();
 
     @Override
+    @Timed("employee.email.validation")
     public boolean test(String email) {
         return IS_EMAIL_VALID.test(email);
     }
@@ -4,9 +4,11 @@ import com.jogyco.takeaway.config.openapi.OpenApiProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableConfigurationProperties(OpenApiProperties.class)
+@EnableScheduling
 public class TakeawayApplication {
     public static void main(String[] args) {
         SpringApplication.run(TakeawayApplication.class, args);
@@ -0,0 +1,36 @@
+package com.jogyco.takeaway.config.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String EMPLOYEES_CACHE = "employees";
+    public static final String UPCOMING_BIRTHDAYS_CACHE = "upcomingBirthdays";
+
+    @Bean
+    public CacheManager cacheManager(EmployeeCacheProperties properties) {
+        var cacheManager = new CaffeineCacheManager();
+        // recordStats is needed for hit/miss/eviction metrics
+        cacheManager.registerCustomCache(EMPLOYEES_CACHE, Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .recordStats()
+                .build());
+        // Keyed by day and number of days, so it is small, and yesterday's results are never used again
+        cacheManager.registerCustomCache(UPCOMING_BIRTHDAYS_CACHE, Caffeine.newBuilder()
+                .maximumSize(100)
+                .expireAfterWrite(properties.getUpcomingBirthdaysTimeToLive())
+                .recordStats()
+                .build());
+        // Evictions done in a transaction are applied after commit, so readers can't cache the old row again
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,25 @@
+package com.jogyco.takeaway.config.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "employee.cache")
+@Getter
+@Setter
+public class EmployeeCacheProperties {
+
+    // Max number of employees kept in the cache, least used ones are evicted first
+    private long maximumSize = 10_000;
+    // Employee is evicted this long after it was loaded, even if nobody changed it
+    private Duration timeToLive = Duration.ofMinutes(5);
+    // Evict employees on UPDATED/DELETED Kafka events, so changes made by other instances are seen
+    private boolean kafkaInvalidation = true;
+    // Upcoming birthdays are cached per day, and also cleared on every employee change
+    private Duration upcomingBirthdaysTimeToLive = Duration.ofHours(1);
+
+}
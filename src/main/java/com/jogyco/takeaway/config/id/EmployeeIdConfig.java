@@ -0,0 +1,20 @@
+package com.jogyco.takeaway.config.id;
+
+import com.jogyco.takeaway.model.EmployeeIdGenerator;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hands the id strategy over to {@link EmployeeIdGenerator}, which is created by Hibernate and reads it from
+ * Hibernate settings.
+ */
+@Configuration
+public class EmployeeIdConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer employeeIdStrategyCustomizer(EmployeeIdProperties properties) {
+        return hibernateProperties -> hibernateProperties.put(
+                EmployeeIdGenerator.STRATEGY_SETTING, properties.getStrategy());
+    }
+}
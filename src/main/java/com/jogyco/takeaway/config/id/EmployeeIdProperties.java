@@ -0,0 +1,21 @@
+package com.jogyco.takeaway.config.id;
+
+import com.jogyco.takeaway.model.EmployeeIdGenerator;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * How ids of new employees are generated.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "employee.id")
+@Getter
+@Setter
+public class EmployeeIdProperties {
+
+    // time-ordered (UUIDv7) keeps the primary key index compact under inserts, random (UUIDv4) was used before
+    private EmployeeIdGenerator.Strategy strategy = EmployeeIdGenerator.Strategy.TIME_ORDERED;
+
+}
@@ -0,0 +1,31 @@
+package com.jogyco.takeaway.config.idempotency;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings of the Idempotency-Key support of employee writes.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "employee.idempotency")
+@Getter
+@Setter
+public class IdempotencyProperties {
+
+    // memory - kept by this instance only, db - shared by all instances in the idempotency_record table
+    private Store store = Store.MEMORY;
+    // Response of a request is returned for its retries this long, after that the key can be used again
+    private Duration timeToLive = Duration.ofHours(24);
+    // Max number of keys kept by the memory store, oldest ones are evicted first
+    private long maximumSize = 100_000;
+    // Request which is still running after this long is considered abandoned, and its key can be claimed by a retry
+    private Duration inProgressTimeout = Duration.ofSeconds(30);
+
+    public enum Store {
+        MEMORY, DB
+    }
+}
@@ -0,0 +1,26 @@
+package com.jogyco.takeaway.config.kafka;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings of the in-memory employee projection, which is built from the employee events on Kafka.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "employee.projection")
+@Getter
+@Setter
+public class EmployeeProjectionProperties {
+
+    // Consume employee events into the projection. Every instance reads the whole topic from the beginning
+    private boolean enabled = false;
+    // Number of consumer threads, more than the number of topic partitions doesn't help
+    private int concurrency = 1;
+    // Max number of events handed to the listener in one batch
+    private int maxPollRecords = 500;
+    // Serve GET by id from the projection. It is eventually consistent, employees missing there are read from the DB
+    private boolean serveReads = false;
+
+}
@@ -0,0 +1,31 @@
+package com.jogyco.takeaway.config.kafka;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings of the compacted employee state topic, which has the latest state of every employee keyed by its id,
+ * see {@link com.jogyco.takeaway.kafka.EmployeeStatePublisher}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "employee.kafka.state-topic")
+@Getter
+@Setter
+public class EmployeeStateTopicProperties {
+
+    // Publish the state of changed employees together with their events
+    private boolean enabled = false;
+    private String name = "takeaway-state";
+    private int partitions = 12;
+    private short replicas = 1;
+    private int minInsyncReplicas = 1;
+    // How long tombstones of deleted employees are kept, consumers which are further behind don't see the delete
+    private Duration deleteRetention = Duration.ofDays(1);
+    // Employees read from the DB and sent in one step of the snapshot
+    private int snapshotBatchSize = 500;
+
+}
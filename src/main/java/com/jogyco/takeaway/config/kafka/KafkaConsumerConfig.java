@@ -0,0 +1,81 @@
+package com.jogyco.takeaway.config.kafka;
+
+import com.jogyco.takeaway.kafka.EmployeeMessage;
+import com.jogyco.takeaway.kafka.EmployeeMessageAvroDeserializer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class KafkaConsumerConfig {
+
+    @Value("${spring.kafka.bootstrap-services}")
+    private String bootstrapServers;
+
+    @Value("${employee.kafka.message-format:json}")
+    private MessageFormat messageFormat;
+
+    public Map<String, Object> consumerConfig() {
+        HashMap<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        // Message which can't be deserialized is logged and skipped, instead of being retried forever
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        switch (messageFormat) {
+            case AVRO -> configProps.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, EmployeeMessageAvroDeserializer.class);
+            case JSON -> {
+                configProps.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+                configProps.put(JsonDeserializer.TRUSTED_PACKAGES, EmployeeMessage.class.getPackageName());
+                configProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE, EmployeeMessage.class);
+            }
+        }
+        return configProps;
+    }
+
+    @Bean
+    public ConsumerFactory<String, EmployeeMessage> consumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(consumerConfig());
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, EmployeeMessage> kafkaListenerContainerFactory() {
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, EmployeeMessage>();
+        factory.setConsumerFactory(consumerFactory());
+        // Listeners run in a span which continues the trace from the record headers
+        factory.getContainerProperties().setObservationEnabled(true);
+        return factory;
+    }
+
+    /**
+     * Batch listeners of the employee projection. Consumer client metrics (fetch rate, records lag, ...) are
+     * published with Micrometer.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, EmployeeMessage> projectionKafkaListenerContainerFactory(
+            EmployeeProjectionProperties properties, MeterRegistry meterRegistry) {
+        var configProps = consumerConfig();
+        // Projection is kept in memory only, so it is rebuilt from the first event after every start
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, properties.getMaxPollRecords());
+        var consumerFactory = new DefaultKafkaConsumerFactory<String, EmployeeMessage>(configProps);
+        consumerFactory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, EmployeeMessage>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.setConcurrency(properties.getConcurrency());
+        return factory;
+    }
+}
@@ -1,13 +1,19 @@
 package com.jogyco.takeaway.config.kafka;
 
 import com.jogyco.takeaway.kafka.EmployeeMessage;
+import com.jogyco.takeaway.kafka.EmployeeMessageAvroSerializer;
+import com.jogyco.takeaway.kafka.EmployeePartitioner;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
@@ -15,26 +21,48 @@ import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
+@RequiredArgsConstructor
 public class KafkaProducerConfig {
 
+    private final KafkaProperties kafkaProperties;
+
     @Value("${spring.kafka.bootstrap-services}")
     private String bootstrapServers;
 
+    @Value("${employee.kafka.message-format:json}")
+    private MessageFormat messageFormat;
+
     public Map<String, Object> producerConfig() {
-        HashMap<String, Object> configProps = new HashMap<>();
+        // acks, batch size, compression, linger.ms and idempotence come from spring.kafka.producer.*
+        HashMap<String, Object> configProps = new HashMap<>(kafkaProperties.buildProducerProperties());
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        // All events of an employee go to one partition, with few keys moving when partitions are added
+        configProps.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, EmployeePartitioner.class);
+        switch (messageFormat) {
+            case AVRO -> configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, EmployeeMessageAvroSerializer.class);
+            case JSON -> {
+                configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+                // Consumers know the type, there is no need to send it with every record
+                configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
+            }
+        }
         return configProps;
     }
 
     @Bean
-    public ProducerFactory<String, EmployeeMessage> producerFactory() {
-        return new DefaultKafkaProducerFactory<>(producerConfig());
+    public ProducerFactory<String, EmployeeMessage> producerFactory(MeterRegistry meterRegistry) {
+        var producerFactory = new DefaultKafkaProducerFactory<String, EmployeeMessage>(producerConfig());
+        // Native producer metrics - batch size, compression rate, record queue time...
+        producerFactory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return producerFactory;
     }
 
     @Bean
-    public KafkaTemplate<String, EmployeeMessage> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<String, EmployeeMessage> kafkaTemplate(ProducerFactory<String, EmployeeMessage> producerFactory) {
+        var kafkaTemplate = new KafkaTemplate<>(producerFactory);
+        // Creates a span per send and puts its trace context into the record headers
+        kafkaTemplate.setObservationEnabled(true);
+        return kafkaTemplate;
     }
 }
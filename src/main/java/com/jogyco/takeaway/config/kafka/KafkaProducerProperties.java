@@ -0,0 +1,25 @@
+package com.jogyco.takeaway.config.kafka;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Backpressure settings of {@link com.jogyco.takeaway.kafka.KafkaProducer}. Producer tuning itself
+ * (acks, batch size, compression, linger.ms, idempotence) is set with standard spring.kafka.producer.* properties.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "employee.kafka")
+@Getter
+@Setter
+public class KafkaProducerProperties {
+
+    // Max number of messages sent, but not acknowledged by the broker yet
+    private int maxInFlight = 10_000;
+    // How long a send waits for a free in-flight slot before the message is rejected
+    private Duration maxBlock = Duration.ofSeconds(5);
+
+}
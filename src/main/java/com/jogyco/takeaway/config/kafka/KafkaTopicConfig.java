@@ -1,20 +1,49 @@
 package com.jogyco.takeaway.config.kafka;
 
+import lombok.RequiredArgsConstructor;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
 
 @Configuration
+@RequiredArgsConstructor
 public class KafkaTopicConfig {
 
     @Value("${spring.kafka.topic.name}")
     private String TOPIC;
 
+    private final KafkaTopicProperties topicProperties;
+
+    private final EmployeeStateTopicProperties stateTopicProperties;
+
+    // KafkaAdmin adds missing partitions of an existing topic, configs are changed only with
+    // spring.kafka.admin.modify-topic-configs=true
     @Bean
     public NewTopic takeawayTopic() {
+        var retention = topicProperties.getRetention();
         return TopicBuilder.name(TOPIC)
+                .partitions(topicProperties.getPartitions())
+                .replicas(topicProperties.getReplicas())
+                .config(TopicConfig.MIN_IN_SYNC_REPLICAS_CONFIG, String.valueOf(topicProperties.getMinInsyncReplicas()))
+                .config(TopicConfig.RETENTION_MS_CONFIG, String.valueOf(retention.isNegative() ? -1 : retention.toMillis()))
+                .config(TopicConfig.CLEANUP_POLICY_CONFIG, topicProperties.getCleanupPolicy())
+                .build();
+    }
+
+    // Only the latest record of every key is kept, records of deleted employees are removed after their tombstone
+    @Bean
+    @ConditionalOnProperty(prefix = "employee.kafka.state-topic", name = "enabled", havingValue = "true")
+    public NewTopic employeeStateTopic() {
+        return TopicBuilder.name(stateTopicProperties.getName())
+                .partitions(stateTopicProperties.getPartitions())
+                .replicas(stateTopicProperties.getReplicas())
+                .compact()
+                .config(TopicConfig.MIN_IN_SYNC_REPLICAS_CONFIG, String.valueOf(stateTopicProperties.getMinInsyncReplicas()))
+                .config(TopicConfig.DELETE_RETENTION_MS_CONFIG, String.valueOf(stateTopicProperties.getDeleteRetention().toMillis()))
                 .build();
     }
 }
@@ -0,0 +1,33 @@
+package com.jogyco.takeaway.config.kafka;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Settings of the employee topic, which is created (or extended) on startup by {@link KafkaTopicConfig}.
+ * Partitions can only be added, and keys of an employee move to another partition when they are, see
+ * {@link com.jogyco.takeaway.kafka.EmployeePartitioner}.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "employee.kafka.topic")
+@Getter
+@Setter
+public class KafkaTopicProperties {
+
+    // Upper limit for consumer threads of one group, every partition is read by one of them at a time
+    private int partitions = 12;
+    // Copies of every partition, 1 is enough only for the single local broker
+    private short replicas = 1;
+    // Replicas which have to have a record before acks=all send succeeds, replicas - 1 survives one broker down
+    private int minInsyncReplicas = 1;
+    // How long events are kept, -1 keeps them forever
+    private Duration retention = Duration.ofDays(7);
+    // delete, compact or compact,delete. Compaction keeps only the last event of an employee, which is
+    // the latest state only for consumers that don't need the whole history (PATCHED events are deltas)
+    private String cleanupPolicy = "delete";
+
+}
@@ -0,0 +1,11 @@
+package com.jogyco.takeaway.config.kafka;
+
+/**
+ * Format of {@link com.jogyco.takeaway.kafka.EmployeeMessage} values on the topic,
+ * selected with employee.kafka.message-format property.
+ */
+public enum MessageFormat {
+    JSON,
+    // Avro binary with the schema from avro/employee-message.avsc - no field names or type headers in records
+    AVRO
+}
@@ -0,0 +1,23 @@
+package com.jogyco.takeaway.config.metrics;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables {@link io.micrometer.core.annotation.Timed} on Spring beans. Services are timed per method
+ * (employee.service), email validation as employee.email.validation. HTTP requests, repository calls
+ * and Kafka sends are timed without annotations. Percentile histograms are enabled with
+ * management.metrics.distribution.* properties, so p99 can be calculated from the Prometheus buckets.
+ */
+@Configuration
+public class MetricsConfig {
+
+    public static final String SERVICE_TIMER = "employee.service";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -13,14 +13,18 @@ import org.springframework.context.annotation.Configuration;
 public class OpenApiConfig {
     private static final String SCHEME_NAME = "basicAuth";
     private static final String SCHEME = "basic";
+    private static final String BEARER_SCHEME_NAME = "bearerAuth";
+    private static final String BEARER_SCHEME = "bearer";
 
     @Bean
     public OpenAPI customOpenAPI(OpenApiProperties properties) {
         return new OpenAPI()
                 .info(getInfo(properties))
                 .components(new Components()
-                        .addSecuritySchemes(SCHEME_NAME, createSecurityScheme()))
-                .addSecurityItem(new SecurityRequirement().addList(SCHEME_NAME));
+                        .addSecuritySchemes(SCHEME_NAME, createSecurityScheme())
+                        .addSecuritySchemes(BEARER_SCHEME_NAME, createBearerSecurityScheme()))
+                .addSecurityItem(new SecurityRequirement().addList(SCHEME_NAME))
+                .addSecurityItem(new SecurityRequirement().addList(BEARER_SCHEME_NAME));
     }
 
     private Info getInfo(OpenApiProperties properties) {
@@ -43,5 +47,13 @@ public class OpenApiConfig {
                 .type(SecurityScheme.Type.HTTP)
                 .scheme(SCHEME);
     }
+
+    private SecurityScheme createBearerSecurityScheme() {
+        return new SecurityScheme()
+                .name(BEARER_SCHEME_NAME)
+                .type(SecurityScheme.Type.HTTP)
+                .scheme(BEARER_SCHEME)
+                .bearerFormat("JWT");
+    }
 }
 
@@ -0,0 +1,25 @@
+package com.jogyco.takeaway.config.outbox;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "outbox.relay")
+@Getter
+@Setter
+public class OutboxProperties {
+
+    // Relay can be turned off on instances which should only write to the outbox
+    private boolean enabled = true;
+    // Max number of events published and removed from the outbox in one transaction
+    private int batchSize = 100;
+    // Delay in milliseconds between the end of one drain and the start of the next one
+    private long pollInterval = 500;
+    // How long in milliseconds to wait for Kafka to acknowledge one batch
+    private long sendTimeout = 30_000;
+    // Failed sends after which an event is marked as failed and skipped, so it doesn't hold back the rest
+    private int maxAttempts = 10;
+
+}
@@ -0,0 +1,58 @@
+package com.jogyco.takeaway.config.reactive;
+
+import com.jogyco.takeaway.config.kafka.KafkaProducerConfig;
+import com.jogyco.takeaway.config.kafka.KafkaProducerProperties;
+import com.jogyco.takeaway.kafka.EmployeeMessage;
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+
+/**
+ * Reactive stack, selected with spring.profiles.active=reactive (see application-reactive.yml). Employee API
+ * runs on Netty with R2DBC and reactor-kafka. JPA and its small pool stay for startup and background work.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveConfig {
+
+    // Boot doesn't create a JDBC DataSource when there is an R2DBC ConnectionFactory, JPA needs one anyway
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    // Not a transaction manager bean, @Transactional keeps using the JPA one without qualifiers
+    @Bean
+    public TransactionalOperator transactionalOperator(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    // Same producer settings and serializer as KafkaTemplate. Failed records are reported in their results
+    // instead of ending the whole send, as with futures of KafkaTemplate
+    @Bean(destroyMethod = "close")
+    public KafkaSender<String, EmployeeMessage> kafkaSender(KafkaProducerConfig kafkaProducerConfig,
+                                                            KafkaProducerProperties kafkaProducerProperties) {
+        return KafkaSender.create(SenderOptions.<String, EmployeeMessage>create(kafkaProducerConfig.producerConfig())
+                .maxInFlight(kafkaProducerProperties.getMaxInFlight())
+                .stopOnError(false));
+    }
+}
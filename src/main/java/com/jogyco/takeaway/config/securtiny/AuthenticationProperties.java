@@ -0,0 +1,24 @@
+package com.jogyco.takeaway.config.securtiny;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "employee.security")
+@Getter
+@Setter
+public class AuthenticationProperties {
+
+    // HMAC key for signing access tokens, at least 32 bytes. If empty, a random one is generated on startup,
+    // so tokens are valid only on the instance which issued them, until it is restarted
+    private String jwtSecret;
+    private Duration tokenTimeToLive = Duration.ofMinutes(15);
+    // How long successfully verified basic auth credentials are trusted without running BCrypt again
+    private Duration credentialsCacheTimeToLive = Duration.ofMinutes(1);
+    private long credentialsCacheMaximumSize = 1000;
+
+}
@@ -0,0 +1,72 @@
+package com.jogyco.takeaway.config.securtiny;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Runs the delegate (BCrypt) only for credentials which were not successfully verified in the last TTL.
+ * Verified credentials are kept as salted SHA-256 digests, never in plain text, so repeated basic auth
+ * requests cost one hash instead of one BCrypt run. Failed attempts are not cached.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+
+    private final Cache<String, Authentication> verifiedCredentials;
+
+    private final byte[] salt = new byte[16];
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, Duration timeToLive, long maximumSize) {
+        this.delegate = delegate;
+        this.verifiedCredentials = Caffeine.newBuilder()
+                .expireAfterWrite(timeToLive)
+                .maximumSize(maximumSize)
+                .build();
+        new SecureRandom().nextBytes(salt);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (!(authentication.getCredentials() instanceof String password)) {
+            return delegate.authenticate(authentication);
+        }
+        var key = digest(authentication.getName(), password);
+        var verified = verifiedCredentials.getIfPresent(key);
+        if (verified != null) {
+            return UsernamePasswordAuthenticationToken.authenticated(verified.getPrincipal(), null, verified.getAuthorities());
+        }
+        var result = delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated()) {
+            verifiedCredentials.put(key, result);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+
+    private String digest(String username, String password) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(salt);
+            digest.update(username.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return HexFormat.of().formatHex(digest.digest(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.jogyco.takeaway.config.securtiny;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+
+/**
+ * Key which signs and verifies bearer tokens. Shared by the servlet and the reactive stack, so a token issued
+ * by one of them is accepted by the other when they have the same employee.security.jwt-secret.
+ */
+@Slf4j
+@Configuration
+public class JwtConfig {
+
+    private static final int MIN_SECRET_LENGTH = 32;
+
+    @Bean
+    public SecretKey jwtSecretKey(AuthenticationProperties properties) {
+        var secret = properties.getJwtSecret();
+        byte[] key;
+        if (secret == null || secret.isBlank()) {
+            log.warn("employee.security.jwt-secret is not set, tokens are signed with a random key of this instance");
+            key = new byte[MIN_SECRET_LENGTH];
+            new SecureRandom().nextBytes(key);
+        } else {
+            key = secret.getBytes(StandardCharsets.UTF_8);
+            if (key.length < MIN_SECRET_LENGTH) {
+                throw new IllegalStateException("employee.security.jwt-secret must have at least %d bytes"
+                        .formatted(MIN_SECRET_LENGTH));
+            }
+        }
+        return new SecretKeySpec(key, "HmacSHA256");
+    }
+
+    @Bean
+    public JwtEncoder jwtEncoder(SecretKey jwtSecretKey) {
+        return new NimbusJwtEncoder(new ImmutableSecret<>(jwtSecretKey));
+    }
+}
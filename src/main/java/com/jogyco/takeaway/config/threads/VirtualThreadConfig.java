@@ -0,0 +1,41 @@
+package com.jogyco.takeaway.config.threads;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Runs HTTP requests and Kafka send callbacks on virtual threads, so a request blocked on JDBC or Kafka
+ * doesn't hold a platform thread. With virtual threads the limit of concurrent requests is
+ * server.tomcat.max-connections, and the DB connection pool becomes the real bottleneck.
+ * On JVMs older than 21 a warning is logged and platform threads are used.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "employee.threads", name = "virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+    public static final String KAFKA_CALLBACK_EXECUTOR = "kafkaCallbackExecutor";
+
+    @Bean(name = KAFKA_CALLBACK_EXECUTOR)
+    public Executor kafkaCallbackExecutor() {
+        return VirtualThreads.newVirtualThreadPerTaskExecutor()
+                .<Executor>map(executor -> executor)
+                .orElseGet(() -> {
+                    log.warn("Virtual threads are enabled, but Java {} doesn't support them, platform threads are used",
+                            Runtime.version().feature());
+                    // Callbacks stay on the producer I/O thread, as without this mode
+                    return Runnable::run;
+                });
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> VirtualThreads.newVirtualThreadPerTaskExecutor()
+                .ifPresent(protocolHandler::setExecutor);
+    }
+}
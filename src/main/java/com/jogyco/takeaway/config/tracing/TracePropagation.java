@@ -0,0 +1,72 @@
+package com.jogyco.takeaway.config.tracing;
+
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Carries the trace of an employee change over the outbox. The W3C traceparent of the request is stored with
+ * the outbox event, and the relay sends the event in a span which continues that trace, so Kafka record
+ * headers (and consumers) join the trace of the request. When tracing is off, nothing is stored or started.
+ */
+@Component
+public class TracePropagation {
+
+    public static final String TRACEPARENT = "traceparent";
+
+    public static final TracePropagation NOOP = new TracePropagation(Tracer.NOOP, Propagator.NOOP);
+
+    private final Tracer tracer;
+
+    private final Propagator propagator;
+
+    @Autowired
+    public TracePropagation(ObjectProvider<Tracer> tracer, ObjectProvider<Propagator> propagator) {
+        this(tracer.getIfAvailable(() -> Tracer.NOOP), propagator.getIfAvailable(() -> Propagator.NOOP));
+    }
+
+    public TracePropagation(Tracer tracer, Propagator propagator) {
+        this.tracer = tracer;
+        this.propagator = propagator;
+    }
+
+    /**
+     * @return traceparent of the current span, or null if there is none
+     */
+    public String currentTraceParent() {
+        var context = tracer.currentTraceContext().context();
+        if (context == null) {
+            return null;
+        }
+        Map<String, String> carrier = new HashMap<>();
+        propagator.inject(context, carrier, Map::put);
+        return carrier.get(TRACEPARENT);
+    }
+
+    /**
+     * Runs the action in a new span, which is a child of the passed traceparent. Without traceparent
+     * the action is just run.
+     */
+    public <T> T inChildSpan(String traceParent, String name, Supplier<T> action) {
+        if (traceParent == null) {
+            return action.get();
+        }
+        var span = propagator.extract(Map.of(TRACEPARENT, traceParent), Map::get)
+                .name(name)
+                .start();
+        try (var ignored = tracer.withSpan(span)) {
+            return action.get();
+        } catch (RuntimeException e) {
+            span.error(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+}
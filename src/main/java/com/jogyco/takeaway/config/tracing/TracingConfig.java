@@ -0,0 +1,22 @@
+package com.jogyco.takeaway.config.tracing;
+
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spans of HTTP requests, service stages and Kafka sends/receives are created with Micrometer Tracing
+ * on OpenTelemetry. For local testing they can be written to the log, for anything else register
+ * another SpanExporter (e.g. OTLP).
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "employee.tracing.logging-exporter", havingValue = "true")
+    public SpanExporter loggingSpanExporter() {
+        return LoggingSpanExporter.create();
+    }
+}
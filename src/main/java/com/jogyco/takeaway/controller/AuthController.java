@@ -0,0 +1,34 @@
+package com.jogyco.takeaway.controller;
+
+import com.jogyco.takeaway.service.TokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("api/v1/auth")
+@RequiredArgsConstructor
+@Tag(name = "Authentication")
+public class AuthController {
+
+    private final TokenService tokenService;
+
+    @PostMapping("token")
+    @Operation(summary = "Issue an access token",
+            description = "Exchanges basic auth credentials for a short living bearer token"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully issued token"),
+            @ApiResponse(responseCode = "401", description = "Credentials are not valid")
+    })
+    public ResponseEntity<TokenResponse> issueToken(Authentication authentication) {
+        return ResponseEntity.ok(tokenService.issueToken(authentication));
+    }
+}
@@ -0,0 +1,8 @@
+package com.jogyco.takeaway.controller;
+
+/**
+ * Number of employees changed by a bulk update or delete. Ids which don't exist are not counted.
+ */
+public record BulkChangeReport(
+        int affected) {
+}
@@ -0,0 +1,9 @@
+package com.jogyco.takeaway.controller;
+
+import java.util.List;
+
+public record BulkImportReport(
+        int created,
+        int failed,
+        List<BulkImportRowResult> rows) {
+}
@@ -0,0 +1,25 @@
+package com.jogyco.takeaway.controller;
+
+import java.util.UUID;
+
+/**
+ * Result of one imported row. {@code index} is zero based position of the row in the request body.
+ */
+public record BulkImportRowResult(
+        int index,
+        Status status,
+        UUID id,
+        String error) {
+
+    public enum Status {
+        CREATED, FAILED
+    }
+
+    public static BulkImportRowResult created(int index, UUID id) {
+        return new BulkImportRowResult(index, Status.CREATED, id, null);
+    }
+
+    public static BulkImportRowResult failed(int index, String error) {
+        return new BulkImportRowResult(index, Status.FAILED, null, error);
+    }
+}
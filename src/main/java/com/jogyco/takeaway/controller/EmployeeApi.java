@@ -5,9 +5,14 @@ import com.jogyco.takeaway.model.Employee;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
@@ -20,12 +25,98 @@ public interface EmployeeApi {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully created new employee")
     })
-    ResponseEntity<?> createEmployee(@RequestBody EmployeeCreationRequest employeeCreationRequest);
+    ResponseEntity<?> createEmployee(@RequestBody EmployeeCreationRequest employeeCreationRequest,
+                                     @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey);
+
+
+    @PostMapping(path = "bulk", consumes = {"application/json", "application/x-ndjson"})
+    @Operation(summary = "Bulk import employees",
+            description = "Creates employees from JSON Array or NDJSON body and send notifications about them on Kafka. " +
+                    "Returns a result for every row"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import is finished, check the result of every row")
+    })
+    ResponseEntity<BulkImportReport> importEmployees(InputStream body);
+
+
+    @PostMapping(path = "bulk-delete")
+    @Operation(summary = "Bulk delete employees",
+            description = "Deletes employees by ids or by search filter and send notifications about them on Kafka"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Employees are deleted, ids which don't exist are skipped"),
+            @ApiResponse(responseCode = "400", description = "Neither ids nor filter are passed, or both are")
+    })
+    ResponseEntity<BulkChangeReport> deleteEmployees(@RequestBody EmployeeBulkDeleteRequest request);
+
+
+    @PostMapping(path = "bulk-update")
+    @Operation(summary = "Bulk update employees",
+            description = "Sets birthday and/or hobbies of employees by ids or by search filter and send notifications " +
+                    "about them on Kafka"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Employees are updated, ids which don't exist are skipped"),
+            @ApiResponse(responseCode = "400", description = "Nothing to update, or neither ids nor filter are passed")
+    })
+    ResponseEntity<BulkChangeReport> updateEmployees(@RequestBody EmployeeBulkUpdateRequest request);
+
+
+    @PostMapping(path = "state-snapshot")
+    @Operation(summary = "Publish state snapshot",
+            description = "Publishes the current state of all employees to the compacted employee state topic, " +
+                    "for consumers which start reading it from the beginning"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "States of all employees are published"),
+            @ApiResponse(responseCode = "400", description = "State topic is not enabled")
+    })
+    ResponseEntity<StateSnapshotReport> publishStateSnapshot();
 
 
     @GetMapping
-    @Operation(summary = "Get all employees", description = "Returning a ist of all employees in JSON Array format")
-    List<Employee> getAllEmployees();
+    @Operation(summary = "Get all employees", description = "Returning one page of employees ordered by id in JSON Array " +
+            "format. If there are more employees, token for the next page is returned in X-Next-Cursor header. " +
+            "Optional hobby parameter returns only employees with that hobby")
+    ResponseEntity<List<Employee>> getAllEmployees(@RequestParam(required = false) String hobby,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "100") int size,
+                                                   WebRequest webRequest);
+
+
+    @GetMapping(path = "search")
+    @Operation(summary = "Search employees", description = "Returning one page of employees filtered by full name prefix, " +
+            "email domain and birthday range, sorted by comma separated fields (prefix - for descending). " +
+            "With view=summary only id and full name are returned")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully searched employees"),
+            @ApiResponse(responseCode = "400", description = "Invalid filter, sort or page")
+    })
+    ResponseEntity<List<?>> searchEmployees(@RequestParam(required = false) String fullNamePrefix,
+                                            @RequestParam(required = false) String emailDomain,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornFrom,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornTo,
+                                            @RequestParam(defaultValue = "fullName") String sort,
+                                            @RequestParam(defaultValue = "full") String view,
+                                            @RequestParam(defaultValue = "0") int page,
+                                            @RequestParam(defaultValue = "100") int size);
+
+
+    @GetMapping(path = "birthdays/upcoming")
+    @Operation(summary = "Get upcoming birthdays", description = "Returning employees whose birthday is today or in the " +
+            "next days, ordered from the nearest birthday - response in JSON Array format")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully pulled out upcoming birthdays"),
+            @ApiResponse(responseCode = "400", description = "Invalid number of days, at most 31")
+    })
+    ResponseEntity<List<Employee>> getUpcomingBirthdays(@RequestParam(defaultValue = "7") int days);
+
+
+    @GetMapping(path = "stream", produces = "application/x-ndjson")
+    @Operation(summary = "Stream all employees", description = "Streaming all employees ordered by id in NDJSON format " +
+            "(one JSON Object per line)")
+    ResponseEntity<StreamingResponseBody> streamAllEmployees();
 
 
     @GetMapping(path = "{id}")
@@ -34,15 +125,33 @@ public interface EmployeeApi {
             @ApiResponse(responseCode = "200", description = "Successfully pulled out employee deteils"),
             @ApiResponse(responseCode = "404", description = "Employee with given Id not found")
     })
-    public Employee getEmployeeById(@PathVariable UUID id);
+    public ResponseEntity<Employee> getEmployeeById(@PathVariable UUID id, WebRequest webRequest);
 
 
     @DeleteMapping(path = "{id}")
     @Operation(summary = "Delete employee by Id", description = "Delete a specific employee with provided uuid")
-    public void deleteEmployeeById(@PathVariable("id") UUID id);
+    public void deleteEmployeeById(@PathVariable("id") UUID id,
+                                   @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey);
 
 
     @PutMapping
     @Operation(summary = "Update employee", description = "Update employee ...")
-    public void updateEmployee(@RequestBody EmployeeUpdateRequest employee);
+    public void updateEmployee(@RequestBody EmployeeUpdateRequest employee,
+                               @RequestHeader(name = "If-Match", required = false) String ifMatch,
+                               @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey);
+
+
+    @PatchMapping(path = "{id}", consumes = {"application/json", "application/merge-patch+json"})
+    @Operation(summary = "Partially update employee", description = "Changes only the passed fields of a specific " +
+            "employee (JSON Merge Patch, missing or null fields are not changed) and send only the changes on Kafka")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully updated employee, its new ETag is returned"),
+            @ApiResponse(responseCode = "400", description = "Invalid or taken email, or only one of first and last name"),
+            @ApiResponse(responseCode = "404", description = "Employee with given Id not found"),
+            @ApiResponse(responseCode = "412", description = "Employee is changed since the If-Match ETag")
+    })
+    ResponseEntity<?> patchEmployee(@PathVariable UUID id,
+                                    @RequestBody EmployeePatchRequest patch,
+                                    @RequestHeader(name = "If-Match", required = false) String ifMatch,
+                                    @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey);
 }
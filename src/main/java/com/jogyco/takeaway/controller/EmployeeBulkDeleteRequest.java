@@ -0,0 +1,14 @@
+package com.jogyco.takeaway.controller;
+
+import com.jogyco.takeaway.dao.EmployeeSearchCriteria;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Employees to delete, either by ids or by a search filter.
+ */
+public record EmployeeBulkDeleteRequest(
+        List<UUID> ids,
+        EmployeeSearchCriteria filter) {
+}
@@ -0,0 +1,18 @@
+package com.jogyco.takeaway.controller;
+
+import com.jogyco.takeaway.dao.EmployeeSearchCriteria;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Employees to update, either by ids or by a search filter, and the changes. Only passed fields are changed,
+ * hobbies are replaced as a whole.
+ */
+public record EmployeeBulkUpdateRequest(
+        List<UUID> ids,
+        EmployeeSearchCriteria filter,
+        LocalDate birthday,
+        List<String> hobbies) {
+}
@@ -1,30 +1,86 @@
 package com.jogyco.takeaway.controller;
 
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.jogyco.takeaway.config.kafka.EmployeeProjectionProperties;
+import com.jogyco.takeaway.dao.EmployeeProjection;
+import com.jogyco.takeaway.dao.EmployeeSearchCriteria;
+import com.jogyco.takeaway.exception.ApiRequestException;
 import com.jogyco.takeaway.model.Employee;
+import com.jogyco.takeaway.service.BirthdayService;
+import com.jogyco.takeaway.service.EmployeeBulkService;
+import com.jogyco.takeaway.service.EmployeeImportService;
+import com.jogyco.takeaway.service.EmployeeSearchService;
 import com.jogyco.takeaway.service.EmployeeService;
+import com.jogyco.takeaway.service.EmployeeStateSnapshotService;
+import com.jogyco.takeaway.service.IdempotencyService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 @Slf4j
 @RestController
 @RequestMapping("api/v1/employees")
 @RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Tag(name = "Employee")
 public class EmployeeController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    public static final String APPLICATION_MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+    public static final String FULL_VIEW = "full";
+    public static final String SUMMARY_VIEW = "summary";
+
+    private static final Pattern VERSION_ETAG = Pattern.compile("\"\\d{1,18}\"");
+
     private final EmployeeService employeeService;
 
+    private final EmployeeImportService employeeImportService;
+
+    private final EmployeeSearchService employeeSearchService;
+
+    private final EmployeeBulkService employeeBulkService;
+
+    private final EmployeeStateSnapshotService employeeStateSnapshotService;
+
+    private final BirthdayService birthdayService;
+
+    private final EmployeeProjection employeeProjection;
+
+    private final EmployeeProjectionProperties employeeProjectionProperties;
+
+    private final IdempotencyService idempotencyService;
+
+    private final ObjectMapper objectMapper;
+
     //@PreAuthorize("hasRole('ADMIN')")
     @PostMapping
     @Operation(summary = "Create an employee",
@@ -33,40 +89,257 @@ public class EmployeeController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully created new employee")
     })
-    public ResponseEntity<?> createEmployee(@RequestBody EmployeeCreationRequest employeeCreationRequest) {
+    public ResponseEntity<?> createEmployee(
+            @RequestBody EmployeeCreationRequest employeeCreationRequest,
+            @RequestHeader(name = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         log.info("New employee creation {}", employeeCreationRequest);
-        employeeService.createEmployee(employeeCreationRequest);
-        return ResponseEntity.ok("Employee is created!");
+        return idempotencyService.execute(idempotencyKey, "createEmployee", employeeCreationRequest, () -> {
+            employeeService.createEmployee(employeeCreationRequest);
+            return ResponseEntity.ok("Employee is created!");
+        });
+    }
+
+    @PostMapping(path = "bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Bulk import employees",
+            description = "Creates employees from JSON Array or NDJSON body and send notifications about them on Kafka. " +
+                    "Returns a result for every row"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import is finished, check the result of every row")
+    })
+    public ResponseEntity<BulkImportReport> importEmployees(InputStream body) {
+        var report = employeeImportService.importEmployees(body);
+        log.info("Bulk import of employees, {} created and {} failed", report.created(), report.failed());
+        return ResponseEntity.ok(report);
+    }
+
+    @PostMapping(path = "bulk-delete")
+    @Operation(summary = "Bulk delete employees",
+            description = "Deletes employees by ids or by search filter and send notifications about them on Kafka"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Employees are deleted, ids which don't exist are skipped"),
+            @ApiResponse(responseCode = "400", description = "Neither ids nor filter are passed, or both are")
+    })
+    public ResponseEntity<BulkChangeReport> deleteEmployees(@RequestBody EmployeeBulkDeleteRequest request) {
+        return ResponseEntity.ok(employeeBulkService.deleteEmployees(request));
+    }
+
+    @PostMapping(path = "bulk-update")
+    @Operation(summary = "Bulk update employees",
+            description = "Sets birthday and/or hobbies of employees by ids or by search filter and send notifications " +
+                    "about them on Kafka"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Employees are updated, ids which don't exist are skipped"),
+            @ApiResponse(responseCode = "400", description = "Nothing to update, or neither ids nor filter are passed")
+    })
+    public ResponseEntity<BulkChangeReport> updateEmployees(@RequestBody EmployeeBulkUpdateRequest request) {
+        return ResponseEntity.ok(employeeBulkService.updateEmployees(request));
+    }
+
+    @PostMapping(path = "state-snapshot")
+    @Operation(summary = "Publish state snapshot",
+            description = "Publishes the current state of all employees to the compacted employee state topic, " +
+                    "for consumers which start reading it from the beginning"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "States of all employees are published"),
+            @ApiResponse(responseCode = "400", description = "State topic is not enabled")
+    })
+    public ResponseEntity<StateSnapshotReport> publishStateSnapshot() {
+        return ResponseEntity.ok(employeeStateSnapshotService.publishSnapshot());
     }
 
     @GetMapping
-    @Operation(summary = "Get all employees", description = "Returning a ist of all employees in JSON Array format")
-    public List<Employee> getAllEmployees() {
-        return employeeService.getAllEmployees();
+    @Operation(summary = "Get all employees", description = "Returning one page of employees ordered by id in JSON Array " +
+            "format. If there are more employees, token for the next page is returned in X-Next-Cursor header. " +
+            "Optional hobby parameter returns only employees with that hobby")
+    public ResponseEntity<List<Employee>> getAllEmployees(
+            @RequestParam(required = false) String hobby,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + EmployeeService.DEFAULT_PAGE_SIZE) int size,
+            WebRequest webRequest) {
+        var page = employeeService.getAllEmployees(hobby, cursor, size);
+        // Sets 304 status when If-None-Match has the same ETag, then the page is not serialized at all
+        var eTag = pageETag(page);
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        var response = ResponseEntity.ok().eTag(eTag);
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.employees());
+    }
+
+    @GetMapping(path = "search")
+    @Operation(summary = "Search employees", description = "Returning one page of employees filtered by full name prefix, " +
+            "email domain and birthday range, sorted by comma separated fields (prefix - for descending). " +
+            "With view=summary only id and full name are returned")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully searched employees"),
+            @ApiResponse(responseCode = "400", description = "Invalid filter, sort or page")
+    })
+    public ResponseEntity<List<?>> searchEmployees(
+            @RequestParam(required = false) String fullNamePrefix,
+            @RequestParam(required = false) String emailDomain,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bornTo,
+            @RequestParam(defaultValue = EmployeeSearchService.DEFAULT_SORT) String sort,
+            @RequestParam(defaultValue = FULL_VIEW) String view,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + EmployeeService.DEFAULT_PAGE_SIZE) int size) {
+        var criteria = new EmployeeSearchCriteria(fullNamePrefix, emailDomain, bornFrom, bornTo);
+        if (SUMMARY_VIEW.equalsIgnoreCase(view)) {
+            return ResponseEntity.ok(employeeSearchService.searchEmployeeSummaries(criteria, sort, page, size));
+        }
+        if (FULL_VIEW.equalsIgnoreCase(view)) {
+            return ResponseEntity.ok(employeeSearchService.searchEmployees(criteria, sort, page, size));
+        }
+        throw new ApiRequestException(view + " is not valid view, use full or summary!");
+    }
+
+    @GetMapping(path = "birthdays/upcoming")
+    @Operation(summary = "Get upcoming birthdays", description = "Returning employees whose birthday is today or in the " +
+            "next days, ordered from the nearest birthday - response in JSON Array format")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully pulled out upcoming birthdays"),
+            @ApiResponse(responseCode = "400", description = "Invalid number of days, at most 31")
+    })
+    public ResponseEntity<List<Employee>> getUpcomingBirthdays(
+            @RequestParam(defaultValue = "" + BirthdayService.DEFAULT_DAYS) int days) {
+        return ResponseEntity.ok(birthdayService.findUpcomingBirthdays(LocalDate.now(), days));
+    }
+
+    @GetMapping(path = "stream", produces = APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all employees", description = "Streaming all employees ordered by id in NDJSON format " +
+            "(one JSON Object per line)")
+    public ResponseEntity<StreamingResponseBody> streamAllEmployees() {
+        ObjectWriter writer = objectMapper.writerFor(Employee.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = outputStream -> employeeService.streamAllEmployees(employee -> {
+            try {
+                writer.writeValue(outputStream, employee);
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
     }
 
     @GetMapping(path = "{id}")
     @Operation(summary = "Get employee by Id", description = "Returning a specific employee by uuid - response in JSON Object format")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully pulled out employee deteils"),
+            @ApiResponse(responseCode = "304", description = "Employee is not changed since the If-None-Match ETag"),
             @ApiResponse(responseCode = "404", description = "Employee with given Id not found")
     })
-    public Employee getEmployeeById(@PathVariable UUID id) {
-        return employeeService.findEmployeeById(id);
+    public ResponseEntity<Employee> getEmployeeById(@PathVariable UUID id, WebRequest webRequest) {
+        if (employeeProjectionProperties.isServeReads()) {
+            // Projection can be behind the DB, so employees which are not there yet are still found.
+            // Events don't carry the version, so there is no ETag for these
+            var employee = employeeProjection.find(id);
+            if (employee.isPresent()) {
+                return ResponseEntity.ok(employee.get());
+            }
+        }
+        var employee = employeeService.findEmployeeById(id);
+        if (employee.getVersion() == null) {
+            return ResponseEntity.ok(employee);
+        }
+        // Sets 304 status when If-None-Match has the same ETag, then the employee is not serialized at all
+        var eTag = eTag(employee);
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(employee);
     }
 
     //@PreAuthorize("hasRole('ROLE_ADMIN')")
     @DeleteMapping(path = "{id}")
     @Operation(summary = "Delete employee by Id", description = "Delete a specific employee with provided uuid")
-    public ResponseEntity<?> deleteEmployeeById(@PathVariable("id") UUID id) {
-        employeeService.deleteEmployee(id);
-        return ResponseEntity.ok("Employee is deleted!");
+    public ResponseEntity<?> deleteEmployeeById(
+            @PathVariable("id") UUID id,
+            @RequestHeader(name = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, "deleteEmployee", id, () -> {
+            employeeService.deleteEmployee(id);
+            return ResponseEntity.ok("Employee is deleted!");
+        });
     }
 
     @PutMapping
     @Operation(summary = "Update employee", description = "Update employee ...")
-    public ResponseEntity<Employee> updateEmployee(@RequestBody EmployeeUpdateRequest employee) {
-        return new ResponseEntity<>(employeeService.updateEmployee(employee), HttpStatus.CREATED);
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Successfully updated employee, its new ETag is returned"),
+            @ApiResponse(responseCode = "412", description = "Employee is changed since the If-Match ETag")
+    })
+    public ResponseEntity<?> updateEmployee(
+            @RequestBody EmployeeUpdateRequest employee,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(name = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        var expectedVersion = parseIfMatch(ifMatch);
+        return idempotencyService.execute(idempotencyKey, "updateEmployee", employee, ifMatch, () -> {
+            var updatedEmployee = employeeService.updateEmployee(employee, expectedVersion);
+            return ResponseEntity.status(HttpStatus.CREATED).eTag(eTag(updatedEmployee)).body(updatedEmployee);
+        });
+    }
+
+    @PatchMapping(path = "{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_MERGE_PATCH_JSON_VALUE})
+    @Operation(summary = "Partially update employee", description = "Changes only the passed fields of a specific " +
+            "employee (JSON Merge Patch, missing or null fields are not changed) and send only the changes on Kafka")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully updated employee, its new ETag is returned"),
+            @ApiResponse(responseCode = "400", description = "Invalid or taken email, or only one of first and last name"),
+            @ApiResponse(responseCode = "404", description = "Employee with given Id not found"),
+            @ApiResponse(responseCode = "412", description = "Employee is changed since the If-Match ETag")
+    })
+    public ResponseEntity<?> patchEmployee(
+            @PathVariable UUID id,
+            @RequestBody EmployeePatchRequest patch,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(name = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        var expectedVersion = parseIfMatch(ifMatch);
+        return idempotencyService.execute(idempotencyKey, "patchEmployee", List.of(id, patch), ifMatch, () -> {
+            var patchedEmployee = employeeService.patchEmployee(id, patch, expectedVersion);
+            return ResponseEntity.ok().eTag(eTag(patchedEmployee)).body(patchedEmployee);
+        });
+    }
+
+    // Strong ETag of one employee is its version
+    static String eTag(Employee employee) {
+        return "\"" + employee.getVersion() + "\"";
+    }
+
+    // ETag of a page changes when any employee on it is changed, added or removed, or when the next page changes
+    static String pageETag(EmployeePage page) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            for (Employee employee : page.employees()) {
+                digest.update((employee.getId() + ":" + employee.getVersion() + ";").getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update(String.valueOf(page.nextCursor()).getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest.digest(), 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    // If-Match is the ETag of the employee which the client has read. * matches any version
+    static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        var value = ifMatch.trim();
+        if (!VERSION_ETAG.matcher(value).matches()) {
+            throw new ApiRequestException("If-Match must be the ETag of the employee, e.g. \"3\"!");
+        }
+        return Long.parseLong(value.substring(1, value.length() - 1));
     }
 
 }
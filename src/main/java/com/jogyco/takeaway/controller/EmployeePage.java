@@ -0,0 +1,13 @@
+package com.jogyco.takeaway.controller;
+
+import com.jogyco.takeaway.model.Employee;
+
+import java.util.List;
+
+/**
+ * One keyset page of employees. {@code nextCursor} is null when there are no more pages.
+ */
+public record EmployeePage(
+        List<Employee> employees,
+        String nextCursor) {
+}
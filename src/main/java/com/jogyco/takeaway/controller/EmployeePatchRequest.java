@@ -0,0 +1,16 @@
+package com.jogyco.takeaway.controller;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Fields of the employee to change, missing (null) fields are left as they are. First and last name
+ * are changed together, hobbies are replaced as a whole.
+ */
+public record EmployeePatchRequest(
+        String firstName,
+        String lastName,
+        String email,
+        LocalDate birthday,
+        List<String> hobbies) {
+}
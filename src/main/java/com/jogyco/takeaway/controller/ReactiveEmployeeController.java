@@ -0,0 +1,133 @@
+package com.jogyco.takeaway.controller;
+
+import com.jogyco.takeaway.config.kafka.EmployeeProjectionProperties;
+import com.jogyco.takeaway.dao.EmployeeProjection;
+import com.jogyco.takeaway.exception.EmployeeNotFoundException;
+import com.jogyco.takeaway.model.Employee;
+import com.jogyco.takeaway.service.EmployeeService;
+import com.jogyco.takeaway.service.ReactiveEmployeeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Employee API of the reactive stack (spring.profiles.active=reactive). Same paths, bodies, ETags and cursors
+ * as {@link EmployeeController}, served on a few event loop threads with R2DBC. Bulk, search, birthdays and
+ * PATCH endpoints, and Idempotency-Key, are served only by the servlet stack.
+ */
+@Slf4j
+@RestController
+@RequestMapping("api/v1/employees")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Tag(name = "Employee")
+public class ReactiveEmployeeController {
+
+    private final ReactiveEmployeeService employeeService;
+
+    private final EmployeeProjection employeeProjection;
+
+    private final EmployeeProjectionProperties employeeProjectionProperties;
+
+    @PostMapping
+    @Operation(summary = "Create an employee",
+            description = "Creates an employee for passed data and send notification about it on Kafka"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully created new employee")
+    })
+    public Mono<ResponseEntity<String>> createEmployee(@RequestBody EmployeeCreationRequest employeeCreationRequest) {
+        log.info("New employee creation {}", employeeCreationRequest);
+        return employeeService.createEmployee(employeeCreationRequest)
+                .thenReturn(ResponseEntity.ok("Employee is created!"));
+    }
+
+    // When If-None-Match has the same ETag, WebFlux answers 304 without serializing the page
+    @GetMapping
+    @Operation(summary = "Get all employees", description = "Returning one page of employees ordered by id in JSON Array " +
+            "format. If there are more employees, token for the next page is returned in X-Next-Cursor header. " +
+            "Optional hobby parameter returns only employees with that hobby")
+    public Mono<ResponseEntity<List<Employee>>> getAllEmployees(
+            @RequestParam(required = false) String hobby,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + EmployeeService.DEFAULT_PAGE_SIZE) int size) {
+        return employeeService.getAllEmployees(hobby, cursor, size)
+                .map(page -> {
+                    var response = ResponseEntity.ok().eTag(EmployeeController.pageETag(page));
+                    if (page.nextCursor() != null) {
+                        response.header(EmployeeController.NEXT_CURSOR_HEADER, page.nextCursor());
+                    }
+                    return response.body(page.employees());
+                });
+    }
+
+    @GetMapping(path = "stream", produces = EmployeeController.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all employees", description = "Streaming all employees ordered by id in NDJSON format " +
+            "(one JSON Object per line)")
+    public Flux<Employee> streamAllEmployees() {
+        return employeeService.streamAllEmployees();
+    }
+
+    @GetMapping(path = "{id}")
+    @Operation(summary = "Get employee by Id", description = "Returning a specific employee by uuid - response in JSON Object format")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully pulled out employee deteils"),
+            @ApiResponse(responseCode = "304", description = "Employee is not changed since the If-None-Match ETag"),
+            @ApiResponse(responseCode = "404", description = "Employee with given Id not found")
+    })
+    public Mono<ResponseEntity<Employee>> getEmployeeById(@PathVariable UUID id) {
+        if (employeeProjectionProperties.isServeReads()) {
+            // Events don't carry the version, so there is no ETag for employees from the projection
+            var employee = employeeProjection.find(id);
+            if (employee.isPresent()) {
+                return Mono.just(ResponseEntity.ok(employee.get()));
+            }
+        }
+        return employeeService.findEmployeeById(id)
+                .map(employee -> employee.getVersion() == null
+                        ? ResponseEntity.ok(employee)
+                        : ResponseEntity.ok().eTag(EmployeeController.eTag(employee)).body(employee));
+    }
+
+    @DeleteMapping(path = "{id}")
+    @Operation(summary = "Delete employee by Id", description = "Delete a specific employee with provided uuid")
+    public Mono<ResponseEntity<String>> deleteEmployeeById(@PathVariable("id") UUID id) {
+        return employeeService.deleteEmployee(id)
+                .thenReturn(ResponseEntity.ok("Employee is deleted!"));
+    }
+
+    @PutMapping
+    @Operation(summary = "Update employee", description = "Update employee ...")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Successfully updated employee, its new ETag is returned"),
+            @ApiResponse(responseCode = "412", description = "Employee is changed since the If-Match ETag")
+    })
+    public Mono<ResponseEntity<Employee>> updateEmployee(
+            @RequestBody EmployeeUpdateRequest employee,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var expectedVersion = EmployeeController.parseIfMatch(ifMatch);
+        return employeeService.updateEmployee(employee, expectedVersion)
+                .map(updatedEmployee -> ResponseEntity.status(HttpStatus.CREATED)
+                        .eTag(EmployeeController.eTag(updatedEmployee))
+                        .body(updatedEmployee));
+    }
+
+    // GlobalExceptionHandler is written for Spring MVC, this is its 404 for WebFlux
+    @ExceptionHandler(EmployeeNotFoundException.class)
+    public ResponseEntity<String> handleEmployeeNotFound(EmployeeNotFoundException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
+    }
+}
@@ -0,0 +1,9 @@
+package com.jogyco.takeaway.controller;
+
+/**
+ * Number of employee states sent to the state topic by a snapshot. Employees deleted while the snapshot ran
+ * are counted with their tombstones.
+ */
+public record StateSnapshotReport(
+        int published) {
+}
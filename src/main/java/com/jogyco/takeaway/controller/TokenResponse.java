@@ -0,0 +1,10 @@
+package com.jogyco.takeaway.controller;
+
+/**
+ * Access token for {@code Authorization: Bearer} header. {@code expiresIn} is in seconds.
+ */
+public record TokenResponse(
+        String accessToken,
+        String tokenType,
+        long expiresIn) {
+}
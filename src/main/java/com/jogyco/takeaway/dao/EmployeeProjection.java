@@ -0,0 +1,71 @@
+package com.jogyco.takeaway.dao;
+
+import com.jogyco.takeaway.kafka.EmployeeMessage;
+import com.jogyco.takeaway.model.Employee;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-optimized copy of employees, kept in memory and built only from employee events. All events of one
+ * employee are in the same partition, so they are applied in order, by one consumer thread at a time.
+ */
+@Component
+public class EmployeeProjection {
+
+    private final Map<UUID, Employee> employees = new ConcurrentHashMap<>();
+
+    public EmployeeProjection(MeterRegistry meterRegistry) {
+        Gauge.builder("employee.projection.size", employees, Map::size)
+                .description("Employees in the in-memory projection")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Applies one event. Events are full employee states, or only changed fields of PATCHED events,
+     * so applying the same event again changes nothing.
+     */
+    public void apply(EmployeeMessage employeeMessage) {
+        var id = UUID.fromString(employeeMessage.getId());
+        if (employeeMessage.getEvent() == EmployeeMessage.Event.DELETED) {
+            employees.remove(id);
+            return;
+        }
+        if (employeeMessage.getEvent() == EmployeeMessage.Event.PATCHED) {
+            // Employee created before the projection was enabled can't be built from a delta, it's read from the DB
+            employees.computeIfPresent(id, (key, employee) -> patch(employee, employeeMessage));
+            return;
+        }
+        employees.put(id, Employee.builder()
+                .id(id)
+                .fullName(employeeMessage.getEmployeeName())
+                .email(employeeMessage.getEmail())
+                .birthday(employeeMessage.getBirthday())
+                .hobbies(employeeMessage.getHobbies() == null ? List.of() : List.copyOf(employeeMessage.getHobbies()))
+                .build());
+    }
+
+    public Optional<Employee> find(UUID id) {
+        return Optional.ofNullable(employees.get(id));
+    }
+
+    public int size() {
+        return employees.size();
+    }
+
+    private static Employee patch(Employee employee, EmployeeMessage delta) {
+        return Employee.builder()
+                .id(employee.getId())
+                .fullName(delta.getEmployeeName() == null ? employee.getFullName() : delta.getEmployeeName())
+                .email(delta.getEmail() == null ? employee.getEmail() : delta.getEmail())
+                .birthday(delta.getBirthday() == null ? employee.getBirthday() : delta.getBirthday())
+                .hobbies(delta.getHobbies() == null ? employee.getHobbies() : List.copyOf(delta.getHobbies()))
+                .build();
+    }
+}
@@ -1,12 +1,26 @@
 package com.jogyco.takeaway.dao;
 
 import com.jogyco.takeaway.model.Employee;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface EmployeeRepository extends JpaRepository<Employee, UUID> {
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface EmployeeRepository extends JpaRepository<Employee, UUID>, EmployeeSearchRepository {
 
     @Query("" +
             "SELECT CASE WHEN COUNT(e) > 0 THEN " +
@@ -15,4 +29,88 @@ public interface EmployeeRepository extends JpaRepository<Employee, UUID> {
             "WHERE e.email = ?1"
     )
     Boolean isEmailTaken(String email);
+
+    @Query("SELECT e.email FROM Employee e WHERE e.email IN ?1")
+    Set<String> findTakenEmails(Collection<String> emails);
+
+    @QueryHints(value = {
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e.email FROM Employee e")
+    Stream<String> streamAllEmails();
+
+    // Keyset pagination is done in two steps: ids of the page are found first, and then employees are loaded
+    // with their hobbies in one query. Limit can't be applied to a query which fetches a collection.
+
+    // First page, ordered by id
+    @Query("SELECT e.id FROM Employee e ORDER BY e.id")
+    List<UUID> findIdsOrderById(Pageable pageable);
+
+    // Every next page starts right after the last id of the previous one
+    @Query("SELECT e.id FROM Employee e WHERE e.id > ?1 ORDER BY e.id")
+    List<UUID> findIdsByIdGreaterThanOrderById(UUID id, Pageable pageable);
+
+    // Employees with the hobby - the join is served by the (hobby, employee_id) index of employee_hobby.
+    // DISTINCT because the same hobby can be listed twice
+    @Query("SELECT DISTINCT e.id FROM Employee e JOIN e.hobbies h WHERE h = ?1 ORDER BY e.id")
+    List<UUID> findIdsByHobbyOrderById(String hobby, Pageable pageable);
+
+    @Query("SELECT DISTINCT e.id FROM Employee e JOIN e.hobbies h WHERE h = ?1 AND e.id > ?2 ORDER BY e.id")
+    List<UUID> findIdsByHobbyAndIdGreaterThanOrderById(String hobby, UUID id, Pageable pageable);
+
+    @Query("SELECT e FROM Employee e LEFT JOIN FETCH e.hobbies WHERE e.id IN ?1 ORDER BY e.id")
+    List<Employee> findAllWithHobbiesByIdInOrderById(Collection<UUID> ids);
+
+    // Upcoming birthdays, ordered from the nearest one. Month-day is month * 100 + day
+    @Query("SELECT e.id FROM Employee e WHERE e.birthdayMonthDay BETWEEN ?1 AND ?2 ORDER BY e.birthdayMonthDay, e.id")
+    List<UUID> findIdsWithBirthdayMonthDayBetween(int from, int to);
+
+    // Same, for a range which goes over the end of the year - birthdays until the end of the year come first
+    @Query("SELECT e.id FROM Employee e WHERE e.birthdayMonthDay >= ?1 OR e.birthdayMonthDay <= ?2 " +
+            "ORDER BY CASE WHEN e.birthdayMonthDay >= ?1 THEN 0 ELSE 1 END, e.birthdayMonthDay, e.id")
+    List<UUID> findIdsWithBirthdayMonthDayFromOrUntil(int from, int to);
+
+    // Bulk changes lock the rows first, in id order so two bulk changes can't deadlock. Only existing ids are returned
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e.id FROM Employee e WHERE e.id IN ?1 ORDER BY e.id")
+    List<UUID> lockIdsByIdIn(Collection<UUID> ids);
+
+    // State publishing holds share locks until the states are acknowledged, so a change of these employees
+    // waits, and its newer state can't reach the state topic before the one being published
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT e.id FROM Employee e WHERE e.id IN ?1 ORDER BY e.id")
+    List<UUID> shareLockIdsByIdIn(Collection<UUID> ids);
+
+    // Hibernate deletes hobbies of the employees first
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Employee e WHERE e.id IN ?1")
+    int deleteAllByIdIn(Collection<UUID> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Employee e SET e.birthday = ?2, e.birthdayMonthDay = ?3, e.version = e.version + 1 WHERE e.id IN ?1")
+    int updateBirthdayByIdIn(Collection<UUID> ids, LocalDate birthday, int birthdayMonthDay);
+
+    // Version is incremented by hand, bulk statements skip the entity lifecycle
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Employee e SET e.version = e.version + 1 WHERE e.id IN ?1")
+    int incrementVersionByIdIn(Collection<UUID> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM employee_hobby WHERE employee_id IN ?1", nativeQuery = true)
+    void deleteHobbiesByEmployeeIdIn(Collection<UUID> ids);
+
+    // Same hobby at the same position for all employees, one statement per hobby
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO employee_hobby (employee_id, position, hobby) " +
+            "SELECT e.id, ?2, ?3 FROM employee e WHERE e.id IN ?1", nativeQuery = true)
+    void insertHobbyByEmployeeIdIn(Collection<UUID> ids, int position, String hobby);
+
+    // Hobbies are fetched in the same query, rows of one employee come one after another thanks to the ordering
+    @QueryHints(value = {
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT e FROM Employee e LEFT JOIN FETCH e.hobbies ORDER BY e.id")
+    Stream<Employee> streamAllOrderedById();
 }
@@ -0,0 +1,13 @@
+package com.jogyco.takeaway.dao;
+
+import java.time.LocalDate;
+
+/**
+ * Employee search filters, every one of them is optional. Birthday range is inclusive on both sides.
+ */
+public record EmployeeSearchCriteria(
+        String fullNamePrefix,
+        String emailDomain,
+        LocalDate bornFrom,
+        LocalDate bornTo) {
+}
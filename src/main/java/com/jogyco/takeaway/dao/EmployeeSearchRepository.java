@@ -0,0 +1,25 @@
+package com.jogyco.takeaway.dao;
+
+import com.jogyco.takeaway.model.EmployeeSummary;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Dynamic employee search. Filters, sorting and paging are applied in SQL.
+ */
+public interface EmployeeSearchRepository {
+
+    List<UUID> searchIds(EmployeeSearchCriteria criteria, Pageable pageable);
+
+    List<EmployeeSummary> searchSummaries(EmployeeSearchCriteria criteria, Pageable pageable);
+
+    // Keyset paged ids of matching employees, ordered by id. afterId is null for the first page
+    List<UUID> searchIdsAfter(EmployeeSearchCriteria criteria, UUID afterId, int limit);
+
+    // Locks passed employees which still match, in id order. Postgres checks the filter again on the latest
+    // version of a row it had to wait for, so a row changed since the ids were searched is skipped
+    List<UUID> lockIdsMatching(EmployeeSearchCriteria criteria, Collection<UUID> ids);
+}
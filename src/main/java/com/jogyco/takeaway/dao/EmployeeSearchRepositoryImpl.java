@@ -0,0 +1,113 @@
+package com.jogyco.takeaway.dao;
+
+import com.jogyco.takeaway.model.Employee;
+import com.jogyco.takeaway.model.EmployeeSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+class EmployeeSearchRepositoryImpl implements EmployeeSearchRepository {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<UUID> searchIds(EmployeeSearchCriteria criteria, Pageable pageable) {
+        var criteriaBuilder = entityManager.getCriteriaBuilder();
+        var query = criteriaBuilder.createQuery(UUID.class);
+        var employee = query.from(Employee.class);
+        query.select(employee.get("id"));
+        return getPage(query, employee, criteria, pageable);
+    }
+
+    @Override
+    public List<EmployeeSummary> searchSummaries(EmployeeSearchCriteria criteria, Pageable pageable) {
+        var criteriaBuilder = entityManager.getCriteriaBuilder();
+        var query = criteriaBuilder.createQuery(EmployeeSummary.class);
+        var employee = query.from(Employee.class);
+        query.select(criteriaBuilder.construct(EmployeeSummary.class, employee.get("id"), employee.get("fullName")));
+        return getPage(query, employee, criteria, pageable);
+    }
+
+    @Override
+    public List<UUID> searchIdsAfter(EmployeeSearchCriteria criteria, UUID afterId, int limit) {
+        var criteriaBuilder = entityManager.getCriteriaBuilder();
+        var query = criteriaBuilder.createQuery(UUID.class);
+        var employee = query.from(Employee.class);
+        var predicates = new ArrayList<>(List.of(toPredicates(criteriaBuilder, employee, criteria)));
+        if (afterId != null) {
+            predicates.add(criteriaBuilder.greaterThan(employee.get("id"), afterId));
+        }
+        query.select(employee.get("id"))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(criteriaBuilder.asc(employee.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<UUID> lockIdsMatching(EmployeeSearchCriteria criteria, Collection<UUID> ids) {
+        var criteriaBuilder = entityManager.getCriteriaBuilder();
+        var query = criteriaBuilder.createQuery(UUID.class);
+        var employee = query.from(Employee.class);
+        var predicates = new ArrayList<>(List.of(toPredicates(criteriaBuilder, employee, criteria)));
+        predicates.add(employee.get("id").in(ids));
+        query.select(employee.get("id"))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(criteriaBuilder.asc(employee.get("id")));
+        return entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    private <T> List<T> getPage(CriteriaQuery<T> query, Root<Employee> employee,
+                                EmployeeSearchCriteria criteria, Pageable pageable) {
+        var criteriaBuilder = entityManager.getCriteriaBuilder();
+        query.where(toPredicates(criteriaBuilder, employee, criteria))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), employee, criteriaBuilder));
+        return entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+
+    // Every filter is a plain comparison on an indexed column, name prefix is a LIKE without leading wildcard
+    private static Predicate[] toPredicates(CriteriaBuilder criteriaBuilder, Root<Employee> employee,
+                                            EmployeeSearchCriteria criteria) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (criteria.fullNamePrefix() != null) {
+            predicates.add(criteriaBuilder.like(
+                    employee.get("fullName"), escapeLike(criteria.fullNamePrefix()) + "%", LIKE_ESCAPE));
+        }
+        if (criteria.emailDomain() != null) {
+            predicates.add(criteriaBuilder.equal(
+                    employee.get("emailDomain"), criteria.emailDomain().toLowerCase(Locale.ROOT)));
+        }
+        if (criteria.bornFrom() != null) {
+            predicates.add(criteriaBuilder.greaterThanOrEqualTo(employee.get("birthday"), criteria.bornFrom()));
+        }
+        if (criteria.bornTo() != null) {
+            predicates.add(criteriaBuilder.lessThanOrEqualTo(employee.get("birthday"), criteria.bornTo()));
+        }
+        return predicates.toArray(Predicate[]::new);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
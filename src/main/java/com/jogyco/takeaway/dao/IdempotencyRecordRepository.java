@@ -0,0 +1,22 @@
+package com.jogyco.takeaway.dao;
+
+import com.jogyco.takeaway.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Takes over the key of an expired record, or of a request which never finished. Only one of concurrent
+    // requests updates the row, the others see 0 updated rows
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.fingerprint = ?2, r.status = NULL, r.contentType = NULL, r.body = NULL, " +
+            "r.eTag = NULL, r.createdAt = ?3 WHERE r.key = ?1 AND (r.createdAt < ?4 OR (r.status IS NULL AND r.createdAt < ?5))")
+    int takeOver(String key, String fingerprint, Instant createdAt, Instant expiredBefore, Instant abandonedBefore);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < ?1")
+    int deleteCreatedBefore(Instant createdBefore);
+}
@@ -0,0 +1,28 @@
+package com.jogyco.takeaway.dao;
+
+import com.jogyco.takeaway.model.IdempotencyRecord;
+
+import java.util.Optional;
+
+/**
+ * Recent outcomes of write requests, by idempotency key.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Saves the in-progress record, unless a live record with the same key exists already.
+     *
+     * @return empty if the key is claimed by this request, otherwise the record of the earlier request
+     */
+    Optional<IdempotencyRecord> claim(IdempotencyRecord inProgress);
+
+    /**
+     * Saves the outcome of the request which claimed the key.
+     */
+    void complete(IdempotencyRecord completed);
+
+    /**
+     * Removes the key of a failed request, so it can be retried.
+     */
+    void release(String key);
+}
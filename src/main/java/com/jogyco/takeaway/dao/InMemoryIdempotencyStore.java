@@ -0,0 +1,55 @@
+package com.jogyco.takeaway.dao;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jogyco.takeaway.config.idempotency.IdempotencyProperties;
+import com.jogyco.takeaway.model.IdempotencyRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Keeps idempotency records in a bounded Caffeine cache. Records are evicted after the time to live,
+ * or earlier when the cache is full.
+ */
+@Component
+@ConditionalOnProperty(name = "employee.idempotency.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Cache<String, IdempotencyRecord> records;
+
+    private final Duration inProgressTimeout;
+
+    public InMemoryIdempotencyStore(IdempotencyProperties properties) {
+        this.records = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTimeToLive())
+                .build();
+        this.inProgressTimeout = properties.getInProgressTimeout();
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> claim(IdempotencyRecord inProgress) {
+        // compute is atomic per key, so only one of concurrent requests with the same key gets it
+        var record = records.asMap().compute(inProgress.getKey(),
+                (key, existing) -> existing == null || isAbandoned(existing) ? inProgress : existing);
+        return record == inProgress ? Optional.empty() : Optional.of(record);
+    }
+
+    @Override
+    public void complete(IdempotencyRecord completed) {
+        records.put(completed.getKey(), completed);
+    }
+
+    @Override
+    public void release(String key) {
+        records.invalidate(key);
+    }
+
+    private boolean isAbandoned(IdempotencyRecord record) {
+        return record.isInProgress() && record.getCreatedAt().isBefore(Instant.now().minus(inProgressTimeout));
+    }
+}
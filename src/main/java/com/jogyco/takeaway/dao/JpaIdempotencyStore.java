@@ -0,0 +1,89 @@
+package com.jogyco.takeaway.dao;
+
+import com.jogyco.takeaway.config.idempotency.IdempotencyProperties;
+import com.jogyco.takeaway.model.IdempotencyRecord;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Keeps idempotency records in the idempotency_record table, so retries are recognized by every instance.
+ * Records are written in their own transactions: the key is claimed before the request runs, and the outcome
+ * is saved after the request transaction is committed.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "employee.idempotency.store", havingValue = "db")
+public class JpaIdempotencyStore implements IdempotencyStore {
+
+    private final IdempotencyRecordRepository repository;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Duration timeToLive;
+
+    private final Duration inProgressTimeout;
+
+    public JpaIdempotencyStore(IdempotencyRecordRepository repository,
+                               EntityManager entityManager,
+                               PlatformTransactionManager transactionManager,
+                               IdempotencyProperties properties) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.timeToLive = properties.getTimeToLive();
+        this.inProgressTimeout = properties.getInProgressTimeout();
+    }
+
+    @Override
+    public Optional<IdempotencyRecord> claim(IdempotencyRecord inProgress) {
+        try {
+            // persist, not save - save would merge and overwrite the record of an earlier request
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.persist(inProgress);
+                entityManager.flush();
+            });
+            return Optional.empty();
+        } catch (ConstraintViolationException e) {
+            // Key is taken, unless the earlier record is expired or abandoned
+            var now = Instant.now();
+            Integer updated = transactionTemplate.execute(status -> repository.takeOver(inProgress.getKey(),
+                    inProgress.getFingerprint(), inProgress.getCreatedAt(), now.minus(timeToLive), now.minus(inProgressTimeout)));
+            if (updated != null && updated > 0) {
+                return Optional.empty();
+            }
+            var existing = transactionTemplate.execute(status -> repository.findById(inProgress.getKey()));
+            // Released by the earlier request in the meantime, so it can be claimed again
+            return existing != null && existing.isPresent() ? existing : claim(inProgress);
+        }
+    }
+
+    @Override
+    public void complete(IdempotencyRecord completed) {
+        transactionTemplate.executeWithoutResult(status -> repository.save(completed));
+    }
+
+    @Override
+    public void release(String key) {
+        transactionTemplate.executeWithoutResult(status -> repository.deleteById(key));
+    }
+
+    @Scheduled(fixedDelayString = "${employee.idempotency.cleanup-interval:600000}")
+    public void deleteExpired() {
+        Integer deleted = transactionTemplate.execute(status -> repository.deleteCreatedBefore(Instant.now().minus(timeToLive)));
+        log.debug("{} expired idempotency records are deleted", deleted);
+    }
+}
@@ -0,0 +1,20 @@
+package com.jogyco.takeaway.dao;
+
+import com.jogyco.takeaway.model.OutboxEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Rows are locked (without SKIP LOCKED) on purpose: a second relay instance waits for the first one
+    // instead of jumping ahead, so events of the same employee are never published out of order.
+    // Failed events stay in the table for inspection, but they are not published anymore
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM OutboxEvent o WHERE o.failedAt IS NULL ORDER BY o.id")
+    List<OutboxEvent> findNextBatch(Pageable pageable);
+}
@@ -0,0 +1,193 @@
+package com.jogyco.takeaway.dao;
+
+import com.jogyco.takeaway.model.Employee;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Employees of the reactive stack, read and written with plain SQL over R2DBC. Employees are read together
+ * with their hobbies, one row per hobby, and rows of one employee are grouped as they arrive. Same tables
+ * and indexes as {@link EmployeeRepository}.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveEmployeeRepository {
+
+    private static final int FETCH_SIZE = 500;
+
+    private static final String SELECT_WITH_HOBBIES = "" +
+            "SELECT e.id, e.full_name, e.email, e.email_domain, e.birthday, e.birthday_month_day, e.version, h.hobby " +
+            "FROM employee e LEFT JOIN employee_hobby h ON h.employee_id = e.id ";
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Boolean> isEmailTaken(String email) {
+        return databaseClient.sql("SELECT COUNT(*) FROM employee WHERE email = :email")
+                .bind("email", email)
+                .map(row -> row.get(0, Long.class) > 0)
+                .one();
+    }
+
+    public Mono<Employee> findById(UUID id) {
+        return toEmployees(databaseClient.sql(SELECT_WITH_HOBBIES + "WHERE e.id = :id ORDER BY h.position")
+                .bind("id", id))
+                .next();
+    }
+
+    /**
+     * One keyset page of employees ordered by id, starting after lastId (or from the first one when it's null).
+     * Ids of the page are found first in a subquery, limit can't be applied to rows which are joined with hobbies.
+     */
+    public Flux<Employee> findPage(String hobby, UUID lastId, int limit) {
+        var ids = hobby == null
+                ? "SELECT id FROM employee" + (lastId == null ? "" : " WHERE id > :lastId") + " ORDER BY id"
+                : "SELECT DISTINCT employee_id FROM employee_hobby WHERE hobby = :hobby"
+                + (lastId == null ? "" : " AND employee_id > :lastId") + " ORDER BY employee_id";
+        var spec = databaseClient.sql(SELECT_WITH_HOBBIES + "WHERE e.id IN (" + ids + " LIMIT :limit) " +
+                        "ORDER BY e.id, h.position")
+                .bind("limit", limit);
+        if (hobby != null) {
+            spec = spec.bind("hobby", hobby);
+        }
+        if (lastId != null) {
+            spec = spec.bind("lastId", lastId);
+        }
+        return toEmployees(spec);
+    }
+
+    // Rows are fetched in chunks as the subscriber requests them, so the whole table is never in memory
+    public Flux<Employee> streamAllOrderedById() {
+        return toEmployees(databaseClient.sql(SELECT_WITH_HOBBIES + "ORDER BY e.id, h.position")
+                .filter(statement -> statement.fetchSize(FETCH_SIZE)));
+    }
+
+    public Mono<Void> insert(Employee employee) {
+        employee.updateDerivedColumns();
+        var spec = databaseClient.sql("" +
+                        "INSERT INTO employee (id, full_name, email, email_domain, birthday, birthday_month_day, version) " +
+                        "VALUES (:id, :fullName, :email, :emailDomain, :birthday, :birthdayMonthDay, 0)")
+                .bind("id", employee.getId());
+        return bindColumns(spec, employee)
+                .then()
+                .then(insertHobbies(employee.getId(), employee.getHobbies()));
+    }
+
+    /**
+     * Writes the employee with its new version, only if the row still has expectedVersion. Otherwise
+     * fails with {@link OptimisticLockingFailureException}, as Hibernate does for a versioned entity.
+     */
+    public Mono<Void> update(Employee employee, long expectedVersion) {
+        employee.updateDerivedColumns();
+        var spec = databaseClient.sql("" +
+                        "UPDATE employee SET full_name = :fullName, email = :email, email_domain = :emailDomain, " +
+                        "birthday = :birthday, birthday_month_day = :birthdayMonthDay, version = :version " +
+                        "WHERE id = :id AND version = :expectedVersion")
+                .bind("id", employee.getId())
+                .bind("version", employee.getVersion())
+                .bind("expectedVersion", expectedVersion);
+        return bindColumns(spec, employee)
+                .flatMap(updated -> updated == 0
+                        ? Mono.error(new OptimisticLockingFailureException(
+                        "Employee with id : [%s] was changed by another request!".formatted(employee.getId())))
+                        : Mono.just(updated))
+                .then(deleteHobbies(employee.getId()))
+                .then(insertHobbies(employee.getId(), employee.getHobbies()));
+    }
+
+    public Mono<Long> deleteById(UUID id) {
+        return deleteHobbies(id)
+                .then(databaseClient.sql("DELETE FROM employee WHERE id = :id")
+                        .bind("id", id)
+                        .fetch()
+                        .rowsUpdated());
+    }
+
+    private Mono<Void> deleteHobbies(UUID id) {
+        return databaseClient.sql("DELETE FROM employee_hobby WHERE employee_id = :id")
+                .bind("id", id)
+                .then();
+    }
+
+    private Mono<Void> insertHobbies(UUID id, List<String> hobbies) {
+        if (hobbies == null || hobbies.isEmpty()) {
+            return Mono.empty();
+        }
+        return Flux.range(0, hobbies.size())
+                .concatMap(position -> databaseClient.sql("" +
+                                "INSERT INTO employee_hobby (employee_id, position, hobby) VALUES (:id, :position, :hobby)")
+                        .bind("id", id)
+                        .bind("position", position)
+                        .bind("hobby", hobbies.get(position))
+                        .then())
+                .then();
+    }
+
+    private static Mono<Long> bindColumns(DatabaseClient.GenericExecuteSpec spec, Employee employee) {
+        spec = bindNullable(spec, "fullName", employee.getFullName(), String.class);
+        spec = bindNullable(spec, "email", employee.getEmail(), String.class);
+        spec = bindNullable(spec, "emailDomain", employee.getEmailDomain(), String.class);
+        spec = bindNullable(spec, "birthday", employee.getBirthday(), LocalDate.class);
+        spec = bindNullable(spec, "birthdayMonthDay", employee.getBirthdayMonthDay(), Integer.class);
+        return spec.fetch().rowsUpdated();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(
+            DatabaseClient.GenericExecuteSpec spec, String name, Object value, Class<?> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    // Rows of one employee come one after another thanks to the ordering by id
+    private static Flux<Employee> toEmployees(DatabaseClient.GenericExecuteSpec spec) {
+        return spec.map(EmployeeRow::of)
+                .all()
+                .bufferUntilChanged(EmployeeRow::id)
+                .map(rows -> {
+                    var employee = rows.get(0).toEmployee();
+                    employee.setHobbies(rows.stream()
+                            .map(EmployeeRow::hobby)
+                            .filter(Objects::nonNull)
+                            .toList());
+                    return employee;
+                });
+    }
+
+    private record EmployeeRow(UUID id, String fullName, String email, String emailDomain, LocalDate birthday,
+                               Integer birthdayMonthDay, Long version, String hobby) {
+
+        static EmployeeRow of(Readable row) {
+            return new EmployeeRow(
+                    row.get("id", UUID.class),
+                    row.get("full_name", String.class),
+                    row.get("email", String.class),
+                    row.get("email_domain", String.class),
+                    row.get("birthday", LocalDate.class),
+                    row.get("birthday_month_day", Integer.class),
+                    row.get("version", Long.class),
+                    row.get("hobby", String.class));
+        }
+
+        Employee toEmployee() {
+            return Employee.builder()
+                    .id(id)
+                    .fullName(fullName)
+                    .email(email)
+                    .emailDomain(emailDomain)
+                    .birthday(birthday)
+                    .birthdayMonthDay(birthdayMonthDay)
+                    .version(version)
+                    .build();
+        }
+    }
+}
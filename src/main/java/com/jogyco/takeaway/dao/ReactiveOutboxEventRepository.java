@@ -0,0 +1,73 @@
+package com.jogyco.takeaway.dao;
+
+import com.jogyco.takeaway.kafka.EmployeeMessage;
+import com.jogyco.takeaway.model.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Outbox of the reactive stack, same table as {@link OutboxEventRepository}.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveOutboxEventRepository {
+
+    private final DatabaseClient databaseClient;
+
+    // Ids come from the same sequence as the ids of JPA writes, which take one value per event as well
+    public Mono<Void> save(OutboxEvent event) {
+        var spec = databaseClient.sql("" +
+                        "INSERT INTO employee_outbox (id, aggregate_id, event, payload, created_at, trace_parent) " +
+                        "VALUES (nextval('employee_outbox_seq'), :aggregateId, :event, :payload, :createdAt, :traceParent)")
+                .bind("aggregateId", event.getAggregateId())
+                .bind("event", event.getEvent().name())
+                .bind("payload", event.getPayload())
+                .bind("createdAt", event.getCreatedAt());
+        spec = event.getTraceParent() == null
+                ? spec.bindNull("traceParent", String.class)
+                : spec.bind("traceParent", event.getTraceParent());
+        return spec.then();
+    }
+
+    // Rows are locked and failed ones skipped as in OutboxEventRepository#findNextBatch, so events of an employee
+    // are never published out of order
+    public Flux<OutboxEvent> findNextBatch(int limit) {
+        return databaseClient.sql("" +
+                        "SELECT id, aggregate_id, event, payload, created_at, trace_parent, attempts FROM employee_outbox " +
+                        "WHERE failed_at IS NULL ORDER BY id LIMIT :limit FOR UPDATE")
+                .bind("limit", limit)
+                .map(row -> OutboxEvent.builder()
+                        .id(row.get("id", Long.class))
+                        .aggregateId(row.get("aggregate_id", String.class))
+                        .event(EmployeeMessage.Event.valueOf(row.get("event", String.class)))
+                        .payload(row.get("payload", String.class))
+                        .createdAt(row.get("created_at", Instant.class))
+                        .traceParent(row.get("trace_parent", String.class))
+                        .attempts(row.get("attempts", Integer.class))
+                        .build())
+                .all();
+    }
+
+    // Events are marked as failed when failedAt is passed, otherwise they are retried
+    public Mono<Long> addFailedAttempt(Collection<Long> ids, Instant failedAt) {
+        var spec = databaseClient.sql("UPDATE employee_outbox SET attempts = attempts + 1, failed_at = :failedAt WHERE id IN (:ids)")
+                .bind("ids", ids);
+        spec = failedAt == null ? spec.bindNull("failedAt", Instant.class) : spec.bind("failedAt", failedAt);
+        return spec.fetch().rowsUpdated();
+    }
+
+    public Mono<Long> deleteAllById(Collection<Long> ids) {
+        return databaseClient.sql("DELETE FROM employee_outbox WHERE id IN (:ids)")
+                .bind("ids", ids)
+                .fetch()
+                .rowsUpdated();
+    }
+}
@@ -1,19 +1,20 @@
 package com.jogyco.takeaway.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.context.request.WebRequest;
 
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 
+// Handles exceptions of both the servlet and the reactive stack
 @ControllerAdvice
 public class ApiExceptionHandler {
 
     @ExceptionHandler(value = {ApiRequestException.class})
-    public ResponseEntity<Object> handleApiRequestException(ApiRequestException e, WebRequest webRequest) {
+    public ResponseEntity<Object> handleApiRequestException(ApiRequestException e) {
         // 1. Create payload containing exception details
         HttpStatus badRequest = HttpStatus.BAD_REQUEST;
 
@@ -25,4 +26,29 @@ public class ApiExceptionHandler {
         // 2. Return response entity
         return new ResponseEntity<>(apiException, badRequest);
     }
+
+    @ExceptionHandler(value = {IdempotencyConflictException.class})
+    public ResponseEntity<Object> handleIdempotencyConflictException(IdempotencyConflictException e) {
+        HttpStatus conflict = HttpStatus.CONFLICT;
+
+        ApiException apiException = new ApiException(
+                e.getMessage(),
+                conflict,
+                ZonedDateTime.now(ZoneId.of("Z"))
+        );
+        return new ResponseEntity<>(apiException, conflict);
+    }
+
+    // Optimistic locking failure is a concurrent update which happened after the If-Match check
+    @ExceptionHandler(value = {PreconditionFailedException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<Object> handlePreconditionFailedException(RuntimeException e) {
+        HttpStatus preconditionFailed = HttpStatus.PRECONDITION_FAILED;
+
+        ApiException apiException = new ApiException(
+                e instanceof PreconditionFailedException ? e.getMessage() : "Employee was changed by another request!",
+                preconditionFailed,
+                ZonedDateTime.now(ZoneId.of("Z"))
+        );
+        return new ResponseEntity<>(apiException, preconditionFailed);
+    }
 }
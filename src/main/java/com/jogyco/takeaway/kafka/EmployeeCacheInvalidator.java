@@ -0,0 +1,45 @@
+package com.jogyco.takeaway.kafka;
+
+import com.jogyco.takeaway.config.cache.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Evicts changed employees from the local cache. Every instance uses its own consumer group, so every
+ * instance sees all events - including the ones for changes made by other instances.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmployeeCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    @KafkaListener(
+            topics = "${spring.kafka.topic.name}",
+            groupId = "employee-cache-#{T(java.util.UUID).randomUUID()}",
+            autoStartup = "${employee.cache.kafka-invalidation:true}"
+    )
+    public void onEmployeeMessage(EmployeeMessage employeeMessage) {
+        if (employeeMessage == null) {
+            return;
+        }
+        var upcomingBirthdays = cacheManager.getCache(CacheConfig.UPCOMING_BIRTHDAYS_CACHE);
+        if (upcomingBirthdays != null) {
+            upcomingBirthdays.clear();
+        }
+        if (employeeMessage.getEvent() == EmployeeMessage.Event.CREATED) {
+            return;
+        }
+        var cache = cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        if (cache != null) {
+            cache.evict(UUID.fromString(employeeMessage.getId()));
+            log.debug("Employee with id {} is evicted from cache, it was {}", employeeMessage.getId(), employeeMessage.getEvent());
+        }
+    }
+}
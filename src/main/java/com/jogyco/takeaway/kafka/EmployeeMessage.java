@@ -1,5 +1,7 @@
 package com.jogyco.takeaway.kafka;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -12,6 +14,8 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
+// PATCHED events carry only the changed fields, the rest are left out of the JSON
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class EmployeeMessage {
     //TODO: SOme unique value. Since all CREATED, UPDATED and DELETED will go on
     // the same topic, same employee Id can appear multiple time, but should be unique
@@ -21,8 +25,12 @@ public class EmployeeMessage {
     private LocalDate birthday;
     private List<String> hobbies;
     private Event event;
+    // W3C traceparent of the change, it goes to Kafka as record headers, not in the payload
+    @JsonIgnore
+    private String traceParent;
 
     public enum Event {
-        CREATED, UPDATED, DELETED
+        // PATCHED has the id and only the fields which were changed, the others carry the whole employee
+        CREATED, UPDATED, DELETED, PATCHED
     }
 }
@@ -0,0 +1,64 @@
+package com.jogyco.takeaway.kafka;
+
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.jogyco.takeaway.kafka.EmployeeMessageAvroSchema.SCHEMA;
+
+/**
+ * Reads {@link EmployeeMessage} written by {@link EmployeeMessageAvroSerializer}.
+ */
+public class EmployeeMessageAvroDeserializer implements Deserializer<EmployeeMessage> {
+
+    private final DatumReader<GenericRecord> reader = new GenericDatumReader<>(SCHEMA);
+
+    // Deserializer belongs to one consumer, which is used by one thread only, so its decoder buffer is reused
+    private BinaryDecoder decoder;
+
+    @Override
+    public EmployeeMessage deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        GenericRecord record;
+        try {
+            decoder = DecoderFactory.get().binaryDecoder(data, decoder);
+            record = reader.read(null, decoder);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Can't deserialize employee message from topic " + topic, e);
+        }
+        return EmployeeMessage.builder()
+                .id(asString(record.get("id")))
+                .employeeName(asString(record.get("employeeName")))
+                .email(asString(record.get("email")))
+                .birthday(record.get("birthday") instanceof Integer epochDay ? LocalDate.ofEpochDay(epochDay) : null)
+                .hobbies(asStrings(record.get("hobbies")))
+                .event(EmployeeMessage.Event.valueOf(record.get("event").toString()))
+                .build();
+    }
+
+    // Avro reads strings as Utf8
+    private static String asString(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static List<String> asStrings(Object value) {
+        if (value == null) {
+            return null;
+        }
+        var values = (List<?>) value;
+        List<String> strings = new ArrayList<>(values.size());
+        values.forEach(item -> strings.add(item.toString()));
+        return strings;
+    }
+}
@@ -0,0 +1,34 @@
+package com.jogyco.takeaway.kafka;
+
+import org.apache.avro.Schema;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Avro schema of {@link EmployeeMessage}. Producer and consumers read it from the same local file,
+ * so records carry only field values.
+ */
+final class EmployeeMessageAvroSchema {
+
+    static final Schema SCHEMA = load();
+
+    static final Schema EVENT_SCHEMA = SCHEMA.getField("event").schema();
+
+    static final Schema HOBBIES_SCHEMA = SCHEMA.getField("hobbies").schema().getTypes().get(1);
+
+    private EmployeeMessageAvroSchema() {
+    }
+
+    private static Schema load() {
+        try (InputStream schema = EmployeeMessageAvroSchema.class.getResourceAsStream("/avro/employee-message.avsc")) {
+            if (schema == null) {
+                throw new IllegalStateException("avro/employee-message.avsc is not on the classpath");
+            }
+            return new Schema.Parser().parse(schema);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
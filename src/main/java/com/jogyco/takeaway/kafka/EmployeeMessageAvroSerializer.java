@@ -0,0 +1,58 @@
+package com.jogyco.takeaway.kafka;
+
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static com.jogyco.takeaway.kafka.EmployeeMessageAvroSchema.EVENT_SCHEMA;
+import static com.jogyco.takeaway.kafka.EmployeeMessageAvroSchema.HOBBIES_SCHEMA;
+import static com.jogyco.takeaway.kafka.EmployeeMessageAvroSchema.SCHEMA;
+
+/**
+ * Writes {@link EmployeeMessage} as Avro binary, see {@link EmployeeMessageAvroSchema}.
+ */
+public class EmployeeMessageAvroSerializer implements Serializer<EmployeeMessage> {
+
+    private final DatumWriter<GenericRecord> writer = new GenericDatumWriter<>(SCHEMA);
+
+    @Override
+    public byte[] serialize(String topic, EmployeeMessage employeeMessage) {
+        if (employeeMessage == null) {
+            return null;
+        }
+        // Send is called from many threads, so encoder is not shared
+        var output = new ByteArrayOutputStream(128);
+        BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(output, null);
+        try {
+            writer.write(toRecord(employeeMessage), encoder);
+        } catch (IOException | RuntimeException e) {
+            throw new SerializationException("Can't serialize message of employee " + employeeMessage.getId(), e);
+        }
+        return output.toByteArray();
+    }
+
+    private static GenericRecord toRecord(EmployeeMessage employeeMessage) {
+        var record = new GenericData.Record(SCHEMA);
+        record.put("id", employeeMessage.getId());
+        record.put("employeeName", employeeMessage.getEmployeeName());
+        record.put("email", employeeMessage.getEmail());
+        record.put("birthday", employeeMessage.getBirthday() == null
+                ? null
+                : (int) employeeMessage.getBirthday().toEpochDay());
+        record.put("hobbies", employeeMessage.getHobbies() == null
+                ? null
+                : new GenericData.Array<>(HOBBIES_SCHEMA, employeeMessage.getHobbies()));
+        record.put("event", employeeMessage.getEvent() == null
+                ? null
+                : new GenericData.EnumSymbol(EVENT_SCHEMA, employeeMessage.getEvent().name()));
+        return record;
+    }
+}
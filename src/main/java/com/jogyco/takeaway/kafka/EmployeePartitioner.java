@@ -0,0 +1,52 @@
+package com.jogyco.takeaway.kafka;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.utils.Utils;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Puts all events of an employee (record key is the employee id) into the same partition, so they are read in
+ * order. Partition is chosen with jump consistent hash (Lamping, Veach) of the murmur2 hash of the key: employees
+ * are spread evenly over the partitions, and when partitions are added only the keys which have to move to the
+ * new ones change partition (1/n of them), instead of almost all keys as with murmur2 modulo partition count.
+ * While an employee's older events are still unread in its old partition, its new ones can overtake them, so
+ * partitions should be added when consumers have no lag.
+ */
+public class EmployeePartitioner implements Partitioner {
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes, Cluster cluster) {
+        int numPartitions = cluster.partitionCountForTopic(topic);
+        if (keyBytes == null) {
+            // No ordering to keep
+            return ThreadLocalRandom.current().nextInt(numPartitions);
+        }
+        return partition(keyBytes, numPartitions);
+    }
+
+    static int partition(byte[] keyBytes, int numPartitions) {
+        return jumpConsistentHash(Utils.murmur2(keyBytes) & 0xffffffffL, numPartitions);
+    }
+
+    static int jumpConsistentHash(long key, int buckets) {
+        long bucket = -1;
+        long next = 0;
+        while (next < buckets) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
+
+    @Override
+    public void close() {
+    }
+}
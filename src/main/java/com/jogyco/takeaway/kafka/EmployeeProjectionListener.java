@@ -0,0 +1,69 @@
+package com.jogyco.takeaway.kafka;
+
+import com.jogyco.takeaway.dao.EmployeeProjection;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps {@link EmployeeProjection} up to date. Events are consumed in batches, and after every batch the lag
+ * of its partitions is recorded, so it is visible how far behind the topic the projection is.
+ */
+@Slf4j
+@Component
+public class EmployeeProjectionListener {
+
+    private final EmployeeProjection employeeProjection;
+
+    private final Counter appliedEvents;
+
+    private final Map<TopicPartition, Long> lagByPartition = new ConcurrentHashMap<>();
+
+    public EmployeeProjectionListener(EmployeeProjection employeeProjection, MeterRegistry meterRegistry) {
+        this.employeeProjection = employeeProjection;
+        this.appliedEvents = Counter.builder("employee.projection.events")
+                .description("Employee events applied to the projection")
+                .register(meterRegistry);
+        Gauge.builder("employee.projection.lag", lagByPartition, EmployeeProjectionListener::totalLag)
+                .description("Events on the topic which are not applied to the projection yet")
+                .register(meterRegistry);
+    }
+
+    @KafkaListener(
+            topics = "${spring.kafka.topic.name}",
+            groupId = "employee-projection-#{T(java.util.UUID).randomUUID()}",
+            containerFactory = "projectionKafkaListenerContainerFactory",
+            autoStartup = "${employee.projection.enabled:false}"
+    )
+    public void onEmployeeMessages(List<ConsumerRecord<String, EmployeeMessage>> records, Consumer<?, ?> consumer) {
+        var partitions = new HashSet<TopicPartition>();
+        for (ConsumerRecord<String, EmployeeMessage> consumerRecord : records) {
+            partitions.add(new TopicPartition(consumerRecord.topic(), consumerRecord.partition()));
+            // Null is a message which couldn't be deserialized, it is already logged by the deserializer
+            if (consumerRecord.value() != null) {
+                employeeProjection.apply(consumerRecord.value());
+                appliedEvents.increment();
+            }
+        }
+        // Lag is known from the last fetch, so this doesn't call the broker
+        for (TopicPartition partition : partitions) {
+            consumer.currentLag(partition).ifPresent(lag -> lagByPartition.put(partition, lag));
+        }
+        log.debug("{} employee events applied to the projection", records.size());
+    }
+
+    private static double totalLag(Map<TopicPartition, Long> lagByPartition) {
+        return lagByPartition.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
@@ -0,0 +1,72 @@
+package com.jogyco.takeaway.kafka;
+
+import com.jogyco.takeaway.config.kafka.EmployeeStateTopicProperties;
+import com.jogyco.takeaway.dao.EmployeeRepository;
+import com.jogyco.takeaway.model.Employee;
+import com.jogyco.takeaway.service.EmployeeService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes the latest state of employees, as it is in the DB, to the compacted state topic keyed by employee id.
+ * Deleted employees get a tombstone. A new consumer reads the state topic from the beginning and gets every
+ * employee once, instead of replaying the whole history of events.
+ * <p>
+ * Employees are read under a share lock (FOR SHARE), and callers keep it until the states are acknowledged.
+ * A change of the same employee waits for the lock, so its newer state is read and sent only after the older one
+ * is on the topic, also when the outbox relay and the snapshot run on different instances. States read at the
+ * same time are equal, so their order doesn't matter. The order holds as long as sends are acknowledged within
+ * {@code outbox.relay.send-timeout}, a send which is still in flight when the lock is released can land later.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmployeeStatePublisher {
+
+    private final EmployeeRepository employeeRepository;
+
+    private final KafkaProducer kafkaProducer;
+
+    private final EmployeeStateTopicProperties properties;
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Sends the current state of passed employees without waiting for the broker. Must be called in a transaction,
+     * which keeps the share locks until the caller has waited for the returned results.
+     *
+     * @return send result of every passed employee, by its id
+     */
+    public Map<String, CompletableFuture<SendResult<String, EmployeeMessage>>> publish(Collection<UUID> ids) {
+        employeeRepository.shareLockIdsByIdIn(ids);
+        var employees = employeeRepository.findAllWithHobbiesByIdInOrderById(ids).stream()
+                .collect(Collectors.toMap(Employee::getId, Function.identity(), (first, second) -> first));
+        Map<String, EmployeeMessage> states = new LinkedHashMap<>();
+        for (UUID id : ids) {
+            var employee = employees.get(id);
+            // State is a full employee like UPDATED events, so consumers of the events can read it as well
+            states.put(id.toString(), employee == null
+                    ? null
+                    : EmployeeService.buildEmployeeMessage(employee, EmployeeMessage.Event.UPDATED));
+        }
+        var futures = kafkaProducer.sendAllStates(properties.getName(), states);
+
+        Map<String, CompletableFuture<SendResult<String, EmployeeMessage>>> futuresById = new HashMap<>();
+        int i = 0;
+        for (String id : states.keySet()) {
+            futuresById.put(id, futures.get(i++));
+        }
+        return futuresById;
+    }
+}
@@ -1,36 +1,195 @@
 package com.jogyco.takeaway.kafka;
 
+import com.jogyco.takeaway.config.kafka.KafkaProducerProperties;
+import com.jogyco.takeaway.config.threads.VirtualThreadConfig;
+import com.jogyco.takeaway.config.tracing.TracePropagation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.KafkaException;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Sends employee messages without waiting for the broker. Number of messages in flight is bounded:
+ * when the broker lags and the limit is reached, sending blocks for up to max-block, and after that
+ * the message is rejected with {@link KafkaException}. Messages come from the outbox, so a rejected
+ * message is not lost - it is sent again by the next relay run.
+ */
 @Slf4j
 @Service
 public class KafkaProducer {
 
+    static final String SEND_SPAN = "employee.kafka.send";
+
     KafkaTemplate<String, EmployeeMessage> kafkaTemplate;
     @Value("${spring.kafka.topic.name}")
     private String topic;
 
-    public KafkaProducer(KafkaTemplate<String, EmployeeMessage> kafkaTemplate){
-        this.kafkaTemplate=kafkaTemplate;
+    private final Semaphore inFlight;
+    private final Duration maxBlock;
+    private final Timer sendSuccess;
+    private final Timer sendFailure;
+    private final Counter sendRejected;
+
+    // Runs send callbacks, by default directly on the producer I/O thread
+    private final Executor callbackExecutor;
+
+    private final TracePropagation tracePropagation;
+
+    @Autowired
+    public KafkaProducer(KafkaTemplate<String, EmployeeMessage> kafkaTemplate,
+                         KafkaProducerProperties properties,
+                         MeterRegistry meterRegistry,
+                         @Qualifier(VirtualThreadConfig.KAFKA_CALLBACK_EXECUTOR) ObjectProvider<Executor> callbackExecutor,
+                         TracePropagation tracePropagation) {
+        this(kafkaTemplate, properties, meterRegistry, callbackExecutor.getIfAvailable(() -> Runnable::run), tracePropagation);
+    }
+
+    public KafkaProducer(KafkaTemplate<String, EmployeeMessage> kafkaTemplate,
+                         KafkaProducerProperties properties,
+                         MeterRegistry meterRegistry,
+                         Executor callbackExecutor,
+                         TracePropagation tracePropagation) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.callbackExecutor = callbackExecutor;
+        this.tracePropagation = tracePropagation;
+        this.inFlight = new Semaphore(properties.getMaxInFlight());
+        this.maxBlock = properties.getMaxBlock();
+        this.sendSuccess = sendTimer(meterRegistry, "success");
+        this.sendFailure = sendTimer(meterRegistry, "failure");
+        this.sendRejected = Counter.builder("employee.kafka.send.rejected")
+                .description("Messages rejected because too many of them were in flight")
+                .register(meterRegistry);
+        int maxInFlight = properties.getMaxInFlight();
+        Gauge.builder("employee.kafka.send.in-flight", inFlight, permits -> maxInFlight - permits.availablePermits())
+                .description("Messages sent, but not acknowledged by the broker yet")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<SendResult<String, EmployeeMessage>> send(EmployeeMessage employeeMessage) {
+        return send(topic, employeeMessage.getId(), employeeMessage, employeeMessage.getTraceParent(),
+                employeeMessage.getEvent() + " event");
+    }
+
+    /**
+     * Sends the latest state of an employee to the compacted state topic. Null state is the tombstone
+     * of a deleted employee.
+     */
+    public CompletableFuture<SendResult<String, EmployeeMessage>> sendState(String stateTopic, String employeeId,
+                                                                            EmployeeMessage state) {
+        return send(stateTopic, employeeId, state, null, state == null ? "tombstone" : "state");
+    }
+
+    /**
+     * Sends all messages without waiting for each of them, and flushes the producer once at the end.
+     * Returned futures are in the same order as passed messages. If a message can't even be handed over
+     * to the producer (e.g. broker is not reachable or too many messages are in flight), the rest of them
+     * are failed without trying.
+     */
+    public List<CompletableFuture<SendResult<String, EmployeeMessage>>> sendAll(List<EmployeeMessage> employeeMessages) {
+        return sendAll(employeeMessages, this::send);
     }
 
-    public void send(EmployeeMessage employeeMessage){
-        var future = kafkaTemplate.send(topic, employeeMessage.getId(), employeeMessage);
-        future.whenComplete((sendResult, exception) -> {
+    /**
+     * Sends states of all passed employees (null for deleted ones) like {@link #sendAll(List)}. Returned futures
+     * are in the iteration order of the map.
+     */
+    public List<CompletableFuture<SendResult<String, EmployeeMessage>>> sendAllStates(String stateTopic,
+                                                                                   Map<String, EmployeeMessage> states) {
+        return sendAll(new ArrayList<>(states.entrySet()), state -> sendState(stateTopic, state.getKey(), state.getValue()));
+    }
+
+    private CompletableFuture<SendResult<String, EmployeeMessage>> send(String topic, String employeeId,
+                                                                        EmployeeMessage value, String traceParent,
+                                                                        String description) {
+        // Description is only for the logs, e.g. "CREATED event" or "tombstone"
+        acquireInFlightSlot(employeeId);
+        long start = System.nanoTime();
+        CompletableFuture<SendResult<String, EmployeeMessage>> future;
+        try {
+            // Send is observed by the template, so trace headers of the record continue the trace of the change
+            future = tracePropagation.inChildSpan(traceParent, SEND_SPAN,
+                    () -> kafkaTemplate.send(topic, employeeId, value));
+        } catch (RuntimeException e) {
+            inFlight.release();
+            sendFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        future.whenCompleteAsync((sendResult, exception) -> {
+            inFlight.release();
             if (exception != null) {
-                log.error(exception.getMessage());
-                future.completeExceptionally(exception);
-            }
-            else {
-                future.complete(sendResult);
+                sendFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                log.error("{} of employee with id {} is not sent: {}",
+                        description,
+                        employeeId,
+                        exception.getMessage());
+                return;
             }
-            log.info("Employee with id {} was {}. Message offset is {}",
-                    employeeMessage.getId(),
-                    employeeMessage.getEvent(),
+            sendSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.debug("{} of employee with id {} is sent. Message offset is {}",
+                    description,
+                    employeeId,
                     sendResult.getRecordMetadata().offset());
-        });
+        }, callbackExecutor);
+        return future;
+    }
+
+    private <T> List<CompletableFuture<SendResult<String, EmployeeMessage>>> sendAll(
+            List<T> messages, Function<T, CompletableFuture<SendResult<String, EmployeeMessage>>> sender) {
+        List<CompletableFuture<SendResult<String, EmployeeMessage>>> futures = new ArrayList<>(messages.size());
+        KafkaException firstFailure = null;
+        for (T message : messages) {
+            if (firstFailure != null) {
+                futures.add(CompletableFuture.failedFuture(firstFailure));
+                continue;
+            }
+            try {
+                futures.add(sender.apply(message));
+            } catch (KafkaException e) {
+                firstFailure = e;
+                futures.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        kafkaTemplate.flush();
+        return futures;
+    }
+
+    private void acquireInFlightSlot(String employeeId) {
+        try {
+            if (inFlight.tryAcquire(maxBlock.toNanos(), TimeUnit.NANOSECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sendRejected.increment();
+        throw new KafkaException("Too many messages in flight, message for employee %s is rejected"
+                .formatted(employeeId));
+    }
+
+    private static Timer sendTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("employee.kafka.send")
+                .description("Time from sending a message until the broker acknowledged it")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 }
@@ -0,0 +1,186 @@
+package com.jogyco.takeaway.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jogyco.takeaway.config.outbox.OutboxProperties;
+import com.jogyco.takeaway.dao.OutboxEventRepository;
+import com.jogyco.takeaway.model.OutboxEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes events from the outbox to Kafka in the background, oldest first.
+ * Events are removed only after Kafka acknowledges them, so delivery is at least once. When an event
+ * of an employee fails, none of the later events of the same employee are removed in that batch, so
+ * the latest published event of an employee is always its latest change. When the state topic is enabled,
+ * the current state of every employee in the batch is published after its events, and the events are
+ * removed only when the state is acknowledged too. An event which can't be read, or isn't acknowledged after
+ * {@code outbox.relay.max-attempts} sends, is marked as failed and counted in {@code employee.outbox.failed}.
+ * It stays in the outbox for inspection, and the later events of its employee are published without it.
+ * The reactive stack has {@link ReactiveOutboxRelay} instead, which doesn't publish states.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "outbox.relay", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final KafkaProducer kafkaProducer;
+
+    private final EmployeeStatePublisher statePublisher;
+
+    private final OutboxProperties outboxProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final Counter failedEvents;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       KafkaProducer kafkaProducer,
+                       EmployeeStatePublisher statePublisher,
+                       OutboxProperties outboxProperties,
+                       TransactionTemplate transactionTemplate,
+                       ObjectMapper objectMapper,
+                       MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaProducer = kafkaProducer;
+        this.statePublisher = statePublisher;
+        this.outboxProperties = outboxProperties;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.failedEvents = Counter.builder("employee.outbox.failed")
+                .description("Outbox events marked as failed, which are not published anymore")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval:500}")
+    public void relay() {
+        Integer published;
+        do {
+            published = transactionTemplate.execute(status -> relayBatch());
+        } while (published != null && published == outboxProperties.getBatchSize());
+    }
+
+    /**
+     * Publishes one batch of events and removes the published ones from the outbox, failed ones are marked.
+     * Must be called in a transaction, which keeps the batch locked until it is removed.
+     *
+     * @return number of published and failed events, which are both out of the way of the next batch
+     */
+    int relayBatch() {
+        var batch = outboxEventRepository.findNextBatch(PageRequest.ofSize(outboxProperties.getBatchSize()));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<OutboxEvent> events = new ArrayList<>(batch.size());
+        List<EmployeeMessage> messages = new ArrayList<>(batch.size());
+        int failed = 0;
+        for (OutboxEvent event : batch) {
+            var message = toEmployeeMessage(event);
+            if (message == null) {
+                // Sending it again won't help
+                event.setAttempts(event.getAttempts() + 1);
+                markFailed(event);
+                failed++;
+            } else {
+                events.add(event);
+                messages.add(message);
+            }
+        }
+
+        var futures = kafkaProducer.sendAll(messages);
+        // States go after all events of the batch, so a state is never older than the last event of its employee
+        Map<String, CompletableFuture<SendResult<String, EmployeeMessage>>> stateFutures = Map.of();
+        if (statePublisher.isEnabled() && !events.isEmpty()) {
+            stateFutures = statePublisher.publish(events.stream()
+                    .map(event -> UUID.fromString(event.getAggregateId()))
+                    .collect(Collectors.toCollection(LinkedHashSet::new)));
+        }
+
+        List<OutboxEvent> published = new ArrayList<>(events.size());
+        Set<String> failedEmployees = new HashSet<>();
+        for (int i = 0; i < events.size(); i++) {
+            var event = events.get(i);
+            var stateFuture = stateFutures.get(event.getAggregateId());
+            if (!isAcknowledged(futures.get(i), event) || (stateFuture != null && !isAcknowledged(stateFuture, event))) {
+                event.setAttempts(event.getAttempts() + 1);
+                if (event.getAttempts() >= outboxProperties.getMaxAttempts()) {
+                    markFailed(event);
+                    failed++;
+                }
+                failedEmployees.add(event.getAggregateId());
+            } else if (!failedEmployees.contains(event.getAggregateId())) {
+                published.add(event);
+            }
+        }
+
+        if (!published.isEmpty()) {
+            outboxEventRepository.deleteAllInBatch(published);
+        }
+        if (published.size() < batch.size()) {
+            log.warn("{} of {} outbox events are not published, {} of them are marked as failed",
+                    batch.size() - published.size(), batch.size(), failed);
+        }
+        return published.size() + failed;
+    }
+
+    // Changes of the loaded event are written when the batch transaction commits
+    private void markFailed(OutboxEvent event) {
+        log.error("Outbox event {} of employee {} is marked as failed after {} attempts and won't be published",
+                event.getId(), event.getAggregateId(), event.getAttempts());
+        event.setFailedAt(Instant.now());
+        failedEvents.increment();
+    }
+
+    private boolean isAcknowledged(CompletableFuture<SendResult<String, EmployeeMessage>> future, OutboxEvent event) {
+        try {
+            future.get(outboxProperties.getSendTimeout(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            log.error("Outbox event {} of employee {} is not published: {}", event.getId(), event.getAggregateId(), e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Null when the payload can't be read
+    private EmployeeMessage toEmployeeMessage(OutboxEvent event) {
+        try {
+            var employeeMessage = objectMapper.readValue(event.getPayload(), EmployeeMessage.class);
+            employeeMessage.setTraceParent(event.getTraceParent());
+            return employeeMessage;
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.error("Outbox event {} of employee {} can't be read: {}", event.getId(), event.getAggregateId(), e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.jogyco.takeaway.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jogyco.takeaway.config.outbox.OutboxProperties;
+import com.jogyco.takeaway.config.tracing.TracePropagation;
+import com.jogyco.takeaway.dao.ReactiveOutboxEventRepository;
+import com.jogyco.takeaway.model.OutboxEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * {@link OutboxRelay} of the reactive stack, with R2DBC and reactor-kafka. Same guarantees: events are removed
+ * only after Kafka acknowledges them, and when an event of an employee fails, none of the later events of the
+ * same employee are removed in that batch. Events which can't be read or sent are marked as failed in the same
+ * way. Employee states are not published to the state topic by this relay.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ConditionalOnProperty(prefix = "outbox.relay", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveOutboxRelay {
+
+    private final ReactiveOutboxEventRepository outboxEventRepository;
+
+    private final KafkaSender<String, EmployeeMessage> kafkaSender;
+
+    private final OutboxProperties outboxProperties;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final ObjectMapper objectMapper;
+
+    private final Counter failedEvents;
+
+    @Value("${spring.kafka.topic.name}")
+    private String topic;
+
+    public ReactiveOutboxRelay(ReactiveOutboxEventRepository outboxEventRepository,
+                               KafkaSender<String, EmployeeMessage> kafkaSender,
+                               OutboxProperties outboxProperties,
+                               TransactionalOperator transactionalOperator,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaSender = kafkaSender;
+        this.outboxProperties = outboxProperties;
+        this.transactionalOperator = transactionalOperator;
+        this.objectMapper = objectMapper;
+        this.failedEvents = Counter.builder("employee.outbox.failed")
+                .description("Outbox events marked as failed, which are not published anymore")
+                .register(meterRegistry);
+    }
+
+    // The scheduler thread waits for the drain, no event loop thread is blocked
+    @Scheduled(fixedDelayString = "${outbox.relay.poll-interval:500}")
+    public void relay() {
+        relayBatch()
+                .expand(published -> published == outboxProperties.getBatchSize() ? relayBatch() : Mono.empty())
+                .then()
+                .block();
+    }
+
+    /**
+     * Publishes one batch of events and removes the published ones from the outbox, failed ones are marked.
+     * Runs in one transaction, which keeps the batch locked until it is removed.
+     *
+     * @return number of published and failed events, which are both out of the way of the next batch
+     */
+    Mono<Integer> relayBatch() {
+        return outboxEventRepository.findNextBatch(outboxProperties.getBatchSize())
+                .collectList()
+                .flatMap(events -> events.isEmpty() ? Mono.just(0) : publish(events))
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<Integer> publish(List<OutboxEvent> events) {
+        List<OutboxEvent> sent = new ArrayList<>(events.size());
+        List<SenderRecord<String, EmployeeMessage, Long>> records = new ArrayList<>(events.size());
+        List<Long> failed = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            var record = toProducerRecord(event);
+            if (record == null) {
+                // Sending it again won't help
+                failed.add(event.getId());
+            } else {
+                sent.add(event);
+                records.add(SenderRecord.create(record, event.getId()));
+            }
+        }
+        return kafkaSender.send(Flux.fromIterable(records))
+                .filter(ReactiveOutboxRelay::isAcknowledged)
+                .map(SenderResult::correlationMetadata)
+                .collect(Collectors.toSet())
+                .timeout(Duration.ofMillis(outboxProperties.getSendTimeout()))
+                .flatMap(acknowledged -> {
+                    List<Long> published = new ArrayList<>(sent.size());
+                    List<Long> retried = new ArrayList<>();
+                    Set<String> failedEmployees = new HashSet<>();
+                    for (OutboxEvent event : sent) {
+                        if (!acknowledged.contains(event.getId())) {
+                            if (event.getAttempts() + 1 >= outboxProperties.getMaxAttempts()) {
+                                failed.add(event.getId());
+                            } else {
+                                retried.add(event.getId());
+                            }
+                            failedEmployees.add(event.getAggregateId());
+                        } else if (!failedEmployees.contains(event.getAggregateId())) {
+                            published.add(event.getId());
+                        }
+                    }
+                    if (published.size() < events.size()) {
+                        log.warn("{} of {} outbox events are not published, {} of them are marked as failed",
+                                events.size() - published.size(), events.size(), failed.size());
+                    }
+                    if (!failed.isEmpty()) {
+                        log.error("Outbox events {} are marked as failed and won't be published", failed);
+                        failedEvents.increment(failed.size());
+                    }
+                    return deleteAll(published)
+                            .then(addFailedAttempt(retried, null))
+                            .then(addFailedAttempt(failed, Instant.now()))
+                            .thenReturn(published.size() + failed.size());
+                });
+    }
+
+    private Mono<Long> deleteAll(List<Long> ids) {
+        return ids.isEmpty() ? Mono.just(0L) : outboxEventRepository.deleteAllById(ids);
+    }
+
+    private Mono<Long> addFailedAttempt(List<Long> ids, Instant failedAt) {
+        return ids.isEmpty() ? Mono.just(0L) : outboxEventRepository.addFailedAttempt(ids, failedAt);
+    }
+
+    private static boolean isAcknowledged(SenderResult<Long> result) {
+        if (result.exception() == null) {
+            return true;
+        }
+        log.error("Outbox event {} is not published: {}", result.correlationMetadata(), result.exception().getMessage());
+        return false;
+    }
+
+    // Record continues the trace of the change through the stored traceparent, there is no send span in between.
+    // Null when the payload can't be read
+    private ProducerRecord<String, EmployeeMessage> toProducerRecord(OutboxEvent event) {
+        EmployeeMessage employeeMessage;
+        try {
+            employeeMessage = objectMapper.readValue(event.getPayload(), EmployeeMessage.class);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            log.error("Outbox event {} of employee {} can't be read: {}", event.getId(), event.getAggregateId(), e.getMessage());
+            return null;
+        }
+        var record = new ProducerRecord<>(topic, employeeMessage.getId(), employeeMessage);
+        if (event.getTraceParent() != null) {
+            record.headers().add(TracePropagation.TRACEPARENT, event.getTraceParent().getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+}
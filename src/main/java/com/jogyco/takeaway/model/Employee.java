@@ -1,16 +1,32 @@
 package com.jogyco.takeaway.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OrderColumn;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.UuidGenerator;
+import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 @Data
@@ -18,16 +34,62 @@ import java.util.UUID;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+// UPDATE statements set only the changed columns, most updates (PATCH) change one or two fields
+@DynamicUpdate
+@Table(
+        uniqueConstraints = @UniqueConstraint(name = Employee.EMAIL_CONSTRAINT, columnNames = "email"),
+        // Search filters and sorts
+        indexes = {
+                @Index(name = "idx_employee_full_name", columnList = "fullName"),
+                @Index(name = "idx_employee_email_domain", columnList = "emailDomain"),
+                @Index(name = "idx_employee_birthday", columnList = "birthday"),
+                @Index(name = "idx_employee_birthday_month_day", columnList = "birthdayMonthDay")
+        })
 public class Employee {
 
+    public static final String EMAIL_CONSTRAINT = "uk_employee_email";
+
+
     @Id
-    @UuidGenerator
+    @EmployeeId
     private UUID id;
     private String fullName;
     private String email;
+    // Lower case part of the email after @, in its own indexed column, so search by domain doesn't scan emails
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private String emailDomain;
     @JsonFormat(pattern="yyyy-MM-dd")
     private LocalDate birthday;
+    // Birthday as month * 100 + day (e.g. 1225), so upcoming birthdays are found with a range on one indexed column
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private Integer birthdayMonthDay;
+    // Incremented on every update, it is the ETag of the employee and guards against lost updates
+    @Version
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private Long version;
+    // One row per hobby, so employees can be searched by hobby using the (hobby, employee_id) index.
+    // Queries returning many employees fetch hobbies in the same query, see EmployeeRepository
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(
+            name = "employee_hobby",
+            joinColumns = @JoinColumn(name = "employee_id"),
+            indexes = @Index(name = "idx_employee_hobby_hobby", columnList = "hobby, employee_id"))
+    @OrderColumn(name = "position")
+    @Column(name = "hobby", nullable = false)
     private List<String> hobbies; //TODO: Maybe this should be predefined as e.g. enum and than chose a hobbies
 
+    // Also called by ReactiveEmployeeRepository, R2DBC writes don't go through the entity lifecycle
+    @PrePersist
+    @PreUpdate
+    public void updateDerivedColumns() {
+        emailDomain = email == null ? null : email.substring(email.lastIndexOf('@') + 1).toLowerCase(Locale.ROOT);
+        birthdayMonthDay = birthday == null ? null : toMonthDay(birthday);
+    }
 
+    public static int toMonthDay(LocalDate date) {
+        return date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
 }
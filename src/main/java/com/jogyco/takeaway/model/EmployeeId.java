@@ -0,0 +1,17 @@
+package com.jogyco.takeaway.model;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Employee id generated by {@link EmployeeIdGenerator}, time ordered (UUIDv7) or random (UUIDv4).
+ */
+@IdGeneratorType(EmployeeIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface EmployeeId {
+}
@@ -0,0 +1,81 @@
+package com.jogyco.takeaway.model;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hibernate.generator.EventTypeSets.INSERT_ONLY;
+
+/**
+ * Generates employee ids. Random v4 UUIDs land on random pages of the primary key index, so under heavy
+ * inserts pages are split all over it and the index gets bloated. Time ordered v7 UUIDs
+ * (<a href="https://www.rfc-editor.org/rfc/rfc9562#name-uuid-version-7">RFC 9562</a>) are always added
+ * at the right end of the index, like a sequence. The strategy is the {@value #STRATEGY_SETTING} setting.
+ */
+public class EmployeeIdGenerator implements BeforeExecutionGenerator {
+
+    public static final String STRATEGY_SETTING = "employee.id.strategy";
+
+    public enum Strategy {
+        RANDOM,
+        TIME_ORDERED
+    }
+
+    // Unix time in millis shifted left by 12 bits, plus a counter of ids generated in the same milli
+    private static final AtomicLong lastTimestampAndCounter = new AtomicLong();
+
+    private final Strategy strategy;
+
+    public EmployeeIdGenerator(EmployeeId config, Member idMember, CustomIdGeneratorCreationContext context) {
+        this(toStrategy(context.getServiceRegistry()
+                .getService(ConfigurationService.class)
+                .getSettings()
+                .get(STRATEGY_SETTING)));
+    }
+
+    public EmployeeIdGenerator(Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return strategy == Strategy.RANDOM ? UUID.randomUUID() : timeOrdered();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return INSERT_ONLY;
+    }
+
+    /**
+     * UUIDv7: 48 bits of Unix time in millis, version, 12 bits counter, variant and 62 random bits.
+     * Ids from this JVM are strictly increasing. When more than 4096 ids are generated in one milli
+     * the counter carries over into the timestamp, which then runs slightly ahead of the clock.
+     */
+    public static UUID timeOrdered() {
+        long now = System.currentTimeMillis() << 12;
+        long timestampAndCounter = lastTimestampAndCounter.updateAndGet(last -> Math.max(last + 1, now));
+        long mostSigBits = (timestampAndCounter >>> 12) << 16 | 0x7000L | (timestampAndCounter & 0xFFFL);
+        long leastSigBits = ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    private static Strategy toStrategy(Object setting) {
+        if (setting == null) {
+            return Strategy.TIME_ORDERED;
+        }
+        if (setting instanceof Strategy strategy) {
+            return strategy;
+        }
+        return Strategy.valueOf(setting.toString().trim().replace('-', '_').toUpperCase(Locale.ROOT));
+    }
+}
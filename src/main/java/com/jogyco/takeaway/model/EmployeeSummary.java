@@ -0,0 +1,11 @@
+package com.jogyco.takeaway.model;
+
+import java.util.UUID;
+
+/**
+ * Lightweight view of an employee, selected without loading the entity.
+ */
+public record EmployeeSummary(
+        UUID id,
+        String fullName) {
+}
@@ -0,0 +1,45 @@
+package com.jogyco.takeaway.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+/**
+ * Outcome of a write request sent with an Idempotency-Key header. Until the request is finished only the
+ * fingerprint of the request is known, and status is null.
+ */
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "idempotency_record")
+public class IdempotencyRecord {
+
+    @Id
+    @Column(name = "idempotency_key")
+    private String key;
+    // Hash of the request, the same key can't be used for a different request
+    private String fingerprint;
+    private Integer status;
+    private String contentType;
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    private String body;
+    // ETag of a conditional write response, the retry gets it too
+    @Column(name = "etag")
+    private String eTag;
+    private Instant createdAt;
+
+    public boolean isInProgress() {
+        return status == null;
+    }
+}
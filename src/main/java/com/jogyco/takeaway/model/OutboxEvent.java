@@ -0,0 +1,48 @@
+package com.jogyco.takeaway.model;
+
+import com.jogyco.takeaway.kafka.EmployeeMessage;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+
+/**
+ * Employee event waiting to be published on Kafka. It is written in the same transaction as the
+ * Employee change, and removed by the relay once Kafka acknowledges it.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "employee_outbox")
+public class OutboxEvent {
+
+    // Relay publishes by id, so ids have to follow the order of changes of an employee. Blocks of ids cached
+    // by every instance (allocationSize > 1) would give a later change on one instance a lower id than an
+    // earlier change on another one. Changes of an employee are serialized by its version and row locks,
+    // so an id taken from the sequence at persist time is always higher than the ids of its earlier changes
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_outbox_seq")
+    @SequenceGenerator(name = "employee_outbox_seq", sequenceName = "employee_outbox_seq", allocationSize = 1)
+    private Long id;
+    private String aggregateId;
+    @Enumerated(EnumType.STRING)
+    private EmployeeMessage.Event event;
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    private String payload;
+    private Instant createdAt;
+    // W3C traceparent of the request which made the change, the event is sent to Kafka in the same trace
+    private String traceParent;
+    // Failed sends so far. Events which can't be read or sent after outbox.relay.max-attempts are marked
+    // with failedAt and skipped by the relay, so they don't block the events behind them
+    @ColumnDefault("0")
+    private int attempts;
+    private Instant failedAt;
+}
@@ -0,0 +1,74 @@
+package com.jogyco.takeaway.service;
+
+import com.jogyco.takeaway.config.cache.CacheConfig;
+import com.jogyco.takeaway.config.metrics.MetricsConfig;
+import com.jogyco.takeaway.dao.EmployeeRepository;
+import com.jogyco.takeaway.exception.ApiRequestException;
+import com.jogyco.takeaway.model.Employee;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Finds employees whose birthday is in the next days. Birthdays are compared by the indexed month-day column
+ * ({@link Employee#toMonthDay(LocalDate)}), so the year of birth doesn't matter and the query is a range scan.
+ * Results are cached per day, and the cache is cleared whenever an employee changes. At most a month ahead can be
+ * asked for, so a cached result stays a small part of the table.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+@RequiredArgsConstructor
+public class BirthdayService {
+
+    public static final int DEFAULT_DAYS = 7;
+    public static final int MAX_DAYS = 31;
+
+    private static final int FEBRUARY_29 = 229;
+
+    private final EmployeeRepository employeeRepository;
+
+    /**
+     * Employees with birthday from {@code today} until {@code today + days} inclusive, ordered from the nearest birthday.
+     * In years without February 29, employees born on February 29 celebrate on February 28.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.UPCOMING_BIRTHDAYS_CACHE)
+    public List<Employee> findUpcomingBirthdays(LocalDate today, int days) {
+        if (days < 0 || days > MAX_DAYS) {
+            throw new ApiRequestException("Days must be between 0 and %d!".formatted(MAX_DAYS));
+        }
+        var ids = findUpcomingBirthdayIds(today, days);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Employee> employeesById = employeeRepository.findAllWithHobbiesByIdInOrderById(ids).stream()
+                .collect(Collectors.toMap(Employee::getId, Function.identity()));
+        return ids.stream()
+                .map(employeesById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private List<UUID> findUpcomingBirthdayIds(LocalDate today, int days) {
+        int from = Employee.toMonthDay(today);
+        var end = today.plusDays(days);
+        int to = Employee.toMonthDay(end);
+        if (end.getMonth() == Month.FEBRUARY && end.getDayOfMonth() == 28 && !end.isLeapYear()) {
+            to = FEBRUARY_29;
+        }
+        return end.getYear() == today.getYear()
+                ? employeeRepository.findIdsWithBirthdayMonthDayBetween(from, to)
+                : employeeRepository.findIdsWithBirthdayMonthDayFromOrUntil(from, to);
+    }
+}
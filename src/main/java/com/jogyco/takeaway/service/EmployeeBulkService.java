@@ -0,0 +1,152 @@
+package com.jogyco.takeaway.service;
+
+import com.jogyco.takeaway.config.cache.CacheConfig;
+import com.jogyco.takeaway.config.metrics.MetricsConfig;
+import com.jogyco.takeaway.controller.BulkChangeReport;
+import com.jogyco.takeaway.controller.EmployeeBulkDeleteRequest;
+import com.jogyco.takeaway.controller.EmployeeBulkUpdateRequest;
+import com.jogyco.takeaway.dao.EmployeeRepository;
+import com.jogyco.takeaway.dao.EmployeeSearchCriteria;
+import com.jogyco.takeaway.exception.ApiRequestException;
+import com.jogyco.takeaway.kafka.EmployeeMessage;
+import com.jogyco.takeaway.model.Employee;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Deletes and updates many employees at once, by ids or by a search filter. Employees are changed in chunks,
+ * with a few set-based statements per chunk instead of a few statements per employee. Every chunk is a
+ * transaction: rows are locked, changed, and their DELETED/UPDATED messages are added to the outbox together.
+ * Cached employees of a chunk are evicted when it is committed. Chunks committed before a failure stay committed,
+ * so a failed request can simply be repeated.
+ */
+@Slf4j
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+@RequiredArgsConstructor
+public class EmployeeBulkService {
+
+    private final EmployeeRepository employeeRepository;
+
+    private final OutboxService outboxService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final CacheManager cacheManager;
+
+    @Value("${employee.bulk.batch-size:500}")
+    private int batchSize;
+
+    public BulkChangeReport deleteEmployees(EmployeeBulkDeleteRequest request) {
+        int deleted = forEachChunk(request.ids(), request.filter(), lockedIds -> {
+            // Messages are built before the delete, the rows are locked so nobody changes them in the meantime
+            var messages = buildEmployeeMessages(lockedIds, EmployeeMessage.Event.DELETED);
+            int count = employeeRepository.deleteAllByIdIn(lockedIds);
+            outboxService.appendAll(messages);
+            return count;
+        });
+        log.info("Bulk delete of employees, {} deleted", deleted);
+        return new BulkChangeReport(deleted);
+    }
+
+    public BulkChangeReport updateEmployees(EmployeeBulkUpdateRequest request) {
+        if (request.birthday() == null && request.hobbies() == null) {
+            throw new ApiRequestException("Nothing to update, pass birthday or hobbies!");
+        }
+        if (request.hobbies() != null && request.hobbies().stream().anyMatch(Objects::isNull)) {
+            throw new ApiRequestException("Hobbies can't contain null!");
+        }
+        int updated = forEachChunk(request.ids(), request.filter(), lockedIds -> {
+            int count = request.birthday() == null
+                    ? employeeRepository.incrementVersionByIdIn(lockedIds)
+                    : employeeRepository.updateBirthdayByIdIn(
+                            lockedIds, request.birthday(), Employee.toMonthDay(request.birthday()));
+            if (request.hobbies() != null) {
+                employeeRepository.deleteHobbiesByEmployeeIdIn(lockedIds);
+                for (int position = 0; position < request.hobbies().size(); position++) {
+                    employeeRepository.insertHobbyByEmployeeIdIn(lockedIds, position, request.hobbies().get(position));
+                }
+            }
+            // Messages carry the whole employee, so they are built from the rows after the update
+            outboxService.appendAll(buildEmployeeMessages(lockedIds, EmployeeMessage.Event.UPDATED));
+            return count;
+        });
+        log.info("Bulk update of employees, {} updated", updated);
+        return new BulkChangeReport(updated);
+    }
+
+    // Ids are processed in chunks of passed ids, or chunks of ids matching the filter. Every chunk is locked and
+    // changed in its own transaction
+    private int forEachChunk(List<UUID> ids, EmployeeSearchCriteria filter, ToIntFunction<List<UUID>> lockedChange) {
+        boolean hasIds = ids != null && !ids.isEmpty();
+        boolean hasFilter = filter != null && !matchesEveryone(filter);
+        if (hasIds == hasFilter) {
+            throw new ApiRequestException("Pass either ids or a filter with at least one field!");
+        }
+        int affected = 0;
+        if (hasIds) {
+            var distinctIds = ids.stream().filter(Objects::nonNull).distinct().sorted().toList();
+            for (int from = 0; from < distinctIds.size(); from += batchSize) {
+                affected += changeChunk(distinctIds.subList(from, Math.min(from + batchSize, distinctIds.size())),
+                        employeeRepository::lockIdsByIdIn, lockedChange);
+            }
+            return affected;
+        }
+        // Changed employees may not match the filter anymore, so the next chunk starts after the last id
+        UUID lastId = null;
+        List<UUID> chunk;
+        while (!(chunk = employeeRepository.searchIdsAfter(filter, lastId, batchSize)).isEmpty()) {
+            // Filter is checked again with the lock, rows changed since the search may not match anymore
+            affected += changeChunk(chunk, chunkIds -> employeeRepository.lockIdsMatching(filter, chunkIds), lockedChange);
+            lastId = chunk.get(chunk.size() - 1);
+        }
+        return affected;
+    }
+
+    private int changeChunk(List<UUID> ids, Function<List<UUID>, List<UUID>> lock, ToIntFunction<List<UUID>> lockedChange) {
+        Integer changed = transactionTemplate.execute(status -> {
+            var lockedIds = lock.apply(ids);
+            if (lockedIds.isEmpty()) {
+                return 0;
+            }
+            int count = lockedChange.applyAsInt(lockedIds);
+            evictFromCaches(lockedIds);
+            return count;
+        });
+        return changed == null ? 0 : changed;
+    }
+
+    // Caches are transaction aware, so entries are evicted only when the chunk is committed
+    private void evictFromCaches(List<UUID> ids) {
+        var employees = cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        if (employees != null) {
+            ids.forEach(employees::evict);
+        }
+        var upcomingBirthdays = cacheManager.getCache(CacheConfig.UPCOMING_BIRTHDAYS_CACHE);
+        if (upcomingBirthdays != null) {
+            upcomingBirthdays.clear();
+        }
+    }
+
+    private List<EmployeeMessage> buildEmployeeMessages(List<UUID> ids, EmployeeMessage.Event event) {
+        return employeeRepository.findAllWithHobbiesByIdInOrderById(ids).stream()
+                .map(employee -> EmployeeService.buildEmployeeMessage(employee, event))
+                .toList();
+    }
+
+    private static boolean matchesEveryone(EmployeeSearchCriteria filter) {
+        return filter.fullNamePrefix() == null && filter.emailDomain() == null
+                && filter.bornFrom() == null && filter.bornTo() == null;
+    }
+}
@@ -0,0 +1,187 @@
+package com.jogyco.takeaway.service;
+
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.DatabindException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jogyco.takeaway.EmailBloomFilter;
+import com.jogyco.takeaway.EmailValidator;
+import com.jogyco.takeaway.config.cache.CacheConfig;
+import com.jogyco.takeaway.config.metrics.MetricsConfig;
+import com.jogyco.takeaway.controller.BulkImportReport;
+import com.jogyco.takeaway.controller.BulkImportRowResult;
+import com.jogyco.takeaway.controller.EmployeeCreationRequest;
+import com.jogyco.takeaway.dao.EmployeeRepository;
+import com.jogyco.takeaway.kafka.EmployeeMessage;
+import com.jogyco.takeaway.model.Employee;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Imports a large number of employees at once. Rows are processed in chunks: emails of the whole chunk are
+ * checked with one query, and employees together with their CREATED messages in the outbox are inserted
+ * with JDBC batching in one transaction per chunk.
+ */
+@Slf4j
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+@RequiredArgsConstructor
+public class EmployeeImportService {
+
+    private final EmployeeRepository employeeRepository;
+
+    private final OutboxService outboxService;
+
+    private final EmailValidator emailValidator;
+
+    private final EmailBloomFilter emailBloomFilter;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${employee.import.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Reads employees from JSON Array or NDJSON input and creates all valid ones.
+     * Input is read as a stream, so only one chunk of rows is kept in memory at a time.
+     */
+    @CacheEvict(cacheNames = CacheConfig.UPCOMING_BIRTHDAYS_CACHE, allEntries = true)
+    public BulkImportReport importEmployees(InputStream input) {
+        List<BulkImportRowResult> results = new ArrayList<>();
+        Set<String> importedEmails = new HashSet<>();
+        List<IndexedRequest> chunk = new ArrayList<>(batchSize);
+        int index = 0;
+
+        try (MappingIterator<EmployeeCreationRequest> requests = objectMapper
+                .readerFor(EmployeeCreationRequest.class)
+                .readValues(input)) {
+            while (requests.hasNextValue()) {
+                try {
+                    chunk.add(new IndexedRequest(index, requests.nextValue()));
+                } catch (DatabindException e) {
+                    if (e.getCause() instanceof StreamReadException streamReadException) {
+                        // Malformed JSON wrapped by the record deserializer
+                        throw streamReadException;
+                    }
+                    // Row is a valid JSON, but not a valid employee - we can continue with the next one
+                    results.add(BulkImportRowResult.failed(index, "Invalid employee: " + e.getOriginalMessage()));
+                }
+                index++;
+                if (chunk.size() == batchSize) {
+                    importChunk(chunk, importedEmails, results);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException e) {
+            // Malformed JSON - nothing after this point can be read
+            results.add(BulkImportRowResult.failed(index, "Malformed input: " + e.getMessage()));
+        }
+        importChunk(chunk, importedEmails, results);
+
+        results.sort(Comparator.comparingInt(BulkImportRowResult::index));
+        int created = (int) results.stream()
+                .filter(result -> result.status() == BulkImportRowResult.Status.CREATED)
+                .count();
+        log.info("Bulk import finished, {} employees created and {} rows failed", created, results.size() - created);
+        return new BulkImportReport(created, results.size() - created, results);
+    }
+
+    private void importChunk(List<IndexedRequest> chunk, Set<String> importedEmails, List<BulkImportRowResult> results) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<IndexedRequest> valid = new ArrayList<>(chunk.size());
+        for (IndexedRequest row : chunk) {
+            var error = validate(row.request(), importedEmails);
+            if (error != null) {
+                results.add(BulkImportRowResult.failed(row.index(), error));
+            } else {
+                valid.add(row);
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        // One set-based query for the whole chunk instead of one query per employee,
+        // and only for emails which the filter can't confirm as free
+        var emailsToCheck = valid.stream()
+                .map(row -> row.request().email())
+                .filter(emailBloomFilter::mightContain)
+                .toList();
+        Set<String> takenEmails = emailsToCheck.isEmpty() ? Set.of() : employeeRepository.findTakenEmails(emailsToCheck);
+        List<IndexedRequest> toCreate = new ArrayList<>(valid.size());
+        for (IndexedRequest row : valid) {
+            if (takenEmails.contains(row.request().email())) {
+                results.add(BulkImportRowResult.failed(row.index(), row.request().email() + " is taken!"));
+            } else {
+                toCreate.add(row);
+            }
+        }
+        if (toCreate.isEmpty()) {
+            return;
+        }
+
+        List<Employee> employees = toCreate.stream()
+                .map(row -> EmployeeService.buildEmployee(row.request()))
+                .toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                employeeRepository.saveAll(employees);
+                outboxService.appendAll(employees.stream()
+                        .map(employee -> EmployeeService.buildEmployeeMessage(employee, EmployeeMessage.Event.CREATED))
+                        .toList());
+                entityManager.flush();
+            });
+        } catch (RuntimeException e) {
+            log.error("Bulk import of {} employees failed", employees.size(), e);
+            var error = "Could not save employee: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            toCreate.forEach(row -> results.add(BulkImportRowResult.failed(row.index(), error)));
+            return;
+        } finally {
+            // Entity manager can outlive the chunk transaction (open session in view), so don't let it grow
+            entityManager.clear();
+        }
+
+        for (int i = 0; i < toCreate.size(); i++) {
+            results.add(BulkImportRowResult.created(toCreate.get(i).index(), employees.get(i).getId()));
+            emailBloomFilter.put(employees.get(i).getEmail());
+        }
+    }
+
+    private String validate(EmployeeCreationRequest request, Set<String> importedEmails) {
+        if (request == null) {
+            return "Employee is missing!";
+        }
+        var email = request.email();
+        if (email == null || !emailValidator.test(email)) {
+            return email + " is not valid email address!";
+        }
+        if (!importedEmails.add(email)) {
+            return email + " is duplicated in the import!";
+        }
+        return null;
+    }
+
+    private record IndexedRequest(int index, EmployeeCreationRequest request) {
+    }
+}
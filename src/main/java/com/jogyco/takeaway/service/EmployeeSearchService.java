@@ -0,0 +1,100 @@
+package com.jogyco.takeaway.service;
+
+import com.jogyco.takeaway.config.metrics.MetricsConfig;
+import com.jogyco.takeaway.dao.EmployeeRepository;
+import com.jogyco.takeaway.dao.EmployeeSearchCriteria;
+import com.jogyco.takeaway.exception.ApiRequestException;
+import com.jogyco.takeaway.model.Employee;
+import com.jogyco.takeaway.model.EmployeeSummary;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Searches employees by name prefix, email domain and birthday range. Results are paged by offset,
+ * because they can be sorted by any of the searchable fields.
+ */
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+@RequiredArgsConstructor
+public class EmployeeSearchService {
+
+    public static final String DEFAULT_SORT = "fullName";
+
+    private static final Set<String> SORTABLE_FIELDS = Set.of("fullName", "email", "birthday");
+
+    private final EmployeeRepository employeeRepository;
+
+    @Transactional(readOnly = true)
+    public List<Employee> searchEmployees(EmployeeSearchCriteria criteria, String sort, int page, int size) {
+        var ids = employeeRepository.searchIds(normalize(criteria), toPageable(sort, page, size));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // Employees with hobbies are loaded in one query ordered by id, so they are put back in the search order
+        Map<UUID, Employee> employeesById = employeeRepository.findAllWithHobbiesByIdInOrderById(ids).stream()
+                .collect(Collectors.toMap(Employee::getId, Function.identity()));
+        return ids.stream()
+                .map(employeesById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public List<EmployeeSummary> searchEmployeeSummaries(EmployeeSearchCriteria criteria, String sort, int page, int size) {
+        return employeeRepository.searchSummaries(normalize(criteria), toPageable(sort, page, size));
+    }
+
+    private static EmployeeSearchCriteria normalize(EmployeeSearchCriteria criteria) {
+        if (criteria.bornFrom() != null && criteria.bornTo() != null && criteria.bornFrom().isAfter(criteria.bornTo())) {
+            throw new ApiRequestException("bornFrom %s is after bornTo %s!".formatted(criteria.bornFrom(), criteria.bornTo()));
+        }
+        return new EmployeeSearchCriteria(
+                blankToNull(criteria.fullNamePrefix()),
+                blankToNull(criteria.emailDomain()),
+                criteria.bornFrom(),
+                criteria.bornTo());
+    }
+
+    /**
+     * Sort is a comma separated list of fields, a field starting with - is sorted descending, e.g. "-birthday,fullName".
+     * Id is always the last sort field, so pages are stable for employees with equal values.
+     */
+    private static Pageable toPageable(String sort, int page, int size) {
+        if (size < 1 || size > EmployeeService.MAX_PAGE_SIZE) {
+            throw new ApiRequestException("Page size must be between 1 and %d!".formatted(EmployeeService.MAX_PAGE_SIZE));
+        }
+        if (page < 0) {
+            throw new ApiRequestException("Page must not be negative!");
+        }
+        List<Sort.Order> orders = new ArrayList<>();
+        for (String field : (sort == null || sort.isBlank() ? DEFAULT_SORT : sort).split(",")) {
+            var trimmed = field.trim();
+            var descending = trimmed.startsWith("-");
+            var property = descending ? trimmed.substring(1) : trimmed;
+            if (!SORTABLE_FIELDS.contains(property)) {
+                throw new ApiRequestException("%s is not sortable, use one of %s!".formatted(property, SORTABLE_FIELDS));
+            }
+            orders.add(descending ? Sort.Order.desc(property) : Sort.Order.asc(property));
+        }
+        orders.add(Sort.Order.asc("id"));
+        return PageRequest.of(page, size, Sort.by(orders));
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -1,101 +1,326 @@
 package com.jogyco.takeaway.service;
 
+import com.jogyco.takeaway.EmailBloomFilter;
 import com.jogyco.takeaway.EmailValidator;
+import com.jogyco.takeaway.config.cache.CacheConfig;
+import com.jogyco.takeaway.config.metrics.MetricsConfig;
 import com.jogyco.takeaway.controller.EmployeeCreationRequest;
+import com.jogyco.takeaway.controller.EmployeePage;
+import com.jogyco.takeaway.controller.EmployeePatchRequest;
 import com.jogyco.takeaway.controller.EmployeeUpdateRequest;
 import com.jogyco.takeaway.dao.EmployeeRepository;
 import com.jogyco.takeaway.exception.ApiRequestException;
 import com.jogyco.takeaway.exception.EmployeeNotFoundException;
+import com.jogyco.takeaway.exception.PreconditionFailedException;
 import com.jogyco.takeaway.kafka.EmployeeMessage;
-import com.jogyco.takeaway.kafka.KafkaProducer;
 import com.jogyco.takeaway.model.Employee;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.ByteBuffer;
+import java.util.Base64;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @RequiredArgsConstructor
 public class EmployeeService {
 
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+
     private final EmployeeRepository employeeRepository;
 
-    private final KafkaProducer kafkaProducer;
+    private final OutboxService outboxService;
 
     private final EmailValidator emailValidator;
 
+    private final EmailBloomFilter emailBloomFilter;
+
+    private final EntityManager entityManager;
+
+    // Stages of a write (email check, save, outbox) are observed, so each of them is a span in the request trace
+    private final ObservationRegistry observationRegistry;
+
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.UPCOMING_BIRTHDAYS_CACHE, allEntries = true)
     public ResponseEntity<Employee> createEmployee(EmployeeCreationRequest employeeCreationRequest) {
-        Employee employee = Employee.builder()
-                .fullName(employeeCreationRequest.firstName() + " " + employeeCreationRequest.lastName())
-                .email(employeeCreationRequest.email())
-                .birthday(employeeCreationRequest.birthday())
-                .hobbies(employeeCreationRequest.hobbies())
-                .build();
+        Employee employee = buildEmployee(employeeCreationRequest);
 
         // check if email is valid & if it's not taken
         checkIfEmailIsGoodToGo(employee.getEmail());
 
-        var savedEmployee = employeeRepository.save(employee);
-        // Create Kafka message and send notification
+        var savedEmployee = saveAndCheckEmailConstraint(employee);
+        // Create Kafka message, it is sent from the outbox once the transaction is committed
         var employeeMessage = buildEmployeeMessage(savedEmployee, EmployeeMessage.Event.CREATED);
-        kafkaProducer.send(employeeMessage);
+        outboxService.append(employeeMessage);
 
         return new ResponseEntity<>(savedEmployee, HttpStatus.CREATED);
     }
 
+    @Cacheable(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id")
     public Employee findEmployeeById(UUID id) {
         return employeeRepository.findById(id)
                 .orElseThrow(() -> new EmployeeNotFoundException("Employee with id : [%s] not found!".formatted(id)));
     }
 
-    public List<Employee> getAllEmployees() {
-        return employeeRepository.findAll();
+    /**
+     * Returns one page of employees ordered by id. The cursor is the token returned as
+     * {@link EmployeePage#nextCursor()} of the previous page, or null for the first page.
+     * If hobby is passed, only employees who list exactly that hobby are returned.
+     */
+    public EmployeePage getAllEmployees(String hobby, String cursor, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ApiRequestException("Page size must be between 1 and %d!".formatted(MAX_PAGE_SIZE));
+        }
+        // Fetch one extra row, so we know if there is a next page without running a count query
+        var pageable = PageRequest.ofSize(size + 1);
+        var lastId = cursor == null ? null : decodeCursor(cursor);
+        List<UUID> ids;
+        if (hobby == null || hobby.isBlank()) {
+            ids = lastId == null
+                    ? employeeRepository.findIdsOrderById(pageable)
+                    : employeeRepository.findIdsByIdGreaterThanOrderById(lastId, pageable);
+        } else {
+            ids = lastId == null
+                    ? employeeRepository.findIdsByHobbyOrderById(hobby, pageable)
+                    : employeeRepository.findIdsByHobbyAndIdGreaterThanOrderById(hobby, lastId, pageable);
+        }
+        var employees = ids.isEmpty() ? List.<Employee>of() : employeeRepository.findAllWithHobbiesByIdInOrderById(ids);
+
+        if (employees.size() <= size) {
+            return new EmployeePage(employees, null);
+        }
+        var page = employees.subList(0, size);
+        return new EmployeePage(page, encodeCursor(page.get(size - 1).getId()));
+    }
+
+    /**
+     * Pushes every employee, ordered by id, to the passed consumer. Rows are read with a bounded
+     * fetch size and detached after they are consumed, so memory use doesn't depend on table size.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllEmployees(Consumer<Employee> consumer) {
+        try (Stream<Employee> employees = employeeRepository.streamAllOrderedById()) {
+            employees.forEach(employee -> {
+                consumer.accept(employee);
+                entityManager.detach(employee);
+            });
+        }
     }
 
-    public Employee updateEmployee(EmployeeUpdateRequest employee) {
+    /**
+     * Updates the employee. When expectedVersion is passed (If-Match), the employee must still have that version.
+     */
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#employee.id()"),
+            @CacheEvict(cacheNames = CacheConfig.UPCOMING_BIRTHDAYS_CACHE, allEntries = true)
+    })
+    public Employee updateEmployee(EmployeeUpdateRequest employee, Long expectedVersion) {
         var id = employee.id();
         var email = employee.email();
 
         checkIfEmailIsGoodToGo(email);
 
-        var employeeById = employeeRepository.findById(id)
-                .orElseThrow(() -> new EmployeeNotFoundException("Employee with id : [%s] not found!".formatted(id)));
+        var employeeById = findEmployeeForUpdate(id, expectedVersion);
 
         employeeById.setBirthday(employee.birthday());
         employeeById.setEmail(email);
         employeeById.setHobbies(employee.hobbies());
         employeeById.setFullName(employee.firstName() + " " + employee.lastName());
-        var updatedEmployee = employeeRepository.save(employeeById);
+        var updatedEmployee = saveAndCheckEmailConstraint(employeeById);
 
         var employeeMessage = buildEmployeeMessage(employeeById, EmployeeMessage.Event.UPDATED);
-        kafkaProducer.send(employeeMessage);
+        outboxService.append(employeeMessage);
 
         return updatedEmployee;
     }
 
+    /**
+     * Changes only the passed fields. The UPDATE statement sets only changed columns, email is checked only
+     * when it's changed, and the PATCHED message carries only the changed fields. Nothing is written and
+     * no message is sent when nothing is changed.
+     */
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.UPCOMING_BIRTHDAYS_CACHE, allEntries = true)
+    })
+    public Employee patchEmployee(UUID id, EmployeePatchRequest patch, Long expectedVersion) {
+        if ((patch.firstName() == null) != (patch.lastName() == null)) {
+            throw new ApiRequestException("firstName and lastName must be changed together!");
+        }
+        var employee = findEmployeeForUpdate(id, expectedVersion);
+        var delta = EmployeeMessage.builder()
+                .id(id.toString())
+                .event(EmployeeMessage.Event.PATCHED);
+        boolean changed = false;
+
+        if (patch.email() != null && !patch.email().equals(employee.getEmail())) {
+            checkIfEmailIsGoodToGo(patch.email());
+            employee.setEmail(patch.email());
+            delta.email(patch.email());
+            changed = true;
+        }
+        if (patch.firstName() != null) {
+            var fullName = patch.firstName() + " " + patch.lastName();
+            if (!fullName.equals(employee.getFullName())) {
+                employee.setFullName(fullName);
+                delta.employeeName(fullName);
+                changed = true;
+            }
+        }
+        if (patch.birthday() != null && !patch.birthday().equals(employee.getBirthday())) {
+            employee.setBirthday(patch.birthday());
+            delta.birthday(patch.birthday());
+            changed = true;
+        }
+        // A new list would make Hibernate rewrite all hobby rows, even when they are the same
+        if (patch.hobbies() != null && !Objects.equals(patch.hobbies(), employee.getHobbies())) {
+            employee.setHobbies(patch.hobbies());
+            delta.hobbies(patch.hobbies());
+            changed = true;
+        }
+        if (!changed) {
+            return employee;
+        }
+
+        var patchedEmployee = saveAndCheckEmailConstraint(employee);
+        outboxService.append(delta.build());
+        return patchedEmployee;
+    }
+
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.UPCOMING_BIRTHDAYS_CACHE, allEntries = true)
+    })
     public void deleteEmployee(UUID id) {
         var employee = employeeRepository.findById(id)
                 .orElseThrow(() -> new EmployeeNotFoundException("Employee with id : [%s] not found!".formatted(id)));
 
         employeeRepository.deleteById(id);
 
-        // Create Kafka message and send notification
+        // Create Kafka message, it is sent from the outbox once the transaction is committed
         var employeeMessage = buildEmployeeMessage(employee, EmployeeMessage.Event.DELETED);
-        kafkaProducer.send(employeeMessage);
+        outboxService.append(employeeMessage);
+    }
+
+    /**
+     * Fills the email filter with all emails from the DB. Until it's done (or if it fails) every email
+     * is checked in the DB.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUpEmailFilter() {
+        try (Stream<String> emails = employeeRepository.streamAllEmails()) {
+            emails.forEach(emailBloomFilter::put);
+            emailBloomFilter.markWarm();
+            log.info("Email filter is warmed up");
+        } catch (RuntimeException e) {
+            log.error("Email filter can't be warmed up, every email will be checked in DB", e);
+        }
+    }
+
+    // When expectedVersion is passed (If-Match), the employee must still have that version
+    private Employee findEmployeeForUpdate(UUID id, Long expectedVersion) {
+        var employee = employeeRepository.findById(id)
+                .orElseThrow(() -> new EmployeeNotFoundException("Employee with id : [%s] not found!".formatted(id)));
+        // Update made since the client read the employee would be lost. Updates running at the same time
+        // are still caught by the version check of the UPDATE statement
+        if (expectedVersion != null && !expectedVersion.equals(employee.getVersion())) {
+            throw new PreconditionFailedException("Employee with id : [%s] was changed, its version is %s!"
+                    .formatted(id, employee.getVersion()));
+        }
+        return employee;
     }
 
     private void checkIfEmailIsGoodToGo(String email) {
-        if (!emailValidator.test(email)) {
-            throw new ApiRequestException(email + " is not valid email address!");
-        } else if (employeeRepository.isEmailTaken(email)) {
-            throw new ApiRequestException(email + " is taken!");
+        Observation.createNotStarted("employee.email.check", observationRegistry).observe(() -> {
+            if (!emailValidator.test(email)) {
+                throw new ApiRequestException(email + " is not valid email address!");
+            } else if (emailBloomFilter.mightContain(email) && employeeRepository.isEmailTaken(email)) {
+                // Only emails which might be taken are checked in DB, the rest are definitely free
+                throw new ApiRequestException(email + " is taken!");
+            }
+        });
+    }
+
+    // The check above can't see an email taken in the meantime by another request, the unique constraint can
+    private Employee saveAndCheckEmailConstraint(Employee employee) {
+        try {
+            var savedEmployee = Observation.createNotStarted("employee.save", observationRegistry)
+                    .observe(() -> employeeRepository.saveAndFlush(employee));
+            emailBloomFilter.put(employee.getEmail());
+            return savedEmployee;
+        } catch (DataIntegrityViolationException e) {
+            if (!isEmailConstraintViolation(e)) {
+                throw e;
+            }
+            emailBloomFilter.put(employee.getEmail());
+            throw new ApiRequestException(employee.getEmail() + " is taken!", e);
+        }
+    }
+
+    // Constraint name is not extracted for every DB (e.g. H2), but every DB mentions it in the error message
+    static boolean isEmailConstraintViolation(DataIntegrityViolationException e) {
+        var message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        return message != null && message.toLowerCase().contains(Employee.EMAIL_CONSTRAINT);
+    }
+
+    static String encodeCursor(UUID id) {
+        var buffer = ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    static UUID decodeCursor(String cursor) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ApiRequestException(cursor + " is not valid cursor!", e);
+        }
+        if (bytes.length != 16) {
+            throw new ApiRequestException(cursor + " is not valid cursor!");
         }
+        var buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    static Employee buildEmployee(EmployeeCreationRequest employeeCreationRequest) {
+        return Employee.builder()
+                .fullName(employeeCreationRequest.firstName() + " " + employeeCreationRequest.lastName())
+                .email(employeeCreationRequest.email())
+                .birthday(employeeCreationRequest.birthday())
+                .hobbies(employeeCreationRequest.hobbies())
+                .build();
     }
 
-    private EmployeeMessage buildEmployeeMessage(Employee employee, EmployeeMessage.Event eventType) {
+    public static EmployeeMessage buildEmployeeMessage(Employee employee, EmployeeMessage.Event eventType) {
         return EmployeeMessage.builder()
                 .id(employee.getId().toString())
                 .employeeName(employee.getFullName())
@@ -0,0 +1,83 @@
+package com.jogyco.takeaway.service;
+
+import com.jogyco.takeaway.config.kafka.EmployeeStateTopicProperties;
+import com.jogyco.takeaway.config.metrics.MetricsConfig;
+import com.jogyco.takeaway.config.outbox.OutboxProperties;
+import com.jogyco.takeaway.controller.StateSnapshotReport;
+import com.jogyco.takeaway.dao.EmployeeRepository;
+import com.jogyco.takeaway.exception.ApiRequestException;
+import com.jogyco.takeaway.kafka.EmployeeStatePublisher;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.KafkaException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * One-shot job which publishes the current state of all employees to the compacted state topic, so the topic
+ * has every employee, also the ones which didn't change since the topic was enabled. Employees are read by id
+ * in keyset batches, and the next batch is read only when the previous one is acknowledged, so only one batch
+ * is in memory at a time. Changes made while the snapshot runs are published by the outbox relay as usual.
+ * Every batch is published in its own transaction, which keeps the share locks of its employees until it is
+ * acknowledged (see {@link EmployeeStatePublisher}). Publishing the same state again does no harm, so a failed
+ * snapshot can simply be run again.
+ */
+@Slf4j
+@Service
+@Timed(MetricsConfig.SERVICE_TIMER)
+@RequiredArgsConstructor
+public class EmployeeStateSnapshotService {
+
+    private final EmployeeRepository employeeRepository;
+
+    private final EmployeeStatePublisher statePublisher;
+
+    private final EmployeeStateTopicProperties stateTopicProperties;
+
+    private final OutboxProperties outboxProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public StateSnapshotReport publishSnapshot() {
+        if (!statePublisher.isEnabled()) {
+            throw new ApiRequestException("Employee state topic is not enabled!");
+        }
+        var batch = PageRequest.ofSize(stateTopicProperties.getSnapshotBatchSize());
+        int published = 0;
+        List<UUID> ids = employeeRepository.findIdsOrderById(batch);
+        while (!ids.isEmpty()) {
+            var batchIds = ids;
+            var publishedBefore = published;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (var future : statePublisher.publish(batchIds).values()) {
+                    awaitAcknowledgement(future, publishedBefore);
+                }
+            });
+            published += ids.size();
+            log.debug("State snapshot published {} employees", published);
+            ids = employeeRepository.findIdsByIdGreaterThanOrderById(ids.get(ids.size() - 1), batch);
+        }
+        log.info("State snapshot of {} employees is published", published);
+        return new StateSnapshotReport(published);
+    }
+
+    private void awaitAcknowledgement(Future<?> future, int published) {
+        try {
+            future.get(outboxProperties.getSendTimeout(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new KafkaException("State snapshot stopped after %d employees, it can be run again".formatted(published), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("State snapshot is interrupted after %d employees".formatted(published), e);
+        }
+    }
+}
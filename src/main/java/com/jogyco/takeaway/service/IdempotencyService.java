@@ -0,0 +1,165 @@
+package com.jogyco.takeaway.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jogyco.takeaway.dao.IdempotencyStore;
+import com.jogyco.takeaway.exception.ApiRequestException;
+import com.jogyco.takeaway.exception.IdempotencyConflictException;
+import com.jogyco.takeaway.exception.PreconditionFailedException;
+import com.jogyco.takeaway.model.IdempotencyRecord;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Runs a write request only once per Idempotency-Key. Retries with the same key get the stored response of the
+ * first request, without touching the DB or Kafka. Only successful responses are stored: a failed request
+ * releases its key, so the client can retry it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore idempotencyStore;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param idempotencyKey key sent by the client, request is simply run when it is null
+     * @param operation      name of the write, the same key can be used for different operations
+     * @param request        request body or id, retry must send the same one
+     */
+    public ResponseEntity<?> execute(String idempotencyKey, String operation, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        return execute(idempotencyKey, operation, request, null, action);
+    }
+
+    /**
+     * @param ifMatch If-Match header of a conditional write, a retry must send the same one
+     */
+    public ResponseEntity<?> execute(String idempotencyKey, String operation, Object request, String ifMatch,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (idempotencyKey == null) {
+            return action.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new ApiRequestException("%s must have between 1 and %d characters!".formatted(IDEMPOTENCY_KEY_HEADER, MAX_KEY_LENGTH));
+        }
+        // Keys are chosen by clients, so they are scoped by user - one client can't get the response of another
+        var key = currentUser() + ":" + operation + ":" + idempotencyKey;
+        var fingerprint = fingerprint(request, ifMatch);
+
+        var earlier = idempotencyStore.claim(IdempotencyRecord.builder()
+                .key(key)
+                .fingerprint(fingerprint)
+                .createdAt(Instant.now())
+                .build());
+        if (earlier.isPresent()) {
+            return replay(earlier.get(), fingerprint);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            idempotencyStore.release(key);
+            throw e;
+        }
+        try {
+            idempotencyStore.complete(IdempotencyRecord.builder()
+                    .key(key)
+                    .fingerprint(fingerprint)
+                    .status(response.getStatusCode().value())
+                    .contentType(response.getBody() instanceof String ? MediaType.TEXT_PLAIN_VALUE : MediaType.APPLICATION_JSON_VALUE)
+                    .body(serialize(response.getBody()))
+                    .eTag(response.getHeaders().getETag())
+                    .createdAt(Instant.now())
+                    .build());
+        } catch (RuntimeException e) {
+            // Write is done already, so the client gets its response - only a retry of it would run again
+            log.warn("Response for idempotency key {} is not stored", key, e);
+            idempotencyStore.release(key);
+        }
+        return response;
+    }
+
+    private ResponseEntity<?> replay(IdempotencyRecord earlier, String fingerprint) {
+        if (!earlier.getFingerprint().equals(fingerprint)) {
+            if (requestPart(earlier.getFingerprint()).equals(requestPart(fingerprint))) {
+                throw new PreconditionFailedException("If-Match differs from the request with the same %s!".formatted(IDEMPOTENCY_KEY_HEADER));
+            }
+            throw new ApiRequestException("%s is already used for a different request!".formatted(IDEMPOTENCY_KEY_HEADER));
+        }
+        if (earlier.isInProgress()) {
+            throw new IdempotencyConflictException("Request with the same %s is still in progress!".formatted(IDEMPOTENCY_KEY_HEADER));
+        }
+        log.debug("Returning stored response for idempotency key {}", earlier.getKey());
+        var response = ResponseEntity.status(earlier.getStatus())
+                .header(IDEMPOTENT_REPLAYED_HEADER, "true");
+        if (earlier.getETag() != null) {
+            response.eTag(earlier.getETag());
+        }
+        if (earlier.getBody() == null) {
+            return response.build();
+        }
+        return response
+                .header(HttpHeaders.CONTENT_TYPE, earlier.getContentType())
+                .body(earlier.getBody());
+    }
+
+    // Hash of the request, followed by the hash of If-Match for conditional writes
+    private String fingerprint(Object request, String ifMatch) {
+        try {
+            var fingerprint = sha256(objectMapper.writeValueAsBytes(request));
+            return ifMatch == null ? fingerprint : fingerprint + ":" + sha256(ifMatch.getBytes(StandardCharsets.UTF_8));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Request fingerprint can't be calculated", e);
+        }
+    }
+
+    private static String requestPart(String fingerprint) {
+        var separator = fingerprint.indexOf(':');
+        return separator < 0 ? fingerprint : fingerprint.substring(0, separator);
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Request fingerprint can't be calculated", e);
+        }
+    }
+
+    private String serialize(Object body) {
+        if (body == null || body instanceof String) {
+            return (String) body;
+        }
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response can't be stored", e);
+        }
+    }
+
+    private static String currentUser() {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? "" : authentication.getName();
+    }
+}
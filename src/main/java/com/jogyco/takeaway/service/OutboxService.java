@@ -0,0 +1,64 @@
+package com.jogyco.takeaway.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jogyco.takeaway.config.tracing.TracePropagation;
+import com.jogyco.takeaway.dao.OutboxEventRepository;
+import com.jogyco.takeaway.kafka.EmployeeMessage;
+import com.jogyco.takeaway.model.OutboxEvent;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Writes employee events to the outbox. Callers must already be in the transaction which changes the
+ * employee, so the change and its event are committed (or rolled back) together.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private static final String APPEND_OBSERVATION = "employee.outbox.append";
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final TracePropagation tracePropagation;
+
+    private final ObservationRegistry observationRegistry;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(EmployeeMessage employeeMessage) {
+        Observation.createNotStarted(APPEND_OBSERVATION, observationRegistry)
+                .observe(() -> outboxEventRepository.save(toOutboxEvent(employeeMessage)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(List<EmployeeMessage> employeeMessages) {
+        Observation.createNotStarted(APPEND_OBSERVATION, observationRegistry)
+                .observe(() -> outboxEventRepository.saveAll(employeeMessages.stream()
+                        .map(this::toOutboxEvent)
+                        .toList()));
+    }
+
+    OutboxEvent toOutboxEvent(EmployeeMessage employeeMessage) {
+        try {
+            return OutboxEvent.builder()
+                    .aggregateId(employeeMessage.getId())
+                    .event(employeeMessage.getEvent())
+                    .payload(objectMapper.writeValueAsString(employeeMessage))
+                    .createdAt(Instant.now())
+                    .traceParent(tracePropagation.currentTraceParent())
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Employee message can't be written to the outbox", e);
+        }
+    }
+}
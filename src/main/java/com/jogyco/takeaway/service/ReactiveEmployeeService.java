@@ -0,0 +1,188 @@
+package com.jogyco.takeaway.service;
+
+import com.jogyco.takeaway.EmailBloomFilter;
+import com.jogyco.takeaway.EmailValidator;
+import com.jogyco.takeaway.config.id.EmployeeIdProperties;
+import com.jogyco.takeaway.controller.EmployeeCreationRequest;
+import com.jogyco.takeaway.controller.EmployeePage;
+import com.jogyco.takeaway.controller.EmployeeUpdateRequest;
+import com.jogyco.takeaway.dao.ReactiveEmployeeRepository;
+import com.jogyco.takeaway.dao.ReactiveOutboxEventRepository;
+import com.jogyco.takeaway.exception.ApiRequestException;
+import com.jogyco.takeaway.exception.EmployeeNotFoundException;
+import com.jogyco.takeaway.exception.PreconditionFailedException;
+import com.jogyco.takeaway.kafka.EmployeeMessage;
+import com.jogyco.takeaway.model.Employee;
+import com.jogyco.takeaway.model.EmployeeIdGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * {@link EmployeeService} for the reactive stack - same email checks, versions and outbox events, with
+ * non blocking R2DBC calls. Employees are not cached by id here, Spring caches the returned Mono instead
+ * of the employee.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveEmployeeService {
+
+    private final ReactiveEmployeeRepository employeeRepository;
+
+    private final ReactiveOutboxEventRepository outboxEventRepository;
+
+    private final OutboxService outboxService;
+
+    private final EmailValidator emailValidator;
+
+    private final EmailBloomFilter emailBloomFilter;
+
+    private final TransactionalOperator transactionalOperator;
+
+    // Hibernate generates ids of the servlet stack, the same generator is called here by hand
+    private final EmployeeIdGenerator idGenerator;
+
+    public ReactiveEmployeeService(ReactiveEmployeeRepository employeeRepository,
+                                   ReactiveOutboxEventRepository outboxEventRepository,
+                                   OutboxService outboxService,
+                                   EmailValidator emailValidator,
+                                   EmailBloomFilter emailBloomFilter,
+                                   TransactionalOperator transactionalOperator,
+                                   EmployeeIdProperties employeeIdProperties) {
+        this.employeeRepository = employeeRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxService = outboxService;
+        this.emailValidator = emailValidator;
+        this.emailBloomFilter = emailBloomFilter;
+        this.transactionalOperator = transactionalOperator;
+        this.idGenerator = new EmployeeIdGenerator(employeeIdProperties.getStrategy());
+    }
+
+    public Mono<Employee> createEmployee(EmployeeCreationRequest employeeCreationRequest) {
+        return Mono.fromSupplier(() -> {
+            var employee = EmployeeService.buildEmployee(employeeCreationRequest);
+            employee.setId((UUID) idGenerator.generate(null, null, null, null));
+            return employee;
+        }).flatMap(employee -> checkIfEmailIsGoodToGo(employee.getEmail())
+                .then(employeeRepository.insert(employee))
+                .then(appendToOutbox(employee, EmployeeMessage.Event.CREATED))
+                .as(transactionalOperator::transactional)
+                .onErrorMap(DataIntegrityViolationException.class, e -> toEmailTaken(e, employee.getEmail()))
+                .then(Mono.fromSupplier(() -> {
+                    emailBloomFilter.put(employee.getEmail());
+                    return employee;
+                })));
+    }
+
+    public Mono<Employee> findEmployeeById(UUID id) {
+        return employeeRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> notFound(id)));
+    }
+
+    /**
+     * Same pages and cursors as {@link EmployeeService#getAllEmployees(String, String, int)}.
+     */
+    public Mono<EmployeePage> getAllEmployees(String hobby, String cursor, int size) {
+        return Mono.defer(() -> {
+            if (size < 1 || size > EmployeeService.MAX_PAGE_SIZE) {
+                return Mono.error(new ApiRequestException(
+                        "Page size must be between 1 and %d!".formatted(EmployeeService.MAX_PAGE_SIZE)));
+            }
+            var lastId = cursor == null ? null : EmployeeService.decodeCursor(cursor);
+            // Fetch one extra employee, so we know if there is a next page without running a count query
+            return employeeRepository.findPage(hobby == null || hobby.isBlank() ? null : hobby, lastId, size + 1)
+                    .collectList()
+                    .map(employees -> {
+                        if (employees.size() <= size) {
+                            return new EmployeePage(employees, null);
+                        }
+                        var page = employees.subList(0, size);
+                        return new EmployeePage(page, EmployeeService.encodeCursor(page.get(size - 1).getId()));
+                    });
+        });
+    }
+
+    // One read transaction for the whole stream, rows are fetched only as fast as the client reads them
+    public Flux<Employee> streamAllEmployees() {
+        return employeeRepository.streamAllOrderedById()
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Updates the employee. When expectedVersion is passed (If-Match), the employee must still have that version.
+     */
+    public Mono<Employee> updateEmployee(EmployeeUpdateRequest employeeUpdateRequest, Long expectedVersion) {
+        var email = employeeUpdateRequest.email();
+        return checkIfEmailIsGoodToGo(email)
+                .then(findEmployeeForUpdate(employeeUpdateRequest.id(), expectedVersion))
+                .flatMap(employeeById -> {
+                    var employee = Employee.builder()
+                            .id(employeeById.getId())
+                            .fullName(employeeUpdateRequest.firstName() + " " + employeeUpdateRequest.lastName())
+                            .email(email)
+                            .birthday(employeeUpdateRequest.birthday())
+                            .hobbies(employeeUpdateRequest.hobbies())
+                            .version(employeeById.getVersion() + 1)
+                            .build();
+                    return employeeRepository.update(employee, employeeById.getVersion())
+                            .then(appendToOutbox(employee, EmployeeMessage.Event.UPDATED))
+                            .thenReturn(employee);
+                })
+                .as(transactionalOperator::transactional)
+                .onErrorMap(DataIntegrityViolationException.class, e -> toEmailTaken(e, email))
+                .doOnNext(employee -> emailBloomFilter.put(email));
+    }
+
+    public Mono<Void> deleteEmployee(UUID id) {
+        return findEmployeeById(id)
+                .flatMap(employee -> employeeRepository.deleteById(id)
+                        .then(appendToOutbox(employee, EmployeeMessage.Event.DELETED)))
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<Employee> findEmployeeForUpdate(UUID id, Long expectedVersion) {
+        return findEmployeeById(id)
+                .flatMap(employee -> expectedVersion != null && !expectedVersion.equals(employee.getVersion())
+                        ? Mono.error(new PreconditionFailedException("Employee with id : [%s] was changed, its version is %s!"
+                        .formatted(id, employee.getVersion())))
+                        : Mono.just(employee));
+    }
+
+    private Mono<Void> checkIfEmailIsGoodToGo(String email) {
+        return Mono.defer(() -> {
+            if (!emailValidator.test(email)) {
+                return Mono.error(new ApiRequestException(email + " is not valid email address!"));
+            }
+            // Only emails which might be taken are checked in DB, the rest are definitely free
+            if (!emailBloomFilter.mightContain(email)) {
+                return Mono.empty();
+            }
+            return employeeRepository.isEmailTaken(email)
+                    .flatMap(taken -> taken ? Mono.error(new ApiRequestException(email + " is taken!")) : Mono.empty());
+        });
+    }
+
+    // Message is written in the transaction of the change, it is sent from the outbox once the transaction is committed
+    private Mono<Void> appendToOutbox(Employee employee, EmployeeMessage.Event event) {
+        return Mono.defer(() -> outboxEventRepository.save(
+                outboxService.toOutboxEvent(EmployeeService.buildEmployeeMessage(employee, event))));
+    }
+
+    // The check above can't see an email taken in the meantime by another request, the unique constraint can
+    private Throwable toEmailTaken(DataIntegrityViolationException e, String email) {
+        if (!EmployeeService.isEmailConstraintViolation(e)) {
+            return e;
+        }
+        emailBloomFilter.put(email);
+        return new ApiRequestException(email + " is taken!", e);
+    }
+
+    private static EmployeeNotFoundException notFound(UUID id) {
+        return new EmployeeNotFoundException("Employee with id : [%s] not found!".formatted(id));
+    }
+}
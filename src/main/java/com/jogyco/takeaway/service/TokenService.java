@@ -0,0 +1,46 @@
+package com.jogyco.takeaway.service;
+
+import com.jogyco.takeaway.config.securtiny.AuthenticationProperties;
+import com.jogyco.takeaway.config.securtiny.SecurityConfig;
+import com.jogyco.takeaway.controller.TokenResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+@Service
+@RequiredArgsConstructor
+public class TokenService {
+
+    private static final String TOKEN_TYPE = "Bearer";
+
+    private final JwtEncoder jwtEncoder;
+
+    private final AuthenticationProperties authenticationProperties;
+
+    /**
+     * Issues a signed access token with the same roles as the already authenticated user has.
+     */
+    public TokenResponse issueToken(Authentication authentication) {
+        var now = Instant.now();
+        var timeToLive = authenticationProperties.getTokenTimeToLive();
+        var claims = JwtClaimsSet.builder()
+                .subject(authentication.getName())
+                .issuedAt(now)
+                .expiresAt(now.plus(timeToLive))
+                .claim(SecurityConfig.ROLES_CLAIM, authentication.getAuthorities().stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .toList())
+                .build();
+        var header = JwsHeader.with(MacAlgorithm.HS256).build();
+        var token = jwtEncoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+        return new TokenResponse(token, TOKEN_TYPE, timeToLive.toSeconds());
+    }
+}
@@ -0,0 +1,79 @@
+-- Schema as it was created by ddl-auto: update. Statements are safe to run on such database too,
+-- so existing ones are baselined at version 0 and go through this migration as well
+
+CREATE TABLE IF NOT EXISTS employee
+(
+    id                 UUID         NOT NULL,
+    full_name          VARCHAR(255),
+    email              VARCHAR(255),
+    email_domain       VARCHAR(255),
+    birthday           DATE,
+    birthday_month_day INTEGER,
+    version            BIGINT,
+    CONSTRAINT employee_pkey PRIMARY KEY (id),
+    CONSTRAINT uk_employee_email UNIQUE (email)
+);
+
+-- Columns added to the entity later, and rows created before that
+ALTER TABLE employee ADD COLUMN IF NOT EXISTS email_domain VARCHAR(255);
+ALTER TABLE employee ADD COLUMN IF NOT EXISTS birthday_month_day INTEGER;
+ALTER TABLE employee ADD COLUMN IF NOT EXISTS version BIGINT;
+UPDATE employee
+SET email_domain = LOWER(SUBSTRING(email FROM POSITION('@' IN email) + 1))
+WHERE email_domain IS NULL
+  AND email IS NOT NULL;
+UPDATE employee
+SET birthday_month_day = EXTRACT(MONTH FROM birthday) * 100 + EXTRACT(DAY FROM birthday)
+WHERE birthday_month_day IS NULL
+  AND birthday IS NOT NULL;
+UPDATE employee
+SET version = 0
+WHERE version IS NULL;
+
+-- Name prefix search is a LIKE 'prefix%', which can use a btree index only with pattern ops
+-- when the database collation is not C
+DROP INDEX IF EXISTS idx_employee_full_name;
+CREATE INDEX idx_employee_full_name ON employee (full_name varchar_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_employee_email_domain ON employee (email_domain);
+CREATE INDEX IF NOT EXISTS idx_employee_birthday ON employee (birthday);
+CREATE INDEX IF NOT EXISTS idx_employee_birthday_month_day ON employee (birthday_month_day);
+
+CREATE TABLE IF NOT EXISTS employee_hobby
+(
+    employee_id UUID         NOT NULL,
+    position    INTEGER      NOT NULL,
+    hobby       VARCHAR(255) NOT NULL,
+    CONSTRAINT employee_hobby_pkey PRIMARY KEY (employee_id, position),
+    CONSTRAINT fk_employee_hobby_employee FOREIGN KEY (employee_id) REFERENCES employee (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_employee_hobby_hobby ON employee_hobby (hobby, employee_id);
+
+CREATE SEQUENCE IF NOT EXISTS employee_outbox_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS employee_outbox
+(
+    id           BIGINT NOT NULL,
+    aggregate_id VARCHAR(255),
+    event        VARCHAR(255),
+    payload      TEXT,
+    created_at   TIMESTAMP(6) WITH TIME ZONE,
+    trace_parent VARCHAR(255),
+    CONSTRAINT employee_outbox_pkey PRIMARY KEY (id)
+);
+
+ALTER TABLE employee_outbox ADD COLUMN IF NOT EXISTS trace_parent VARCHAR(255);
+
+CREATE TABLE IF NOT EXISTS idempotency_record
+(
+    idempotency_key VARCHAR(255) NOT NULL,
+    fingerprint     VARCHAR(255),
+    status          INTEGER,
+    content_type    VARCHAR(255),
+    body            TEXT,
+    created_at      TIMESTAMP(6) WITH TIME ZONE,
+    CONSTRAINT idempotency_record_pkey PRIMARY KEY (idempotency_key)
+);
+
+-- Expired keys are deleted by created_at
+CREATE INDEX IF NOT EXISTS idx_idempotency_record_created_at ON idempotency_record (created_at);
@@ -0,0 +1,3 @@
+-- Outbox ids are taken one by one, blocks cached per instance break the order of events of an employee.
+-- Values handed out from blocks of 50 so far are all below the current sequence value
+ALTER SEQUENCE employee_outbox_seq INCREMENT BY 1;
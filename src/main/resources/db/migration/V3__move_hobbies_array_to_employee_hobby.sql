@@ -0,0 +1,21 @@
+-- Databases created by ddl-auto before hobbies got their own table keep them in the employee.hobbies array,
+-- ddl-auto only added the empty employee_hobby table. Hobbies are copied once and the array is dropped
+DO
+$$
+    BEGIN
+        IF EXISTS (SELECT 1
+                   FROM information_schema.columns
+                   WHERE table_schema = current_schema()
+                     AND table_name = 'employee'
+                     AND column_name = 'hobbies')
+            AND NOT EXISTS (SELECT 1 FROM employee_hobby) THEN
+            INSERT INTO employee_hobby (employee_id, position, hobby)
+            SELECT e.id, h.ord - 1, h.hobby
+            FROM employee e,
+                 unnest(e.hobbies) WITH ORDINALITY AS h(hobby, ord)
+            WHERE h.hobby IS NOT NULL;
+        END IF;
+    END
+$$;
+
+ALTER TABLE employee DROP COLUMN IF EXISTS hobbies;
@@ -0,0 +1,2 @@
+-- ETag of a conditional write response, so a retry with the same Idempotency-Key gets it as well
+ALTER TABLE idempotency_record ADD COLUMN IF NOT EXISTS etag VARCHAR(255);
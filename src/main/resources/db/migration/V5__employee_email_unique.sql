@@ -0,0 +1,21 @@
+-- V1 creates uk_employee_email only with a new employee table. Tables created by ddl-auto don't have it,
+-- and the email check relies on it. Duplicates must be resolved by hand first, migration fails on them
+DO
+$$
+    DECLARE
+        duplicates TEXT;
+    BEGIN
+        IF NOT EXISTS (SELECT 1
+                       FROM pg_constraint
+                       WHERE conname = 'uk_employee_email'
+                         AND conrelid = 'employee'::regclass) THEN
+            SELECT string_agg(email, ', ')
+            INTO duplicates
+            FROM (SELECT email FROM employee WHERE email IS NOT NULL GROUP BY email HAVING COUNT(*) > 1 LIMIT 10) d;
+            IF duplicates IS NOT NULL THEN
+                RAISE EXCEPTION 'Employees with the same email have to be merged or deleted first: %', duplicates;
+            END IF;
+            ALTER TABLE employee ADD CONSTRAINT uk_employee_email UNIQUE (email);
+        END IF;
+    END
+$$;
@@ -0,0 +1,4 @@
+-- Events which can't be read or sent are marked as failed and skipped by the relay, instead of blocking
+-- every event behind them
+ALTER TABLE employee_outbox ADD COLUMN IF NOT EXISTS attempts INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE employee_outbox ADD COLUMN IF NOT EXISTS failed_at TIMESTAMP(6) WITH TIME ZONE;
@@ -0,0 +1,38 @@
+package com.jogyco.takeaway;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EmailBloomFilterTest {
+
+    private final EmailBloomFilter underTest = new EmailBloomFilter(10_000, 0.01);
+
+    @Test
+    public void itShouldSayEveryEmailMightBeTakenBeforeWarmUp() {
+        assertThat(underTest.mightContain("testemail@dot.com")).isTrue();
+    }
+
+    @Test
+    public void itShouldContainEveryAddedEmail() {
+        IntStream.range(0, 10_000).forEach(i -> underTest.put("testemail" + i + "@dot.com"));
+        underTest.markWarm();
+
+        assertThat(IntStream.range(0, 10_000).allMatch(i -> underTest.mightContain("testemail" + i + "@dot.com"))).isTrue();
+    }
+
+    @Test
+    public void itShouldRarelySayThatFreeEmailMightBeTaken() {
+        IntStream.range(0, 10_000).forEach(i -> underTest.put("testemail" + i + "@dot.com"));
+        underTest.markWarm();
+
+        long falsePositives = IntStream.range(0, 10_000)
+                .filter(i -> underTest.mightContain("freeemail" + i + "@dot.com"))
+                .count();
+
+        // expected false positive probability is 1%, leave some room for randomness
+        assertThat(falsePositives).isLessThan(200);
+    }
+}
@@ -0,0 +1,31 @@
+package com.jogyco.takeaway.config.metrics;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability
+class MetricsConfigTest {
+
+    @Autowired
+    TestRestTemplate testRestTemplate;
+
+    @Test
+    void prometheusEndpointShouldExposeHistogramsOfRequestsServicesAndRepositories() {
+        testRestTemplate.getForEntity("/api/v1/employees", String.class);
+
+        var respEntity = testRestTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        Assertions.assertThat(respEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(respEntity.getBody())
+                .contains("http_server_requests_seconds_bucket{")
+                .containsPattern("employee_service_seconds_bucket\\{.*method=\"getAllEmployees\"")
+                .containsPattern("spring_data_repository_invocations_seconds_bucket\\{.*method=\"findIdsOrderById\"")
+                .contains("application=\"employee\"");
+    }
+}
@@ -0,0 +1,74 @@
+package com.jogyco.takeaway.config.securtiny;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingAuthenticationProviderTest {
+
+    @Mock
+    private AuthenticationProvider delegate;
+
+    private CachingAuthenticationProvider cachingAuthenticationProvider;
+
+    @BeforeEach
+    void setUp() {
+        cachingAuthenticationProvider = new CachingAuthenticationProvider(delegate, Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    void shouldVerifySameCredentialsOnlyOnce() {
+        when(delegate.authenticate(any())).thenReturn(UsernamePasswordAuthenticationToken.authenticated(
+                "admin", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN")));
+
+        cachingAuthenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "admin"));
+        var authentication = cachingAuthenticationProvider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("admin", "admin"));
+
+        assertThat(authentication.isAuthenticated()).isTrue();
+        assertThat(authentication.getName()).isEqualTo("admin");
+        assertThat(AuthorityUtils.authorityListToSet(authentication.getAuthorities())).containsExactly("ROLE_ADMIN");
+        verify(delegate, times(1)).authenticate(any());
+    }
+
+    @Test
+    void shouldNotTrustDifferentPassword() {
+        when(delegate.authenticate(any()))
+                .thenReturn(UsernamePasswordAuthenticationToken.authenticated(
+                        "admin", null, AuthorityUtils.createAuthorityList("ROLE_ADMIN")))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+
+        cachingAuthenticationProvider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated("admin", "admin"));
+
+        assertThatThrownBy(() -> cachingAuthenticationProvider.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated("admin", "wrong")))
+                .isInstanceOf(BadCredentialsException.class);
+        verify(delegate, times(2)).authenticate(any());
+    }
+
+    @Test
+    void shouldNotCacheFailedAttempts() {
+        when(delegate.authenticate(any())).thenThrow(new BadCredentialsException("Bad credentials"));
+
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> cachingAuthenticationProvider.authenticate(
+                    UsernamePasswordAuthenticationToken.unauthenticated("admin", "wrong")))
+                    .isInstanceOf(BadCredentialsException.class);
+        }
+        verify(delegate, times(2)).authenticate(any());
+    }
+}
@@ -0,0 +1,22 @@
+package com.jogyco.takeaway.config.threads;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadsTest {
+
+    @Test
+    void shouldCreateExecutorOnlyWhenJvmSupportsVirtualThreads() throws Exception {
+        var executor = VirtualThreads.newVirtualThreadPerTaskExecutor();
+
+        assertThat(executor.isPresent()).isEqualTo(Runtime.version().feature() >= 21);
+        if (executor.isPresent()) {
+            var isVirtual = executor.get()
+                    .submit(() -> (Boolean) Thread.class.getMethod("isVirtual").invoke(Thread.currentThread()))
+                    .get();
+            assertThat(isVirtual).isTrue();
+            executor.get().shutdown();
+        }
+    }
+}
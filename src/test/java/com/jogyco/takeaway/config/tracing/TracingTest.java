@@ -0,0 +1,102 @@
+package com.jogyco.takeaway.config.tracing;
+
+import com.jogyco.takeaway.controller.EmployeeCreationRequest;
+import com.jogyco.takeaway.dao.EmployeeRepository;
+import com.jogyco.takeaway.dao.OutboxEventRepository;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "management.tracing.sampling.probability=1.0")
+@AutoConfigureObservability
+class TracingTest {
+
+    private static final InMemorySpanExporter SPAN_EXPORTER = InMemorySpanExporter.create();
+
+    @TestConfiguration
+    static class InMemorySpanExporterConfig {
+
+        @Bean
+        SpanProcessor inMemorySpanProcessor() {
+            return SimpleSpanProcessor.create(SPAN_EXPORTER);
+        }
+    }
+
+    @Autowired
+    TestRestTemplate testRestTemplate;
+
+    @Autowired
+    EmployeeRepository employeeRepository;
+
+    @Autowired
+    OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    TracePropagation tracePropagation;
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+        employeeRepository.deleteAll();
+        SPAN_EXPORTER.reset();
+    }
+
+    @Test
+    void createEmployeeShouldTraceEveryStageAndStoreTraceWithOutboxEvent() {
+        var employeeRequest = new EmployeeCreationRequest(
+                "Nebojsa",
+                "Jogric",
+                "traced@gogle.com",
+                LocalDate.parse("1980-12-12"),
+                List.of("Test Hobby"));
+
+        var respEntity = testRestTemplate.withBasicAuth("admin", "admin")
+                .postForEntity("/api/v1/employees", employeeRequest, String.class);
+
+        Assertions.assertThat(respEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        var saveSpan = findSpan("employee.save");
+        Assertions.assertThat(SPAN_EXPORTER.getFinishedSpanItems())
+                .filteredOn(span -> span.getTraceId().equals(saveSpan.getTraceId()))
+                .extracting(SpanData::getName)
+                .contains("employee.email.check", "employee.outbox.append");
+        Assertions.assertThat(outboxEventRepository.findAll())
+                .singleElement()
+                .satisfies(event -> Assertions.assertThat(event.getTraceParent()).contains(saveSpan.getTraceId()));
+    }
+
+    @Test
+    void childSpanShouldContinueTraceOfTraceParent() {
+        var traceParent = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+
+        var currentTraceParent = tracePropagation.inChildSpan(traceParent, "employee.kafka.send",
+                tracePropagation::currentTraceParent);
+
+        Assertions.assertThat(currentTraceParent)
+                .startsWith("00-4bf92f3577b34da6a3ce929d0e0e4736-")
+                .doesNotContain("00f067aa0ba902b7");
+        Assertions.assertThat(findSpan("employee.kafka.send").getParentSpanId()).isEqualTo("00f067aa0ba902b7");
+    }
+
+    private static SpanData findSpan(String name) {
+        return SPAN_EXPORTER.getFinishedSpanItems().stream()
+                .filter(span -> span.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError(name + " span is not exported"));
+    }
+}
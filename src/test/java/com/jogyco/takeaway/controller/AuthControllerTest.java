@@ -0,0 +1,85 @@
+package com.jogyco.takeaway.controller;
+
+import com.jogyco.takeaway.dao.EmployeeRepository;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AuthControllerTest {
+
+    @Autowired
+    TestRestTemplate testRestTemplate;
+
+    @Autowired
+    EmployeeRepository employeeRepository;
+
+    @AfterEach
+    void cleanUp() {
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    void shouldCreateEmployeeWithIssuedToken() {
+        var tokenResponse = testRestTemplate
+                .withBasicAuth("admin", "admin")
+                .postForEntity("/api/v1/auth/token", null, TokenResponse.class);
+
+        Assertions.assertThat(tokenResponse.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(tokenResponse.getBody().tokenType()).isEqualTo("Bearer");
+
+        var respEntity = testRestTemplate.exchange("/api/v1/employees", HttpMethod.POST,
+                new HttpEntity<>(anEmployeeRequest(), bearer(tokenResponse.getBody().accessToken())), String.class);
+
+        Assertions.assertThat(respEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void shouldNotIssueTokenForWrongCredentials() {
+        var tokenResponse = testRestTemplate
+                .withBasicAuth("admin", "wrong")
+                .postForEntity("/api/v1/auth/token", null, String.class);
+
+        Assertions.assertThat(tokenResponse.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    @Test
+    void shouldRejectTamperedToken() {
+        var token = testRestTemplate
+                .withBasicAuth("admin", "admin")
+                .postForEntity("/api/v1/auth/token", null, TokenResponse.class)
+                .getBody()
+                .accessToken();
+        var tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        var respEntity = testRestTemplate.exchange("/api/v1/employees", HttpMethod.POST,
+                new HttpEntity<>(anEmployeeRequest(), bearer(tampered)), String.class);
+
+        Assertions.assertThat(respEntity.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    private static HttpHeaders bearer(String token) {
+        var headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        return headers;
+    }
+
+    private static EmployeeCreationRequest anEmployeeRequest() {
+        return new EmployeeCreationRequest(
+                "Nebojsa",
+                "Jogric",
+                "token.test@gmail.com",
+                LocalDate.parse("1980-12-12"),
+                List.of("Test Hobby"));
+    }
+}
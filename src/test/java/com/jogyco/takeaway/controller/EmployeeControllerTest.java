@@ -3,7 +3,13 @@ package com.jogyco.takeaway.controller;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jogyco.takeaway.dao.EmployeeRepository;
+import com.jogyco.takeaway.dao.EmployeeSearchCriteria;
+import com.jogyco.takeaway.dao.OutboxEventRepository;
+import com.jogyco.takeaway.kafka.EmployeeMessage;
 import com.jogyco.takeaway.model.Employee;
+import com.jogyco.takeaway.model.OutboxEvent;
+import com.jogyco.takeaway.service.IdempotencyService;
+import com.jogyco.takeaway.service.TokenService;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -11,13 +17,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.test.context.jdbc.Sql;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -31,6 +43,12 @@ class EmployeeControllerTest {
     @Autowired
     EmployeeRepository employeeRepository;
 
+    @Autowired
+    OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    TokenService tokenService;
+
     @AfterEach
     void setUp() {
         employeeRepository.deleteAll();
@@ -67,6 +85,31 @@ class EmployeeControllerTest {
     }
 
 
+    @Test
+    void createEmployeeRetryWithSameIdempotencyKeyShouldReturnStoredResponse() {
+        var employeeRequest = new EmployeeCreationRequest(
+                "Nebojsa",
+                "Jogric",
+                "idempotent@gogle.com",
+                LocalDate.parse("1980-12-12"),
+                List.of("Test Hobby"));
+        var headers = new HttpHeaders();
+        headers.set(IdempotencyService.IDEMPOTENCY_KEY_HEADER, UUID.randomUUID().toString());
+        var request = new HttpEntity<>(employeeRequest, headers);
+
+        var first = testRestTemplate.withBasicAuth("admin", "admin")
+                .postForEntity("/api/v1/employees", request, String.class);
+        // Without the key, the retry would fail because the email is taken
+        var retry = testRestTemplate.withBasicAuth("admin", "admin")
+                .postForEntity("/api/v1/employees", request, String.class);
+
+        Assertions.assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(retry.getBody()).isEqualTo(first.getBody());
+        Assertions.assertThat(retry.getHeaders().getFirst(IdempotencyService.IDEMPOTENT_REPLAYED_HEADER)).isEqualTo("true");
+        Assertions.assertThat(employeeRepository.count()).isEqualTo(1);
+    }
+
     @Test
     @Sql("/new-test-employees.sql")
     void getEmployeesWithoutBasicAuthShouldReturnAllEmployeesFromDB() throws IOException {
@@ -81,6 +124,173 @@ class EmployeeControllerTest {
         Assertions.assertThat(respEntity.getBody()).isEqualTo(employeeList);
     }
 
+    @Test
+    @Sql("/new-test-employees.sql")
+    void getEmployeesShouldReturnNextCursorUntilLastPage() {
+        var firstPage = testRestTemplate.getForEntity("/api/v1/employees?size=2", List.class);
+        var nextCursor = firstPage.getHeaders().getFirst(EmployeeController.NEXT_CURSOR_HEADER);
+
+        Assertions.assertThat(firstPage.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(firstPage.getBody().size()).isEqualTo(2);
+        Assertions.assertThat(nextCursor).isNotNull();
+
+        var lastPage = testRestTemplate.getForEntity("/api/v1/employees?size=2&cursor={cursor}", List.class, nextCursor);
+
+        Assertions.assertThat(lastPage.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(lastPage.getBody().size()).isEqualTo(1);
+        Assertions.assertThat(lastPage.getHeaders().containsKey(EmployeeController.NEXT_CURSOR_HEADER)).isFalse();
+    }
+
+    @Test
+    @Sql("/new-test-employees.sql")
+    void getEmployeesShouldFilterByHobby() {
+        var respEntity = testRestTemplate.getForEntity("/api/v1/employees?hobby={hobby}", Employee[].class, "test 2");
+
+        Assertions.assertThat(respEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(respEntity.getBody())
+                .extracting(Employee::getEmail)
+                .containsExactly("testemail2@gmail.com");
+    }
+
+    @Test
+    @Sql("/new-test-employees.sql")
+    void searchEmployeesShouldReturnSummariesSortedByBirthday() {
+        var respEntity = testRestTemplate.getForEntity(
+                "/api/v1/employees/search?emailDomain=gmail.com&bornFrom=1970-01-01&sort=-birthday&view=summary", List.class);
+
+        Assertions.assertThat(respEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(respEntity.getBody()).containsExactly(
+                Map.of("id", "190c59cf-e8f9-4e98-94b3-2cc44555450a", "fullName", "Test Testeric1"),
+                Map.of("id", "190c59cd-e8f9-4e98-94b3-2cc44555450a", "fullName", "Test Testeric2"));
+    }
+
+    @Test
+    void getUpcomingBirthdaysShouldReturnBadRequestForTooManyDays() {
+        var respEntity = testRestTemplate.getForEntity("/api/v1/employees/birthdays/upcoming?days=32", String.class);
+
+        Assertions.assertThat(respEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    @Sql("/new-test-employees.sql")
+    void getEmployeeByIdShouldReturnNotModifiedForCurrentETag() {
+        var employeeId = "190c59cf-a8f0-4e98-94b3-2cc44555450a";
+        var first = testRestTemplate.getForEntity("/api/v1/employees/{id}", Employee.class, employeeId);
+
+        var headers = new HttpHeaders();
+        headers.setIfNoneMatch(first.getHeaders().getETag());
+        var second = testRestTemplate.exchange("/api/v1/employees/{id}", HttpMethod.GET,
+                new HttpEntity<>(headers), String.class, employeeId);
+
+        Assertions.assertThat(first.getHeaders().getETag()).isEqualTo("\"0\"");
+        Assertions.assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        Assertions.assertThat(second.getBody()).isNull();
+    }
+
+    @Test
+    @Sql("/new-test-employees.sql")
+    void getAllEmployeesShouldReturnNotModifiedForCurrentETag() {
+        var first = testRestTemplate.getForEntity("/api/v1/employees", String.class);
+
+        var headers = new HttpHeaders();
+        headers.setIfNoneMatch(first.getHeaders().getETag());
+        var second = testRestTemplate.exchange("/api/v1/employees", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        Assertions.assertThat(first.getHeaders().getETag()).isNotNull();
+        Assertions.assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    @Sql("/new-test-employees.sql")
+    void updateEmployeeShouldCheckIfMatchVersion() {
+        var employeeId = UUID.fromString("190c59cf-e8f9-4e98-94b3-2cc44555450a");
+        var update = new EmployeeUpdateRequest(employeeId, "Test", "Updated", "updated@gmail.com",
+                LocalDate.parse("1983-10-25"), List.of("Chess"));
+        var staleHeaders = new HttpHeaders();
+        staleHeaders.setIfMatch("\"5\"");
+        var currentHeaders = new HttpHeaders();
+        currentHeaders.setIfMatch("\"0\"");
+
+        var stale = testRestTemplate.withBasicAuth("admin", "admin")
+                .exchange("/api/v1/employees", HttpMethod.PUT, new HttpEntity<>(update, staleHeaders), String.class);
+        var current = testRestTemplate.withBasicAuth("admin", "admin")
+                .exchange("/api/v1/employees", HttpMethod.PUT, new HttpEntity<>(update, currentHeaders), Employee.class);
+
+        Assertions.assertThat(stale.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        Assertions.assertThat(current.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        Assertions.assertThat(current.getHeaders().getETag()).isEqualTo("\"1\"");
+        Assertions.assertThat(current.getBody().getFullName()).isEqualTo("Test Updated");
+    }
+
+    @Test
+    @Sql("/new-test-employees.sql")
+    void patchEmployeeShouldChangeOnlyPassedFields() throws IOException, InterruptedException {
+        var employeeId = "190c59cf-a8f0-4e98-94b3-2cc44555450a";
+        // TestRestTemplate can't send PATCH without Apache HttpClient on the classpath
+        var request = HttpRequest.newBuilder(
+                        URI.create(testRestTemplate.getRootUri() + "/api/v1/employees/" + employeeId))
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"hobbies\": [\"Go\"]}"))
+                .header(HttpHeaders.CONTENT_TYPE, EmployeeController.APPLICATION_MERGE_PATCH_JSON_VALUE)
+                .header(HttpHeaders.AUTHORIZATION, "Basic " + Base64.getEncoder().encodeToString("admin:admin".getBytes()))
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .build();
+
+        var response = HttpClient.newHttpClient()
+                .send(request, HttpResponse.BodyHandlers.ofString());
+
+        Assertions.assertThat(response.statusCode()).isEqualTo(HttpStatus.OK.value());
+        Assertions.assertThat(response.headers().firstValue(HttpHeaders.ETAG)).hasValue("\"1\"");
+        var employee = employeeRepository.findAllWithHobbiesByIdInOrderById(List.of(UUID.fromString(employeeId))).get(0);
+        Assertions.assertThat(employee.getHobbies()).containsExactly("Go");
+        Assertions.assertThat(employee.getEmail()).isEqualTo("testemail3@gmail.com");
+        Assertions.assertThat(employee.getFullName()).isEqualTo("Test Testeric3");
+    }
+
+    @Test
+    @Sql("/new-test-employees.sql")
+    void patchEmployeeShouldBeForbiddenForNonAdminUser() throws IOException, InterruptedException {
+        var employeeId = "190c59cf-a8f0-4e98-94b3-2cc44555450a";
+        var userToken = tokenService.issueToken(new TestingAuthenticationToken("user", null, "ROLE_USER")).accessToken();
+        var request = HttpRequest.newBuilder(
+                        URI.create(testRestTemplate.getRootUri() + "/api/v1/employees/" + employeeId))
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"hobbies\": [\"Hacked\"]}"))
+                .header(HttpHeaders.CONTENT_TYPE, EmployeeController.APPLICATION_MERGE_PATCH_JSON_VALUE);
+
+        var anonymous = HttpClient.newHttpClient()
+                .send(request.build(), HttpResponse.BodyHandlers.ofString());
+        var user = HttpClient.newHttpClient()
+                .send(request.header(HttpHeaders.AUTHORIZATION, "Bearer " + userToken).build(), HttpResponse.BodyHandlers.ofString());
+
+        Assertions.assertThat(anonymous.statusCode()).isEqualTo(HttpStatus.UNAUTHORIZED.value());
+        Assertions.assertThat(user.statusCode()).isEqualTo(HttpStatus.FORBIDDEN.value());
+        var employee = employeeRepository.findAllWithHobbiesByIdInOrderById(List.of(UUID.fromString(employeeId))).get(0);
+        Assertions.assertThat(employee.getHobbies()).doesNotContain("Hacked");
+    }
+
+    @Test
+    void searchEmployeesShouldReturnBadRequestForUnknownSortField() {
+        var respEntity = testRestTemplate.getForEntity("/api/v1/employees/search?sort=hobbies", String.class);
+
+        Assertions.assertThat(respEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    @Sql("/new-test-employees.sql")
+    void streamEmployeesShouldReturnOneEmployeePerLine() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        File file = new File("src/test/resources/expected_employees_in_db.json");
+        ArrayList<LinkedHashMap> employeeList = objectMapper.readValue(file, new TypeReference<>(){});
+
+        var respEntity = testRestTemplate.getForEntity("/api/v1/employees/stream", String.class);
+
+        Assertions.assertThat(respEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        var lines = respEntity.getBody().lines().toList();
+        Assertions.assertThat(lines.size()).isEqualTo(3);
+        for (int i = 0; i < lines.size(); i++) {
+            Assertions.assertThat(objectMapper.readValue(lines.get(i), LinkedHashMap.class)).isEqualTo(employeeList.get(i));
+        }
+    }
+
     @Test
     @Sql("/new-test-employees.sql")
     void getEmployeeByIdShouldReturnSpecificEmployeeFromDB() throws IOException {
@@ -138,6 +348,82 @@ class EmployeeControllerTest {
         Assertions.assertThat(respEntity.getBody().size()).isEqualTo(2);
     }
 
+    @Test
+    @Sql("/new-test-employees.sql")
+    void shouldBulkDeleteEmployeesByIdsAndAddDeletedEvents() {
+        var ids = List.of(
+                UUID.fromString("190c59cf-e8f9-4e98-94b3-2cc44555450a"),
+                UUID.fromString("190c59cd-e8f9-4e98-94b3-2cc44555450a"),
+                UUID.randomUUID());
+
+        var respEntity = testRestTemplate.withBasicAuth("admin", "admin").postForEntity(
+                "/api/v1/employees/bulk-delete", new EmployeeBulkDeleteRequest(ids, null), BulkChangeReport.class);
+
+        Assertions.assertThat(respEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(respEntity.getBody().affected()).isEqualTo(2);
+        Assertions.assertThat(employeeRepository.findAll()).extracting(Employee::getId)
+                .containsExactly(UUID.fromString("190c59cf-a8f0-4e98-94b3-2cc44555450a"));
+        Assertions.assertThat(outboxEventRepository.findAll())
+                .filteredOn(event -> event.getEvent() == EmployeeMessage.Event.DELETED)
+                .extracting(OutboxEvent::getAggregateId)
+                .contains(ids.get(0).toString(), ids.get(1).toString())
+                .doesNotContain(ids.get(2).toString());
+    }
+
+    @Test
+    @Sql("/new-test-employees.sql")
+    void shouldBulkUpdateHobbiesOfEmployeesMatchingFilter() {
+        var filter = new EmployeeSearchCriteria(null, null, null, LocalDate.parse("1975-01-01"));
+
+        var respEntity = testRestTemplate.withBasicAuth("admin", "admin").postForEntity(
+                "/api/v1/employees/bulk-update",
+                new EmployeeBulkUpdateRequest(null, filter, null, List.of("Chess", "Go")),
+                BulkChangeReport.class);
+
+        Assertions.assertThat(respEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Assertions.assertThat(respEntity.getBody().affected()).isEqualTo(2);
+        // Read from the repository, GET by id would leave the employees cached for the next tests
+        var employees = employeeRepository.findAllWithHobbiesByIdInOrderById(List.of(
+                UUID.fromString("190c59cd-e8f9-4e98-94b3-2cc44555450a"),
+                UUID.fromString("190c59cf-e8f9-4e98-94b3-2cc44555450a")));
+        Assertions.assertThat(employees.get(0).getHobbies()).containsExactly("Chess", "Go");
+        Assertions.assertThat(employees.get(0).getVersion()).isEqualTo(1);
+        Assertions.assertThat(employees.get(1).getHobbies()).containsExactly("hobi neki tamo novi");
+        Assertions.assertThat(employees.get(1).getVersion()).isEqualTo(0);
+    }
 
+    @Test
+    void bulkDeleteWithoutIdsOrFilterShouldReturnBadRequest() {
+        var respEntity = testRestTemplate.withBasicAuth("admin", "admin").postForEntity(
+                "/api/v1/employees/bulk-delete", new EmployeeBulkDeleteRequest(List.of(), null), String.class);
+
+        Assertions.assertThat(respEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void stateSnapshotShouldReturnBadRequestWhenStateTopicIsNotEnabled() {
+        var respEntity = testRestTemplate.withBasicAuth("admin", "admin").postForEntity(
+                "/api/v1/employees/state-snapshot", null, String.class);
+
+        Assertions.assertThat(respEntity.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    @Sql("/new-test-employees.sql")
+    void bulkDeleteAndUpdateShouldBeForbiddenForNonAdminUser() {
+        var headers = new HttpHeaders();
+        headers.setBearerAuth(tokenService.issueToken(
+                new TestingAuthenticationToken("user", null, "ROLE_USER")).accessToken());
+        var filter = new EmployeeSearchCriteria(null, "gmail.com", null, null);
+
+        var deleteResponse = testRestTemplate.postForEntity("/api/v1/employees/bulk-delete",
+                new HttpEntity<>(new EmployeeBulkDeleteRequest(null, filter), headers), String.class);
+        var updateResponse = testRestTemplate.postForEntity("/api/v1/employees/bulk-update",
+                new HttpEntity<>(new EmployeeBulkUpdateRequest(null, filter, null, List.of("Hacked")), headers), String.class);
+
+        Assertions.assertThat(deleteResponse.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        Assertions.assertThat(updateResponse.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        Assertions.assertThat(employeeRepository.count()).isEqualTo(3);
+    }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,249 @@
+package com.jogyco.takeaway.controller;
+
+import com.jogyco.takeaway.model.Employee;
+import com.jogyco.takeaway.service.TokenService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+// Own H2 database, the servlet tests keep their contexts (and testdb) alive at the same time
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactivedb",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactivedb",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password="
+})
+@ActiveProfiles({"test", "reactive"})
+class ReactiveEmployeeControllerTest {
+
+    @Autowired
+    WebTestClient webTestClient;
+
+    @Autowired
+    DatabaseClient databaseClient;
+
+    @Autowired
+    TokenService tokenService;
+
+    @AfterEach
+    void cleanUp() {
+        databaseClient.sql("DELETE FROM employee_hobby").then()
+                .then(databaseClient.sql("DELETE FROM employee").then())
+                .then(databaseClient.sql("DELETE FROM employee_outbox").then())
+                .block();
+    }
+
+    @Test
+    void shouldNotAllowToCreateNewUserForUnauthorizedRequest() {
+        webTestClient.post().uri("/api/v1/employees")
+                .bodyValue(anEmployeeRequest("unauthorized@gogle.com"))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void shouldNotAllowNonAdminUserToPatchEmployee() {
+        var userToken = tokenService.issueToken(new TestingAuthenticationToken("user", null, "ROLE_USER")).accessToken();
+
+        webTestClient.patch().uri("/api/v1/employees/{id}", UUID.randomUUID())
+                .headers(headers -> headers.setBearerAuth(userToken))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"hobbies\": [\"Hacked\"]}")
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    void createEmployeeShouldAddMessageToOutbox() {
+        webTestClient.post().uri("/api/v1/employees")
+                .headers(headers -> headers.setBasicAuth("admin", "admin"))
+                .bodyValue(anEmployeeRequest("reactive@gogle.com"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Employee is created!");
+
+        Assertions.assertThat(count("employee")).isEqualTo(1);
+        Assertions.assertThat(count("employee_hobby")).isEqualTo(2);
+        Assertions.assertThat(count("employee_outbox")).isEqualTo(1);
+    }
+
+    @Test
+    void createEmployeeShouldRejectTakenEmail() {
+        createEmployee("taken@gogle.com");
+
+        webTestClient.post().uri("/api/v1/employees")
+                .headers(headers -> headers.setBasicAuth("admin", "admin"))
+                .bodyValue(anEmployeeRequest("taken@gogle.com"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("taken@gogle.com is taken!");
+    }
+
+    @Test
+    void shouldCreateEmployeeWithIssuedToken() {
+        var token = webTestClient.post().uri("/api/v1/auth/token")
+                .headers(headers -> headers.setBasicAuth("admin", "admin"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TokenResponse.class)
+                .returnResult().getResponseBody();
+
+        webTestClient.post().uri("/api/v1/employees")
+                .headers(headers -> headers.setBearerAuth(token.accessToken()))
+                .bodyValue(anEmployeeRequest("bearer@gogle.com"))
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void getEmployeeByIdShouldReturnNotModifiedForSameETag() {
+        var id = createEmployee("etag@gogle.com");
+
+        var eTag = webTestClient.get().uri("/api/v1/employees/{id}", id)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody()
+                .jsonPath("$.email").isEqualTo("etag@gogle.com")
+                .jsonPath("$.hobbies").value(hobbies -> Assertions.assertThat(hobbies).isEqualTo(List.of("Test Hobby", "Other Hobby")))
+                .returnResult().getResponseHeaders().getETag();
+
+        webTestClient.get().uri("/api/v1/employees/{id}", id)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void getEmployeeByIdShouldReturnNotFoundForUnknownId() {
+        var id = UUID.randomUUID();
+
+        webTestClient.get().uri("/api/v1/employees/{id}", id)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody(String.class).isEqualTo("Employee with id : [%s] not found!".formatted(id));
+    }
+
+    @Test
+    void getAllEmployeesShouldReturnPagesOrderedById() {
+        var ids = List.of(createEmployee("first@gogle.com"), createEmployee("second@gogle.com"),
+                createEmployee("third@gogle.com"));
+
+        var firstPage = webTestClient.get().uri("/api/v1/employees?size=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Employee.class).hasSize(2)
+                .returnResult();
+        var cursor = firstPage.getResponseHeaders().getFirst(EmployeeController.NEXT_CURSOR_HEADER);
+
+        webTestClient.get().uri("/api/v1/employees?size=2&cursor={cursor}", cursor)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(EmployeeController.NEXT_CURSOR_HEADER)
+                .expectBodyList(Employee.class).hasSize(1);
+
+        Assertions.assertThat(firstPage.getResponseBody()).extracting(Employee::getId)
+                .containsExactlyElementsOf(ids.stream().sorted().limit(2).toList());
+    }
+
+    @Test
+    void streamAllEmployeesShouldReturnNdjson() {
+        createEmployee("stream1@gogle.com");
+        createEmployee("stream2@gogle.com");
+
+        var body = webTestClient.get().uri("/api/v1/employees/stream")
+                .accept(MediaType.parseMediaType(EmployeeController.APPLICATION_NDJSON_VALUE))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        Assertions.assertThat(body.lines()).hasSize(2)
+                .allSatisfy(line -> Assertions.assertThat(line).contains("\"hobbies\":[\"Test Hobby\",\"Other Hobby\"]"));
+    }
+
+    @Test
+    void updateEmployeeShouldCheckIfMatchAndReturnNewETag() {
+        var id = createEmployee("update@gogle.com");
+        var update = new EmployeeUpdateRequest(id, "Updated", "Employee", "updated@gogle.com",
+                LocalDate.parse("1990-01-01"), List.of("New Hobby"));
+
+        webTestClient.put().uri("/api/v1/employees")
+                .headers(headers -> headers.setBasicAuth("admin", "admin"))
+                .header(HttpHeaders.IF_MATCH, "\"7\"")
+                .bodyValue(update)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        webTestClient.put().uri("/api/v1/employees")
+                .headers(headers -> headers.setBasicAuth("admin", "admin"))
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(update)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectBody()
+                .jsonPath("$.fullName").isEqualTo("Updated Employee")
+                .jsonPath("$.hobbies").value(hobbies -> Assertions.assertThat(hobbies).isEqualTo(List.of("New Hobby")));
+
+        Assertions.assertThat(count("employee_hobby")).isEqualTo(1);
+        Assertions.assertThat(count("employee_outbox")).isEqualTo(2);
+    }
+
+    @Test
+    void deleteEmployeeShouldRemoveItWithHobbies() {
+        var id = createEmployee("delete@gogle.com");
+
+        webTestClient.delete().uri("/api/v1/employees/{id}", id)
+                .headers(headers -> headers.setBasicAuth("admin", "admin"))
+                .exchange()
+                .expectStatus().isOk();
+
+        Assertions.assertThat(count("employee")).isZero();
+        Assertions.assertThat(count("employee_hobby")).isZero();
+        Assertions.assertThat(count("employee_outbox")).isEqualTo(2);
+    }
+
+    private UUID createEmployee(String email) {
+        webTestClient.post().uri("/api/v1/employees")
+                .headers(headers -> headers.setBasicAuth("admin", "admin"))
+                .bodyValue(anEmployeeRequest(email))
+                .exchange()
+                .expectStatus().isOk();
+        return databaseClient.sql("SELECT id FROM employee WHERE email = :email")
+                .bind("email", email)
+                .map(row -> row.get("id", UUID.class))
+                .one()
+                .block();
+    }
+
+    private long count(String table) {
+        return databaseClient.sql("SELECT COUNT(*) FROM " + table)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .block();
+    }
+
+    private static EmployeeCreationRequest anEmployeeRequest(String email) {
+        return new EmployeeCreationRequest(
+                "Reactive",
+                "Employee",
+                email,
+                LocalDate.parse("1980-12-12"),
+                List.of("Test Hobby", "Other Hobby"));
+    }
+}
@@ -1,14 +1,26 @@
 package com.jogyco.takeaway.dao;
 
 import com.jogyco.takeaway.model.Employee;
+import com.jogyco.takeaway.model.EmployeeSummary;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
 import java.text.ParseException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
@@ -17,6 +29,9 @@ class EmployeeRepositoryTest {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     @Test
     void shouldFindEmployeeWithExistingEmail() throws ParseException {
         var employee = Employee.builder()
@@ -33,5 +48,189 @@ class EmployeeRepositoryTest {
         assertTrue(isTaken);
     }
 
+    @Test
+    void shouldNotSaveTwoEmployeesWithTheSameEmail() {
+        employeeRepository.saveAndFlush(Employee.builder()
+                .fullName("Name Lastname")
+                .email("testemail@gmail.com")
+                .birthday(LocalDate.parse("1980-12-12"))
+                .build());
+
+        var exception = assertThrows(DataIntegrityViolationException.class, () -> employeeRepository.saveAndFlush(Employee.builder()
+                .fullName("Other Name")
+                .email("testemail@gmail.com")
+                .birthday(LocalDate.parse("1990-12-12"))
+                .build()));
+
+        assertInstanceOf(ConstraintViolationException.class, exception.getCause());
+        assertTrue(exception.getMostSpecificCause().getMessage().toLowerCase().contains(Employee.EMAIL_CONSTRAINT));
+    }
+
+    @Test
+    void shouldFindOnlyTakenEmailsWithOneQuery() {
+        var employee = Employee.builder()
+                .fullName("Name Lastname")
+                .hobbies(List.of("Hobby 1", "Hobby 2"))
+                .email("testemail@gmail.com")
+                .birthday(LocalDate.parse("1980-12-12"))
+                .build();
+
+        employeeRepository.save(employee);
+
+        var takenEmails = employeeRepository.findTakenEmails(List.of("testemail@gmail.com", "freeemail@gmail.com"));
+
+        assertEquals(Set.of("testemail@gmail.com"), takenEmails);
+    }
+
+    @Test
+    void shouldGenerateTimeOrderedIds() {
+        var saved = List.of(
+                employeeRepository.save(anEmployee("first@gmail.com", List.of())),
+                employeeRepository.save(anEmployee("second@gmail.com", List.of())),
+                employeeRepository.save(anEmployee("third@gmail.com", List.of())));
+        employeeRepository.flush();
+
+        // Ids are UUIDv7, so ordering by id is the order in which employees were created
+        assertTrue(saved.stream().allMatch(employee -> employee.getId().version() == 7));
+        assertEquals(saved.stream().map(Employee::getId).toList(),
+                employeeRepository.findIdsOrderById(PageRequest.ofSize(3)));
+    }
+
+    @Test
+    void shouldFindEmployeesByHobbyPageByPage() {
+        var cyclists = List.of(
+                anEmployee("first@gmail.com", List.of("Cycling", "Chess")),
+                anEmployee("second@gmail.com", List.of("Chess", "Cycling", "Cycling")),
+                anEmployee("third@gmail.com", List.of("Cycling")));
+        employeeRepository.saveAll(cyclists);
+        employeeRepository.save(anEmployee("fourth@gmail.com", List.of("Chess")));
+        employeeRepository.flush();
+
+        var firstPage = employeeRepository.findIdsByHobbyOrderById("Cycling", PageRequest.ofSize(2));
+        var secondPage = employeeRepository.findIdsByHobbyAndIdGreaterThanOrderById(
+                "Cycling", firstPage.get(1), PageRequest.ofSize(2));
+
+        assertEquals(2, firstPage.size());
+        assertEquals(1, secondPage.size());
+        assertEquals(cyclists.stream().map(Employee::getId).collect(Collectors.toSet()),
+                Stream.concat(firstPage.stream(), secondPage.stream()).collect(Collectors.toSet()));
+        assertEquals(List.of(), employeeRepository.findIdsByHobbyOrderById("Football", PageRequest.ofSize(2)));
+    }
+
+    @Test
+    void shouldLoadPageOfEmployeesWithHobbies() {
+        var saved = employeeRepository.saveAll(List.of(
+                anEmployee("first@gmail.com", List.of("Cycling", "Chess")),
+                anEmployee("second@gmail.com", List.of())));
+        employeeRepository.flush();
+        entityManager.clear();
+
+        var employees = employeeRepository.findAllWithHobbiesByIdInOrderById(
+                saved.stream().map(Employee::getId).toList());
+
+        assertEquals(2, employees.size());
+        assertEquals(Set.of(List.of("Cycling", "Chess"), List.of()),
+                employees.stream().map(employee -> List.copyOf(employee.getHobbies())).collect(Collectors.toSet()));
+    }
+
+    @Test
+    void shouldStreamEveryEmployeeOnceWithHobbiesInOrder() {
+        employeeRepository.saveAll(List.of(
+                anEmployee("first@gmail.com", List.of("Cycling", "Chess", "Hiking")),
+                anEmployee("second@gmail.com", List.of()),
+                anEmployee("third@gmail.com", List.of("Chess"))));
+        employeeRepository.flush();
+        entityManager.clear();
+
+        try (var employees = employeeRepository.streamAllOrderedById()) {
+            var hobbiesByEmail = employees.collect(Collectors.toMap(Employee::getEmail, Employee::getHobbies));
+
+            assertEquals(3, hobbiesByEmail.size());
+            assertEquals(List.of("Cycling", "Chess", "Hiking"), hobbiesByEmail.get("first@gmail.com"));
+            assertEquals(List.of(), hobbiesByEmail.get("second@gmail.com"));
+            assertEquals(List.of("Chess"), hobbiesByEmail.get("third@gmail.com"));
+        }
+    }
+
+    @Test
+    void shouldSearchByNamePrefixEmailDomainAndBirthdayRangeSorted() {
+        employeeRepository.saveAll(List.of(
+                anEmployee("John Doe", "john.doe@Takeaway.com", "1985-03-01"),
+                anEmployee("John Smith", "john.smith@takeaway.com", "1990-07-15"),
+                anEmployee("Johnny Bravo", "johnny@takeaway.com", "2001-01-01"),
+                anEmployee("John Old", "john.old@gmail.com", "1985-05-05"),
+                anEmployee("Jane Doe", "jane@takeaway.com", "1988-08-08")));
+        employeeRepository.flush();
+
+        var criteria = new EmployeeSearchCriteria("John", "TAKEAWAY.com", LocalDate.parse("1980-01-01"), LocalDate.parse("1999-12-31"));
+        var summaries = employeeRepository.searchSummaries(criteria, PageRequest.of(0, 10, Sort.by(Sort.Order.desc("birthday"))));
+
+        assertEquals(List.of("John Smith", "John Doe"), summaries.stream().map(EmployeeSummary::fullName).toList());
+        assertEquals(summaries.stream().map(EmployeeSummary::id).toList(),
+                employeeRepository.searchIds(criteria, PageRequest.of(0, 10, Sort.by(Sort.Order.desc("birthday")))));
+        assertEquals(1, employeeRepository.searchIds(criteria, PageRequest.of(1, 1, Sort.by("birthday"))).size());
+    }
+
+    @Test
+    void shouldLockOnlyPassedEmployeesWhichStillMatchFilter() {
+        var matching = anEmployee("John Doe", "john.doe@takeaway.com", "1985-03-01");
+        var changed = anEmployee("John Smith", "john.smith@takeaway.com", "1990-07-15");
+        var notPassed = anEmployee("John Old", "john.old@takeaway.com", "1985-05-05");
+        employeeRepository.saveAll(List.of(matching, changed, notPassed));
+        employeeRepository.flush();
+        var criteria = new EmployeeSearchCriteria(null, "takeaway.com", null, null);
+        var ids = employeeRepository.searchIdsAfter(criteria, null, 10).stream()
+                .filter(id -> !id.equals(notPassed.getId()))
+                .toList();
+
+        changed.setEmail("john.smith@gmail.com");
+        employeeRepository.flush();
+
+        assertEquals(List.of(matching.getId()), employeeRepository.lockIdsMatching(criteria, ids));
+    }
+
+    @Test
+    void shouldTreatLikeWildcardsInNamePrefixAsText() {
+        employeeRepository.saveAll(List.of(
+                anEmployee("100% John", "first@gmail.com", "1985-03-01"),
+                anEmployee("100 Johns", "second@gmail.com", "1985-03-01")));
+        employeeRepository.flush();
 
-}
\ No newline at end of file
+        var summaries = employeeRepository.searchSummaries(
+                new EmployeeSearchCriteria("100%", null, null, null), PageRequest.of(0, 10, Sort.by("fullName")));
+
+        assertEquals(List.of("100% John"), summaries.stream().map(EmployeeSummary::fullName).toList());
+    }
+
+    @Test
+    void shouldFindBirthdaysByMonthDayAcrossTheEndOfTheYear() {
+        var newYear = anEmployee("New Year", "newyear@gmail.com", "1990-01-02");
+        var christmas = anEmployee("Christmas", "christmas@gmail.com", "1980-12-25");
+        var leapDay = anEmployee("Leap Day", "leapday@gmail.com", "1988-02-29");
+        employeeRepository.saveAll(List.of(newYear, christmas, leapDay,
+                anEmployee("Summer", "summer@gmail.com", "1985-07-01")));
+        employeeRepository.flush();
+
+        assertEquals(1225, christmas.getBirthdayMonthDay());
+        assertEquals(List.of(christmas.getId(), newYear.getId()),
+                employeeRepository.findIdsWithBirthdayMonthDayFromOrUntil(1220, 105));
+        assertEquals(List.of(leapDay.getId()), employeeRepository.findIdsWithBirthdayMonthDayBetween(221, 229));
+    }
+
+    private static Employee anEmployee(String fullName, String email, String birthday) {
+        return Employee.builder()
+                .fullName(fullName)
+                .email(email)
+                .birthday(LocalDate.parse(birthday))
+                .build();
+    }
+
+    private static Employee anEmployee(String email, List<String> hobbies) {
+        return Employee.builder()
+                .fullName("Name Lastname")
+                .hobbies(hobbies)
+                .email(email)
+                .birthday(LocalDate.parse("1980-12-12"))
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.jogyco.takeaway.dao;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the migrations on a real Postgres, starting from the schema which ddl-auto: update created before Flyway.
+ */
+class FlywayMigrationTest {
+
+    private EmbeddedPostgres postgres;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        postgres = EmbeddedPostgres.start();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void shouldMigrateEmptyDatabase() {
+        migrate();
+
+        assertThat(constraintExists("uk_employee_email")).isTrue();
+    }
+
+    @Test
+    void shouldAddEmailConstraintAndMoveHobbiesOfBaselineSchema() {
+        createBaselineSchema();
+        jdbcTemplate.update("INSERT INTO employee (id, full_name, email, birthday, hobbies) VALUES " +
+                "('190c59cf-a8f0-4e98-94b3-2cc44555450a', 'Test Employee', 'test@email.com', '1980-02-29', ARRAY['Cycling', 'Chess'])");
+
+        migrate();
+
+        assertThat(constraintExists("uk_employee_email")).isTrue();
+        assertThat(jdbcTemplate.queryForList("SELECT hobby FROM employee_hobby ORDER BY position", String.class))
+                .containsExactly("Cycling", "Chess");
+        assertThat(jdbcTemplate.queryForObject("SELECT email_domain FROM employee", String.class)).isEqualTo("email.com");
+        assertThatThrownBy(() -> jdbcTemplate.update("INSERT INTO employee (id, email) VALUES " +
+                "('290c59cf-a8f0-4e98-94b3-2cc44555450a', 'test@email.com')"))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void shouldFailOnDuplicateEmailsOfBaselineSchema() {
+        createBaselineSchema();
+        jdbcTemplate.update("INSERT INTO employee (id, email) VALUES " +
+                "('190c59cf-a8f0-4e98-94b3-2cc44555450a', 'test@email.com'), " +
+                "('290c59cf-a8f0-4e98-94b3-2cc44555450a', 'test@email.com')");
+
+        assertThatThrownBy(this::migrate)
+                .isInstanceOf(FlywayException.class)
+                .hasMessageContaining("test@email.com");
+        assertThat(constraintExists("uk_employee_email")).isFalse();
+    }
+
+    // Tables as ddl-auto: update created them from the first version of the entity
+    private void createBaselineSchema() {
+        jdbcTemplate.execute("CREATE TABLE employee (id UUID NOT NULL, full_name VARCHAR(255), email VARCHAR(255), " +
+                "birthday DATE, hobbies VARCHAR(255) ARRAY, PRIMARY KEY (id))");
+    }
+
+    // Same settings as spring.flyway in application.yml
+    private void migrate() {
+        Flyway.configure()
+                .dataSource(postgres.getPostgresDatabase())
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load()
+                .migrate();
+    }
+
+    private boolean constraintExists(String name) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = ?)", Boolean.class, name));
+    }
+}
@@ -0,0 +1,84 @@
+package com.jogyco.takeaway.dao;
+
+import com.jogyco.takeaway.config.idempotency.IdempotencyProperties;
+import com.jogyco.takeaway.model.IdempotencyRecord;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+class JpaIdempotencyStoreTest {
+
+    @Autowired
+    private IdempotencyRecordRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JpaIdempotencyStore store;
+
+    private final String key = "admin:createEmployee:" + UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        var properties = new IdempotencyProperties();
+        properties.setTimeToLive(Duration.ofHours(1));
+        store = new JpaIdempotencyStore(repository, entityManager, transactionManager, properties);
+    }
+
+    @Test
+    void shouldReturnEarlierRecordForClaimedKey() {
+        assertTrue(store.claim(aRecord("first", Instant.now())).isEmpty());
+
+        var earlier = store.claim(aRecord("second", Instant.now()));
+
+        assertTrue(earlier.isPresent());
+        assertEquals("first", earlier.get().getFingerprint());
+        assertTrue(earlier.get().isInProgress());
+    }
+
+    @Test
+    void shouldReturnStoredResponseOfCompletedRequest() {
+        store.claim(aRecord("first", Instant.now()));
+        store.complete(aRecord("first", Instant.now()).toBuilder().status(200).contentType("text/plain").body("Done").eTag("\"2\"").build());
+
+        var earlier = store.claim(aRecord("first", Instant.now()));
+
+        assertTrue(earlier.isPresent());
+        assertEquals(200, earlier.get().getStatus());
+        assertEquals("Done", earlier.get().getBody());
+        assertEquals("\"2\"", earlier.get().getETag());
+    }
+
+    @Test
+    void shouldClaimKeyAgainAfterReleaseOrExpiry() {
+        store.claim(aRecord("first", Instant.now()));
+        store.release(key);
+        assertTrue(store.claim(aRecord("second", Instant.now().minus(Duration.ofHours(2)))).isEmpty());
+
+        // The second record is older than the time to live
+        assertTrue(store.claim(aRecord("third", Instant.now())).isEmpty());
+        assertEquals("third", repository.findById(key).orElseThrow().getFingerprint());
+    }
+
+    private IdempotencyRecord aRecord(String fingerprint, Instant createdAt) {
+        return IdempotencyRecord.builder()
+                .key(key)
+                .fingerprint(fingerprint)
+                .createdAt(createdAt)
+                .build();
+    }
+}
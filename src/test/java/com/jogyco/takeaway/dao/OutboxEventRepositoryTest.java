@@ -0,0 +1,73 @@
+package com.jogyco.takeaway.dao;
+
+import com.jogyco.takeaway.kafka.EmployeeMessage;
+import com.jogyco.takeaway.model.OutboxEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class OutboxEventRepositoryTest {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldReturnOldestEventsFirst() {
+        var first = outboxEventRepository.save(anOutboxEvent("1", EmployeeMessage.Event.CREATED));
+        var second = outboxEventRepository.save(anOutboxEvent("1", EmployeeMessage.Event.UPDATED));
+        outboxEventRepository.save(anOutboxEvent("2", EmployeeMessage.Event.CREATED));
+
+        var batch = outboxEventRepository.findNextBatch(PageRequest.ofSize(2));
+
+        assertEquals(2, batch.size());
+        assertEquals(first.getId(), batch.get(0).getId());
+        assertEquals(second.getId(), batch.get(1).getId());
+    }
+
+    @Test
+    void shouldReturnEventsInOrderOfWritesWhenInstancesInterleave() {
+        // This instance writes UPDATED, another instance writes DELETED afterwards, and then this one CREATED for
+        // another employee. Ids cached in blocks per instance would put DELETED last, behind the later write
+        outboxEventRepository.saveAndFlush(anOutboxEvent("1", EmployeeMessage.Event.UPDATED));
+        jdbcTemplate.update("INSERT INTO employee_outbox (id, aggregate_id, event, payload, created_at) " +
+                "VALUES (nextval('employee_outbox_seq'), '1', 'DELETED', '{}', CURRENT_TIMESTAMP)");
+        outboxEventRepository.saveAndFlush(anOutboxEvent("2", EmployeeMessage.Event.CREATED));
+
+        var batch = outboxEventRepository.findNextBatch(PageRequest.ofSize(3));
+
+        assertThat(batch).extracting(OutboxEvent::getEvent).containsExactly(
+                EmployeeMessage.Event.UPDATED, EmployeeMessage.Event.DELETED, EmployeeMessage.Event.CREATED);
+    }
+
+    @Test
+    void shouldSkipFailedEvents() {
+        var failed = anOutboxEvent("1", EmployeeMessage.Event.CREATED);
+        failed.setFailedAt(Instant.now());
+        outboxEventRepository.save(failed);
+        var next = outboxEventRepository.save(anOutboxEvent("1", EmployeeMessage.Event.UPDATED));
+
+        var batch = outboxEventRepository.findNextBatch(PageRequest.ofSize(2));
+
+        assertThat(batch).extracting(OutboxEvent::getId).containsExactly(next.getId());
+    }
+
+    private OutboxEvent anOutboxEvent(String employeeId, EmployeeMessage.Event event) {
+        return OutboxEvent.builder()
+                .aggregateId(employeeId)
+                .event(event)
+                .payload("{}")
+                .createdAt(Instant.now())
+                .build();
+    }
+}
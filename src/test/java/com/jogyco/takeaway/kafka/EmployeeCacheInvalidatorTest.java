@@ -0,0 +1,53 @@
+package com.jogyco.takeaway.kafka;
+
+import com.jogyco.takeaway.config.cache.CacheConfig;
+import com.jogyco.takeaway.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmployeeCacheInvalidatorTest {
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(CacheConfig.EMPLOYEES_CACHE);
+
+    private final EmployeeCacheInvalidator underTest = new EmployeeCacheInvalidator(cacheManager);
+
+    private final UUID employeeId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).put(employeeId, Employee.builder().id(employeeId).build());
+    }
+
+    @Test
+    void shouldEvictUpdatedEmployee() {
+        underTest.onEmployeeMessage(anEmployeeMessage(EmployeeMessage.Event.UPDATED));
+
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).get(employeeId)).isNull();
+    }
+
+    @Test
+    void shouldEvictDeletedEmployee() {
+        underTest.onEmployeeMessage(anEmployeeMessage(EmployeeMessage.Event.DELETED));
+
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).get(employeeId)).isNull();
+    }
+
+    @Test
+    void shouldKeepEmployeeOnCreatedEvent() {
+        underTest.onEmployeeMessage(anEmployeeMessage(EmployeeMessage.Event.CREATED));
+
+        assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).get(employeeId)).isNotNull();
+    }
+
+    private EmployeeMessage anEmployeeMessage(EmployeeMessage.Event event) {
+        return EmployeeMessage.builder()
+                .id(employeeId.toString())
+                .event(event)
+                .build();
+    }
+}
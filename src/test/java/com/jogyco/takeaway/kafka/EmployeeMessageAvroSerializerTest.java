@@ -0,0 +1,54 @@
+package com.jogyco.takeaway.kafka;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmployeeMessageAvroSerializerTest {
+
+    private final EmployeeMessageAvroSerializer serializer = new EmployeeMessageAvroSerializer();
+
+    private final EmployeeMessageAvroDeserializer deserializer = new EmployeeMessageAvroDeserializer();
+
+    @Test
+    void shouldReadWrittenMessage() {
+        var employeeMessage = EmployeeMessage.builder()
+                .id(UUID.randomUUID().toString())
+                .employeeName("John Doe")
+                .email("john.doe@gmail.com")
+                .birthday(LocalDate.of(1990, 5, 17))
+                .hobbies(List.of("Football", "Chess"))
+                .event(EmployeeMessage.Event.UPDATED)
+                .build();
+
+        var bytes = serializer.serialize("takeaway", employeeMessage);
+
+        assertThat(deserializer.deserialize("takeaway", bytes)).isEqualTo(employeeMessage);
+        assertThat(bytes.length).isLessThan(new JsonSerializer<EmployeeMessage>().serialize("takeaway", employeeMessage).length);
+    }
+
+    @Test
+    void shouldReadMessageWithoutOptionalFields() {
+        var employeeMessage = EmployeeMessage.builder()
+                .id(UUID.randomUUID().toString())
+                .event(EmployeeMessage.Event.DELETED)
+                .build();
+
+        var bytes = serializer.serialize("takeaway", employeeMessage);
+
+        assertThat(deserializer.deserialize("takeaway", bytes)).isEqualTo(employeeMessage);
+    }
+
+    @Test
+    void shouldFailOnCorruptedRecord() {
+        assertThatThrownBy(() -> deserializer.deserialize("takeaway", new byte[]{(byte) 0xFF, 0x01}))
+                .isInstanceOf(SerializationException.class);
+    }
+}
@@ -0,0 +1,77 @@
+package com.jogyco.takeaway.kafka;
+
+import com.jogyco.takeaway.model.EmployeeIdGenerator;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmployeePartitionerTest {
+
+    private static final int KEYS = 100_000;
+
+    private final EmployeePartitioner partitioner = new EmployeePartitioner();
+
+    private final List<byte[]> keys = IntStream.range(0, KEYS)
+            .mapToObj(i -> EmployeeIdGenerator.timeOrdered().toString().getBytes(StandardCharsets.UTF_8))
+            .toList();
+
+    @Test
+    void shouldPutAllEventsOfEmployeeIntoSamePartition() {
+        var cluster = aCluster("takeaway", 12);
+        var key = keys.get(0);
+
+        var partition = partitioner.partition("takeaway", "id", key, null, null, cluster);
+
+        assertThat(IntStream.range(0, 100).map(i -> partitioner.partition("takeaway", "id", key, null, null, cluster)))
+                .containsOnly(partition);
+    }
+
+    @Test
+    void shouldSpreadTimeOrderedIdsEvenlyOverPartitions() {
+        int partitions = 12;
+        var counts = new int[partitions];
+        keys.forEach(key -> counts[EmployeePartitioner.partition(key, partitions)]++);
+
+        // Within 5% of an even share
+        assertThat(IntStream.of(counts))
+                .allSatisfy(count -> assertThat(count).isBetween(KEYS / partitions * 95 / 100, KEYS / partitions * 105 / 100));
+    }
+
+    @Test
+    void shouldMoveOnlyKeysOfNewPartitionsWhenPartitionsAreAdded() {
+        long moved = keys.stream()
+                .filter(key -> EmployeePartitioner.partition(key, 12) != EmployeePartitioner.partition(key, 16))
+                .count();
+        long movedToNew = keys.stream()
+                .filter(key -> EmployeePartitioner.partition(key, 16) >= 12)
+                .count();
+
+        // A quarter of the keys belong to the 4 new partitions, and only those move
+        assertThat(moved).isEqualTo(movedToNew);
+        assertThat((double) moved / KEYS).isBetween(0.23, 0.27);
+    }
+
+    @Test
+    void shouldReturnExistingPartitionForRecordWithoutKey() {
+        var cluster = aCluster("takeaway", 3);
+
+        assertThat(IntStream.range(0, 100).map(i -> partitioner.partition("takeaway", null, null, null, null, cluster)))
+                .allSatisfy(partition -> assertThat(partition).isBetween(0, 2));
+    }
+
+    private static Cluster aCluster(String topic, int partitions) {
+        var node = new Node(0, "localhost", 9092);
+        var partitionInfos = IntStream.range(0, partitions)
+                .mapToObj(partition -> new PartitionInfo(topic, partition, node, new Node[]{node}, new Node[]{node}))
+                .toList();
+        return new Cluster("cluster", List.of(node), partitionInfos, Set.of(), Set.of());
+    }
+}
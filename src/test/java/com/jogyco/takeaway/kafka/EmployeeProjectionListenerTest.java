@@ -0,0 +1,113 @@
+package com.jogyco.takeaway.kafka;
+
+import com.jogyco.takeaway.dao.EmployeeProjection;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeProjectionListenerTest {
+
+    private static final String TOPIC = "takeaway";
+
+    @Mock
+    private Consumer<String, EmployeeMessage> consumer;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final EmployeeProjection employeeProjection = new EmployeeProjection(meterRegistry);
+
+    private final EmployeeProjectionListener underTest = new EmployeeProjectionListener(employeeProjection, meterRegistry);
+
+    private final UUID employeeId = UUID.randomUUID();
+
+    @Test
+    void shouldApplyEventsOfBatchInOrder() {
+        when(consumer.currentLag(new TopicPartition(TOPIC, 0))).thenReturn(OptionalLong.of(0));
+
+        underTest.onEmployeeMessages(List.of(
+                aRecord(0, 0, anEmployeeMessage(EmployeeMessage.Event.CREATED, "first@gmail.com")),
+                aRecord(0, 1, anEmployeeMessage(EmployeeMessage.Event.UPDATED, "second@gmail.com"))), consumer);
+
+        assertThat(employeeProjection.find(employeeId)).hasValueSatisfying(employee -> {
+            assertThat(employee.getEmail()).isEqualTo("second@gmail.com");
+            assertThat(employee.getFullName()).isEqualTo("John Doe");
+            assertThat(employee.getHobbies()).containsExactly("Chess");
+        });
+        assertThat(meterRegistry.get("employee.projection.events").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("employee.projection.size").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldApplyOnlyChangedFieldsOfPatchedEvent() {
+        when(consumer.currentLag(new TopicPartition(TOPIC, 0))).thenReturn(OptionalLong.of(0));
+
+        underTest.onEmployeeMessages(List.of(
+                aRecord(0, 0, anEmployeeMessage(EmployeeMessage.Event.CREATED, "first@gmail.com")),
+                aRecord(0, 1, EmployeeMessage.builder()
+                        .id(employeeId.toString())
+                        .hobbies(List.of("Go"))
+                        .event(EmployeeMessage.Event.PATCHED)
+                        .build())), consumer);
+
+        assertThat(employeeProjection.find(employeeId)).hasValueSatisfying(employee -> {
+            assertThat(employee.getEmail()).isEqualTo("first@gmail.com");
+            assertThat(employee.getFullName()).isEqualTo("John Doe");
+            assertThat(employee.getHobbies()).containsExactly("Go");
+        });
+    }
+
+    @Test
+    void shouldRemoveDeletedEmployeeAndSkipUndeserializableEvents() {
+        when(consumer.currentLag(new TopicPartition(TOPIC, 0))).thenReturn(OptionalLong.of(0));
+
+        underTest.onEmployeeMessages(List.of(
+                aRecord(0, 0, anEmployeeMessage(EmployeeMessage.Event.CREATED, "first@gmail.com")),
+                aRecord(0, 1, null),
+                aRecord(0, 2, anEmployeeMessage(EmployeeMessage.Event.DELETED, "first@gmail.com"))), consumer);
+
+        assertThat(employeeProjection.find(employeeId)).isEmpty();
+        assertThat(meterRegistry.get("employee.projection.events").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRecordLagOfEveryConsumedPartition() {
+        when(consumer.currentLag(new TopicPartition(TOPIC, 0))).thenReturn(OptionalLong.of(5));
+        when(consumer.currentLag(new TopicPartition(TOPIC, 1))).thenReturn(OptionalLong.of(7));
+
+        underTest.onEmployeeMessages(List.of(
+                aRecord(0, 10, anEmployeeMessage(EmployeeMessage.Event.CREATED, "first@gmail.com")),
+                aRecord(1, 20, anEmployeeMessage(EmployeeMessage.Event.UPDATED, "first@gmail.com"))), consumer);
+
+        assertThat(meterRegistry.get("employee.projection.lag").gauge().value()).isEqualTo(12);
+    }
+
+    private static ConsumerRecord<String, EmployeeMessage> aRecord(int partition, long offset, EmployeeMessage value) {
+        return new ConsumerRecord<>(TOPIC, partition, offset, value == null ? null : value.getId(), value);
+    }
+
+    private EmployeeMessage anEmployeeMessage(EmployeeMessage.Event event, String email) {
+        return EmployeeMessage.builder()
+                .id(employeeId.toString())
+                .employeeName("John Doe")
+                .email(email)
+                .birthday(LocalDate.parse("1990-01-01"))
+                .hobbies(List.of("Chess"))
+                .event(event)
+                .build();
+    }
+}
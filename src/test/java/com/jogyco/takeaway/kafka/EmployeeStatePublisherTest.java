@@ -0,0 +1,81 @@
+package com.jogyco.takeaway.kafka;
+
+import com.jogyco.takeaway.config.kafka.EmployeeStateTopicProperties;
+import com.jogyco.takeaway.dao.EmployeeRepository;
+import com.jogyco.takeaway.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeStatePublisherTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private KafkaProducer kafkaProducer;
+
+    private EmployeeStatePublisher statePublisher;
+
+    @BeforeEach
+    void setUp() {
+        var properties = new EmployeeStateTopicProperties();
+        properties.setName("takeaway-state");
+        statePublisher = new EmployeeStatePublisher(employeeRepository, kafkaProducer, properties);
+    }
+
+    @Test
+    void shouldPublishFullStateOfExistingEmployeesAndTombstonesOfDeletedOnes() {
+        var existing = anEmployee();
+        var deletedId = UUID.randomUUID();
+        when(employeeRepository.findAllWithHobbiesByIdInOrderById(any())).thenReturn(List.of(existing));
+        var existingResult = CompletableFuture.<SendResult<String, EmployeeMessage>>completedFuture(null);
+        var deletedResult = CompletableFuture.<SendResult<String, EmployeeMessage>>completedFuture(null);
+        when(kafkaProducer.sendAllStates(eq("takeaway-state"), any())).thenReturn(List.of(existingResult, deletedResult));
+
+        var results = statePublisher.publish(List.of(existing.getId(), deletedId));
+
+        // Employees are locked before they are read, so a change of them waits until the states are acknowledged
+        var inOrder = inOrder(employeeRepository, kafkaProducer);
+        inOrder.verify(employeeRepository).shareLockIdsByIdIn(List.of(existing.getId(), deletedId));
+        inOrder.verify(employeeRepository).findAllWithHobbiesByIdInOrderById(List.of(existing.getId(), deletedId));
+
+        ArgumentCaptor<Map<String, EmployeeMessage>> states = ArgumentCaptor.forClass(Map.class);
+        inOrder.verify(kafkaProducer).sendAllStates(eq("takeaway-state"), states.capture());
+        assertThat(states.getValue()).containsOnlyKeys(existing.getId().toString(), deletedId.toString());
+        assertThat(states.getValue().get(existing.getId().toString())).satisfies(state -> {
+            assertThat(state.getEmployeeName()).isEqualTo("Test Employee");
+            assertThat(state.getHobbies()).containsExactly("Test Hobby");
+            assertThat(state.getEvent()).isEqualTo(EmployeeMessage.Event.UPDATED);
+        });
+        assertThat(states.getValue().get(deletedId.toString())).isNull();
+        assertThat(results).containsEntry(existing.getId().toString(), existingResult)
+                .containsEntry(deletedId.toString(), deletedResult);
+    }
+
+    private static Employee anEmployee() {
+        return Employee.builder()
+                .id(UUID.randomUUID())
+                .fullName("Test Employee")
+                .email("testemployee@email.com")
+                .birthday(LocalDate.parse("1980-12-12"))
+                .hobbies(List.of("Test Hobby"))
+                .build();
+    }
+}
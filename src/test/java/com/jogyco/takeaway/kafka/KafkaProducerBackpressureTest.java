@@ -0,0 +1,118 @@
+package com.jogyco.takeaway.kafka;
+
+import com.jogyco.takeaway.config.kafka.KafkaProducerProperties;
+import com.jogyco.takeaway.config.tracing.TracePropagation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaProducerBackpressureTest {
+
+    @Mock
+    private KafkaTemplate<String, EmployeeMessage> kafkaTemplate;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private KafkaProducer kafkaProducer;
+
+    @BeforeEach
+    void setUp() {
+        var properties = new KafkaProducerProperties();
+        properties.setMaxInFlight(1);
+        properties.setMaxBlock(Duration.ofMillis(10));
+        kafkaProducer = new KafkaProducer(kafkaTemplate, properties, meterRegistry, Runnable::run, TracePropagation.NOOP);
+    }
+
+    @Test
+    void shouldRejectMessageWhenTooManyAreInFlight() {
+        CompletableFuture<SendResult<String, EmployeeMessage>> pending = new CompletableFuture<>();
+        when(kafkaTemplate.send(any(), any(), any())).thenReturn(pending);
+
+        kafkaProducer.send(anEmployeeMessage());
+
+        assertThat(inFlight()).isEqualTo(1);
+        assertThatThrownBy(() -> kafkaProducer.send(anEmployeeMessage()))
+                .isInstanceOf(KafkaException.class)
+                .hasMessageContaining("Too many messages in flight");
+        assertThat(meterRegistry.get("employee.kafka.send.rejected").counter().count()).isEqualTo(1);
+        verify(kafkaTemplate, times(1)).send(any(), any(), any());
+
+        // Acknowledged message frees the slot
+        pending.complete(aSendResult());
+        assertThat(inFlight()).isZero();
+        kafkaProducer.send(anEmployeeMessage());
+        verify(kafkaTemplate, times(2)).send(any(), any(), any());
+    }
+
+    @Test
+    void shouldRecordSendLatencyByOutcome() {
+        when(kafkaTemplate.send(any(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(aSendResult()))
+                .thenReturn(CompletableFuture.failedFuture(new KafkaException("Broker is down")));
+
+        var sent = kafkaProducer.send(anEmployeeMessage());
+        var failed = kafkaProducer.send(anEmployeeMessage());
+
+        assertThat(sent).isCompleted();
+        assertThat(failed).isCompletedExceptionally();
+        assertThat(meterRegistry.get("employee.kafka.send").tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("employee.kafka.send").tag("outcome", "failure").timer().count()).isEqualTo(1);
+        assertThat(inFlight()).isZero();
+    }
+
+    @Test
+    void shouldFailRemainingMessagesOfBatchAfterRejection() {
+        when(kafkaTemplate.send(any(), any(), any())).thenReturn(new CompletableFuture<>());
+
+        var futures = kafkaProducer.sendAll(List.of(anEmployeeMessage(), anEmployeeMessage(), anEmployeeMessage()));
+
+        assertThat(futures.get(0)).isNotDone();
+        assertThat(futures.get(1)).isCompletedExceptionally();
+        assertThat(futures.get(2)).isCompletedExceptionally();
+        // Rejection happens once, the rest are failed without waiting for a free slot again
+        assertThat(meterRegistry.get("employee.kafka.send.rejected").counter().count()).isEqualTo(1);
+        verify(kafkaTemplate).flush();
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("employee.kafka.send.in-flight").gauge().value();
+    }
+
+    private static EmployeeMessage anEmployeeMessage() {
+        return EmployeeMessage.builder()
+                .id(UUID.randomUUID().toString())
+                .email("john.doe@gmail.com")
+                .employeeName("John Doe")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .hobbies(List.of("Football"))
+                .event(EmployeeMessage.Event.CREATED)
+                .build();
+    }
+
+    private static SendResult<String, EmployeeMessage> aSendResult() {
+        var metadata = new RecordMetadata(new TopicPartition("takeaway", 0), 0, 0, 0, 0, 0);
+        return new SendResult<>(new ProducerRecord<>("takeaway", anEmployeeMessage()), metadata);
+    }
+}
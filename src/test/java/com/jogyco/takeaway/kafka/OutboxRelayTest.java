@@ -0,0 +1,241 @@
+package com.jogyco.takeaway.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jogyco.takeaway.config.outbox.OutboxProperties;
+import com.jogyco.takeaway.dao.OutboxEventRepository;
+import com.jogyco.takeaway.model.OutboxEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private KafkaProducer kafkaProducer;
+
+    @Mock
+    private EmployeeStatePublisher statePublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        var outboxProperties = new OutboxProperties();
+        outboxProperties.setBatchSize(3);
+        outboxRelay = new OutboxRelay(
+                outboxEventRepository,
+                kafkaProducer,
+                statePublisher,
+                outboxProperties,
+                new TransactionTemplate(transactionManager),
+                objectMapper,
+                meterRegistry);
+    }
+
+    @Test
+    void shouldPublishEventsInOrderAndRemoveThemFromOutbox() throws Exception {
+        var employeeId = UUID.randomUUID().toString();
+        var created = anOutboxEvent(1L, employeeId, EmployeeMessage.Event.CREATED);
+        var updated = anOutboxEvent(2L, employeeId, EmployeeMessage.Event.UPDATED);
+
+        when(outboxEventRepository.findNextBatch(any())).thenReturn(List.of(created, updated));
+        when(kafkaProducer.sendAll(any())).thenReturn(List.of(acknowledged(), acknowledged()));
+
+        outboxRelay.relay();
+
+        ArgumentCaptor<List<EmployeeMessage>> messages = ArgumentCaptor.forClass(List.class);
+        verify(kafkaProducer).sendAll(messages.capture());
+        assertThat(messages.getValue()).extracting(EmployeeMessage::getEvent)
+                .containsExactly(EmployeeMessage.Event.CREATED, EmployeeMessage.Event.UPDATED);
+        verify(outboxEventRepository).deleteAllInBatch(List.of(created, updated));
+    }
+
+    @Test
+    void shouldSendEventInTheTraceOfTheChange() throws Exception {
+        var traceParent = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+        var created = anOutboxEvent(1L, UUID.randomUUID().toString(), EmployeeMessage.Event.CREATED);
+        created.setTraceParent(traceParent);
+
+        when(outboxEventRepository.findNextBatch(any())).thenReturn(List.of(created));
+        when(kafkaProducer.sendAll(any())).thenReturn(List.of(acknowledged()));
+
+        outboxRelay.relay();
+
+        ArgumentCaptor<List<EmployeeMessage>> messages = ArgumentCaptor.forClass(List.class);
+        verify(kafkaProducer).sendAll(messages.capture());
+        assertThat(messages.getValue()).extracting(EmployeeMessage::getTraceParent).containsExactly(traceParent);
+    }
+
+    @Test
+    void shouldKeepFailedEventAndAllLaterEventsOfTheSameEmployee() throws Exception {
+        var failingEmployeeId = UUID.randomUUID().toString();
+        var otherEmployeeId = UUID.randomUUID().toString();
+        var failed = anOutboxEvent(1L, failingEmployeeId, EmployeeMessage.Event.CREATED);
+        var other = anOutboxEvent(2L, otherEmployeeId, EmployeeMessage.Event.CREATED);
+        var laterOfFailed = anOutboxEvent(3L, failingEmployeeId, EmployeeMessage.Event.UPDATED);
+
+        when(outboxEventRepository.findNextBatch(any())).thenReturn(List.of(failed, other, laterOfFailed));
+        when(kafkaProducer.sendAll(any())).thenReturn(List.of(
+                CompletableFuture.failedFuture(new KafkaException("Broker is down")),
+                acknowledged(),
+                acknowledged()));
+
+        outboxRelay.relay();
+
+        // only one event is published, so there is no next batch in this run
+        verify(outboxEventRepository, times(1)).findNextBatch(any());
+        verify(outboxEventRepository).deleteAllInBatch(List.of(other));
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getFailedAt()).isNull();
+    }
+
+    @Test
+    void shouldMarkEventWithUnreadablePayloadAsFailedAndPublishTheRest() throws Exception {
+        var corrupt = anOutboxEvent(1L, UUID.randomUUID().toString(), EmployeeMessage.Event.CREATED);
+        corrupt.setPayload("{\"id\": ");
+        var other = anOutboxEvent(2L, UUID.randomUUID().toString(), EmployeeMessage.Event.CREATED);
+
+        when(outboxEventRepository.findNextBatch(any())).thenReturn(List.of(corrupt, other));
+        when(kafkaProducer.sendAll(any())).thenReturn(List.of(acknowledged()));
+
+        outboxRelay.relay();
+
+        ArgumentCaptor<List<EmployeeMessage>> messages = ArgumentCaptor.forClass(List.class);
+        verify(kafkaProducer).sendAll(messages.capture());
+        assertThat(messages.getValue()).extracting(EmployeeMessage::getId).containsExactly(other.getAggregateId());
+        verify(outboxEventRepository).deleteAllInBatch(List.of(other));
+        assertThat(corrupt.getFailedAt()).isNotNull();
+        assertThat(meterRegistry.counter("employee.outbox.failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldMarkEventAsFailedAfterMaxAttempts() throws Exception {
+        var employeeId = UUID.randomUUID().toString();
+        var failing = anOutboxEvent(1L, employeeId, EmployeeMessage.Event.CREATED);
+        failing.setAttempts(9);
+        var laterOfFailing = anOutboxEvent(2L, employeeId, EmployeeMessage.Event.UPDATED);
+        var other = anOutboxEvent(3L, UUID.randomUUID().toString(), EmployeeMessage.Event.CREATED);
+
+        when(outboxEventRepository.findNextBatch(any())).thenReturn(List.of(failing, laterOfFailing, other), List.of(laterOfFailing));
+        when(kafkaProducer.sendAll(any())).thenReturn(
+                List.of(CompletableFuture.failedFuture(new KafkaException("Record is too large")), acknowledged(), acknowledged()),
+                List.of(acknowledged()));
+
+        outboxRelay.relay();
+        outboxRelay.relay();
+
+        assertThat(failing.getAttempts()).isEqualTo(10);
+        assertThat(failing.getFailedAt()).isNotNull();
+        assertThat(meterRegistry.counter("employee.outbox.failed").count()).isEqualTo(1);
+        // The failed one is out of the way, so the later event of its employee goes out in the next run
+        verify(outboxEventRepository).deleteAllInBatch(List.of(other));
+        verify(outboxEventRepository).deleteAllInBatch(List.of(laterOfFailing));
+    }
+
+    @Test
+    void shouldDrainNextBatchWhenWholeBatchIsPublished() throws Exception {
+        var firstBatch = List.of(
+                anOutboxEvent(1L, UUID.randomUUID().toString(), EmployeeMessage.Event.CREATED),
+                anOutboxEvent(2L, UUID.randomUUID().toString(), EmployeeMessage.Event.CREATED),
+                anOutboxEvent(3L, UUID.randomUUID().toString(), EmployeeMessage.Event.CREATED));
+
+        when(outboxEventRepository.findNextBatch(any())).thenReturn(firstBatch, List.of());
+        when(kafkaProducer.sendAll(any())).thenReturn(List.of(acknowledged(), acknowledged(), acknowledged()));
+
+        outboxRelay.relay();
+
+        verify(outboxEventRepository, times(2)).findNextBatch(any());
+        verify(outboxEventRepository).deleteAllInBatch(firstBatch);
+    }
+
+    @Test
+    void shouldPublishStateOfEveryEmployeeInBatchOnceWhenStateTopicIsEnabled() throws Exception {
+        var employeeId = UUID.randomUUID().toString();
+        var otherEmployeeId = UUID.randomUUID().toString();
+        var created = anOutboxEvent(1L, employeeId, EmployeeMessage.Event.CREATED);
+        var other = anOutboxEvent(2L, otherEmployeeId, EmployeeMessage.Event.CREATED);
+        var updated = anOutboxEvent(3L, employeeId, EmployeeMessage.Event.UPDATED);
+
+        when(outboxEventRepository.findNextBatch(any())).thenReturn(List.of(created, other, updated), List.of());
+        when(kafkaProducer.sendAll(any())).thenReturn(List.of(acknowledged(), acknowledged(), acknowledged()));
+        when(statePublisher.isEnabled()).thenReturn(true);
+        when(statePublisher.publish(any())).thenReturn(Map.of(employeeId, acknowledged(), otherEmployeeId, acknowledged()));
+
+        outboxRelay.relay();
+
+        ArgumentCaptor<Collection<UUID>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(statePublisher, times(1)).publish(ids.capture());
+        assertThat(ids.getValue()).containsExactly(UUID.fromString(employeeId), UUID.fromString(otherEmployeeId));
+        verify(outboxEventRepository).deleteAllInBatch(List.of(created, other, updated));
+    }
+
+    @Test
+    void shouldKeepEventsOfEmployeeWhoseStateIsNotPublished() throws Exception {
+        var employeeId = UUID.randomUUID().toString();
+        var otherEmployeeId = UUID.randomUUID().toString();
+        var created = anOutboxEvent(1L, employeeId, EmployeeMessage.Event.CREATED);
+        var other = anOutboxEvent(2L, otherEmployeeId, EmployeeMessage.Event.CREATED);
+
+        when(outboxEventRepository.findNextBatch(any())).thenReturn(List.of(created, other));
+        when(kafkaProducer.sendAll(any())).thenReturn(List.of(acknowledged(), acknowledged()));
+        when(statePublisher.isEnabled()).thenReturn(true);
+        when(statePublisher.publish(any())).thenReturn(Map.of(
+                employeeId, CompletableFuture.failedFuture(new KafkaException("Broker is down")),
+                otherEmployeeId, acknowledged()));
+
+        outboxRelay.relay();
+
+        verify(outboxEventRepository).deleteAllInBatch(List.of(other));
+    }
+
+    private OutboxEvent anOutboxEvent(Long id, String employeeId, EmployeeMessage.Event event) throws Exception {
+        var employeeMessage = EmployeeMessage.builder()
+                .id(employeeId)
+                .employeeName("Test Employee")
+                .email("testemployee@email.com")
+                .birthday(LocalDate.parse("1980-12-12"))
+                .hobbies(List.of("Test Hobby"))
+                .event(event)
+                .build();
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateId(employeeId)
+                .event(event)
+                .payload(objectMapper.writeValueAsString(employeeMessage))
+                .build();
+    }
+
+    private static CompletableFuture<SendResult<String, EmployeeMessage>> acknowledged() {
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,218 @@
+package com.jogyco.takeaway.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jogyco.takeaway.config.outbox.OutboxProperties;
+import com.jogyco.takeaway.config.tracing.TracePropagation;
+import com.jogyco.takeaway.dao.ReactiveOutboxEventRepository;
+import com.jogyco.takeaway.model.OutboxEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.reactivestreams.Publisher;
+import org.springframework.kafka.KafkaException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+import reactor.test.StepVerifier;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveOutboxRelayTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private ReactiveOutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private KafkaSender<String, EmployeeMessage> kafkaSender;
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ReactiveOutboxRelay outboxRelay;
+
+    // Records passed to the sender, in the order they were sent
+    private final List<SenderRecord<String, EmployeeMessage, Long>> sentRecords = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        var outboxProperties = new OutboxProperties();
+        outboxProperties.setBatchSize(3);
+        outboxRelay = new ReactiveOutboxRelay(
+                outboxEventRepository,
+                kafkaSender,
+                outboxProperties,
+                transactionalOperator,
+                objectMapper,
+                meterRegistry);
+        ReflectionTestUtils.setField(outboxRelay, "topic", "takeaway");
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void shouldPublishEventsInOrderAndRemoveThemFromOutbox() throws Exception {
+        var employeeId = UUID.randomUUID().toString();
+        var created = anOutboxEvent(1L, employeeId, EmployeeMessage.Event.CREATED);
+        var updated = anOutboxEvent(2L, employeeId, EmployeeMessage.Event.UPDATED);
+
+        when(outboxEventRepository.findNextBatch(3)).thenReturn(Flux.just(created, updated));
+        acknowledgeAllExcept(Set.of());
+        when(outboxEventRepository.deleteAllById(any())).thenReturn(Mono.just(2L));
+
+        StepVerifier.create(outboxRelay.relayBatch())
+                .expectNext(2)
+                .verifyComplete();
+
+        assertThat(sentRecords).extracting(record -> record.value().getEvent())
+                .containsExactly(EmployeeMessage.Event.CREATED, EmployeeMessage.Event.UPDATED);
+        assertThat(sentRecords).extracting(SenderRecord::key).containsOnly(employeeId);
+        verify(outboxEventRepository).deleteAllById(List.of(1L, 2L));
+    }
+
+    @Test
+    void shouldSendEventInTheTraceOfTheChange() throws Exception {
+        var traceParent = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+        var created = anOutboxEvent(1L, UUID.randomUUID().toString(), EmployeeMessage.Event.CREATED);
+        created.setTraceParent(traceParent);
+
+        when(outboxEventRepository.findNextBatch(3)).thenReturn(Flux.just(created));
+        acknowledgeAllExcept(Set.of());
+        when(outboxEventRepository.deleteAllById(any())).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(outboxRelay.relayBatch())
+                .expectNext(1)
+                .verifyComplete();
+
+        var header = sentRecords.get(0).headers().lastHeader(TracePropagation.TRACEPARENT);
+        assertThat(new String(header.value(), StandardCharsets.UTF_8)).isEqualTo(traceParent);
+    }
+
+    @Test
+    void shouldKeepFailedEventAndAllLaterEventsOfTheSameEmployee() throws Exception {
+        var failingEmployeeId = UUID.randomUUID().toString();
+        var otherEmployeeId = UUID.randomUUID().toString();
+        var failed = anOutboxEvent(1L, failingEmployeeId, EmployeeMessage.Event.CREATED);
+        var other = anOutboxEvent(2L, otherEmployeeId, EmployeeMessage.Event.CREATED);
+        var laterOfFailed = anOutboxEvent(3L, failingEmployeeId, EmployeeMessage.Event.UPDATED);
+
+        when(outboxEventRepository.findNextBatch(3)).thenReturn(Flux.just(failed, other, laterOfFailed));
+        acknowledgeAllExcept(Set.of(1L));
+        when(outboxEventRepository.deleteAllById(any())).thenReturn(Mono.just(1L));
+        when(outboxEventRepository.addFailedAttempt(any(), any())).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(outboxRelay.relayBatch())
+                .expectNext(1)
+                .verifyComplete();
+
+        verify(outboxEventRepository).deleteAllById(List.of(2L));
+        verify(outboxEventRepository).addFailedAttempt(List.of(1L), null);
+    }
+
+    @Test
+    void shouldMarkEventWithUnreadablePayloadAsFailedAndPublishTheRest() throws Exception {
+        var corrupt = anOutboxEvent(1L, UUID.randomUUID().toString(), EmployeeMessage.Event.CREATED);
+        corrupt.setPayload("{\"id\": ");
+        var other = anOutboxEvent(2L, UUID.randomUUID().toString(), EmployeeMessage.Event.CREATED);
+
+        when(outboxEventRepository.findNextBatch(3)).thenReturn(Flux.just(corrupt, other));
+        acknowledgeAllExcept(Set.of());
+        when(outboxEventRepository.deleteAllById(any())).thenReturn(Mono.just(1L));
+        when(outboxEventRepository.addFailedAttempt(any(), any())).thenReturn(Mono.just(1L));
+
+        StepVerifier.create(outboxRelay.relayBatch())
+                .expectNext(2)
+                .verifyComplete();
+
+        assertThat(sentRecords).extracting(SenderRecord::correlationMetadata).containsExactly(2L);
+        verify(outboxEventRepository).deleteAllById(List.of(2L));
+        verify(outboxEventRepository).addFailedAttempt(eq(List.of(1L)), notNull());
+        assertThat(meterRegistry.counter("employee.outbox.failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDrainNextBatchWhenWholeBatchIsPublished() throws Exception {
+        var firstBatch = List.of(
+                anOutboxEvent(1L, UUID.randomUUID().toString(), EmployeeMessage.Event.CREATED),
+                anOutboxEvent(2L, UUID.randomUUID().toString(), EmployeeMessage.Event.CREATED),
+                anOutboxEvent(3L, UUID.randomUUID().toString(), EmployeeMessage.Event.CREATED));
+
+        when(outboxEventRepository.findNextBatch(3)).thenReturn(Flux.fromIterable(firstBatch), Flux.empty());
+        acknowledgeAllExcept(Set.of());
+        when(outboxEventRepository.deleteAllById(any())).thenReturn(Mono.just(3L));
+
+        outboxRelay.relay();
+
+        verify(outboxEventRepository, times(2)).findNextBatch(3);
+        verify(outboxEventRepository).deleteAllById(List.of(1L, 2L, 3L));
+        verifyNoMoreInteractions(kafkaSender);
+    }
+
+    // Every sent record gets a result, records of passed outbox event ids fail
+    @SuppressWarnings("unchecked")
+    private void acknowledgeAllExcept(Set<Long> failedIds) {
+        when(kafkaSender.send(any(Publisher.class))).thenAnswer(invocation -> Flux
+                .from(invocation.<Publisher<SenderRecord<String, EmployeeMessage, Long>>>getArgument(0))
+                .doOnNext(sentRecords::add)
+                .map(record -> result(record.correlationMetadata(),
+                        failedIds.contains(record.correlationMetadata()) ? new KafkaException("Broker is down") : null)));
+    }
+
+    private OutboxEvent anOutboxEvent(Long id, String employeeId, EmployeeMessage.Event event) throws Exception {
+        var employeeMessage = EmployeeMessage.builder()
+                .id(employeeId)
+                .employeeName("Test Employee")
+                .email("testemployee@email.com")
+                .birthday(LocalDate.parse("1980-12-12"))
+                .hobbies(List.of("Test Hobby"))
+                .event(event)
+                .build();
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateId(employeeId)
+                .event(event)
+                .payload(objectMapper.writeValueAsString(employeeMessage))
+                .build();
+    }
+
+    private static SenderResult<Long> result(Long id, Exception exception) {
+        return new SenderResult<>() {
+            @Override
+            public RecordMetadata recordMetadata() {
+                return null;
+            }
+
+            @Override
+            public Exception exception() {
+                return exception;
+            }
+
+            @Override
+            public Long correlationMetadata() {
+                return id;
+            }
+        };
+    }
+}
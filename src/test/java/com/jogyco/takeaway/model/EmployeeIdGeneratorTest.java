@@ -0,0 +1,51 @@
+package com.jogyco.takeaway.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmployeeIdGeneratorTest {
+
+    @Test
+    void shouldGenerateVersion7Ids() {
+        var id = EmployeeIdGenerator.timeOrdered();
+
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldPutCurrentTimeInTheFirst48Bits() {
+        long before = System.currentTimeMillis();
+        var id = EmployeeIdGenerator.timeOrdered();
+        long after = System.currentTimeMillis();
+
+        // A few ids generated in the same milli can push the timestamp a bit ahead of the clock
+        assertThat(id.getMostSignificantBits() >>> 16).isBetween(before, after + 1);
+    }
+
+    @Test
+    void shouldGenerateIncreasingIds() {
+        List<UUID> ids = IntStream.range(0, 100_000)
+                .mapToObj(i -> EmployeeIdGenerator.timeOrdered())
+                .toList();
+
+        // Postgres compares UUIDs as unsigned bytes, as does the hex string
+        var sorted = new ArrayList<>(ids);
+        sorted.sort((first, second) -> first.toString().compareTo(second.toString()));
+        assertThat(sorted).isEqualTo(ids);
+        assertThat(ids).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void shouldGenerateRandomIdsWithRandomStrategy() {
+        var id = (UUID) new EmployeeIdGenerator(EmployeeIdGenerator.Strategy.RANDOM).generate(null, null, null, null);
+
+        assertThat(id.version()).isEqualTo(4);
+    }
+}
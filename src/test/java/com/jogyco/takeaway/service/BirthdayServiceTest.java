@@ -0,0 +1,87 @@
+package com.jogyco.takeaway.service;
+
+import com.jogyco.takeaway.dao.EmployeeRepository;
+import com.jogyco.takeaway.exception.ApiRequestException;
+import com.jogyco.takeaway.model.Employee;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BirthdayServiceTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @InjectMocks
+    private BirthdayService birthdayService;
+
+    @Test
+    void shouldReturnEmployeesOrderedFromTheNearestBirthday() {
+        var later = anEmployee();
+        var sooner = anEmployee();
+        when(employeeRepository.findIdsWithBirthdayMonthDayBetween(610, 617)).thenReturn(List.of(sooner.getId(), later.getId()));
+        when(employeeRepository.findAllWithHobbiesByIdInOrderById(List.of(sooner.getId(), later.getId())))
+                .thenReturn(List.of(later, sooner));
+
+        var employees = birthdayService.findUpcomingBirthdays(LocalDate.parse("2023-06-10"), 7);
+
+        assertThat(employees).containsExactly(sooner, later);
+    }
+
+    @Test
+    void shouldWrapAroundTheEndOfTheYear() {
+        when(employeeRepository.findIdsWithBirthdayMonthDayFromOrUntil(1228, 104)).thenReturn(List.of());
+
+        assertThat(birthdayService.findUpcomingBirthdays(LocalDate.parse("2023-12-28"), 7)).isEmpty();
+    }
+
+    @Test
+    void shouldIncludeFebruary29WhenRangeEndsOnFebruary28OfNonLeapYear() {
+        when(employeeRepository.findIdsWithBirthdayMonthDayBetween(221, 229)).thenReturn(List.of());
+
+        assertThat(birthdayService.findUpcomingBirthdays(LocalDate.parse("2023-02-21"), 7)).isEmpty();
+    }
+
+    @Test
+    void shouldNotExtendRangeEndingOnFebruary28OfLeapYear() {
+        when(employeeRepository.findIdsWithBirthdayMonthDayBetween(221, 228)).thenReturn(List.of());
+
+        assertThat(birthdayService.findUpcomingBirthdays(LocalDate.parse("2024-02-21"), 7)).isEmpty();
+    }
+
+    @Test
+    void shouldReturnBirthdaysOfTheNextMonth() {
+        when(employeeRepository.findIdsWithBirthdayMonthDayBetween(301, 401)).thenReturn(List.of());
+
+        assertThat(birthdayService.findUpcomingBirthdays(LocalDate.parse("2023-03-01"), 31)).isEmpty();
+    }
+
+    @Test
+    void shouldRejectInvalidNumberOfDays() {
+        assertThatThrownBy(() -> birthdayService.findUpcomingBirthdays(LocalDate.parse("2023-06-10"), 32))
+                .isInstanceOf(ApiRequestException.class)
+                .hasMessageContaining("Days must be between 0 and 31");
+        verifyNoInteractions(employeeRepository);
+    }
+
+    private static Employee anEmployee() {
+        return Employee.builder()
+                .id(UUID.randomUUID())
+                .fullName("John Doe")
+                .email(UUID.randomUUID() + "@gmail.com")
+                .birthday(LocalDate.parse("1990-06-12"))
+                .build();
+    }
+}
@@ -0,0 +1,170 @@
+package com.jogyco.takeaway.service;
+
+import com.jogyco.takeaway.config.cache.CacheConfig;
+import com.jogyco.takeaway.controller.EmployeeBulkDeleteRequest;
+import com.jogyco.takeaway.controller.EmployeeBulkUpdateRequest;
+import com.jogyco.takeaway.dao.EmployeeRepository;
+import com.jogyco.takeaway.dao.EmployeeSearchCriteria;
+import com.jogyco.takeaway.exception.ApiRequestException;
+import com.jogyco.takeaway.kafka.EmployeeMessage;
+import com.jogyco.takeaway.model.Employee;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeBulkServiceTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(
+            CacheConfig.EMPLOYEES_CACHE, CacheConfig.UPCOMING_BIRTHDAYS_CACHE);
+
+    private EmployeeBulkService employeeBulkService;
+
+    @BeforeEach
+    void setUp() {
+        employeeBulkService = new EmployeeBulkService(
+                employeeRepository,
+                outboxService,
+                new TransactionTemplate(transactionManager),
+                cacheManager);
+        ReflectionTestUtils.setField(employeeBulkService, "batchSize", 2);
+    }
+
+    @Test
+    void shouldDeleteIdsInChunksAndAddDeletedMessages() {
+        var ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        when(employeeRepository.lockIdsByIdIn(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(employeeRepository.findAllWithHobbiesByIdInOrderById(anyList()))
+                .thenAnswer(invocation -> employees(invocation.getArgument(0)));
+        when(employeeRepository.deleteAllByIdIn(anyList()))
+                .thenAnswer(invocation -> invocation.<List<UUID>>getArgument(0).size());
+
+        var report = employeeBulkService.deleteEmployees(new EmployeeBulkDeleteRequest(ids, null));
+
+        assertThat(report.affected()).isEqualTo(3);
+        verify(employeeRepository, times(2)).deleteAllByIdIn(anyList());
+        ArgumentCaptor<List<EmployeeMessage>> messages = ArgumentCaptor.forClass(List.class);
+        verify(outboxService, times(2)).appendAll(messages.capture());
+        assertThat(messages.getAllValues()).flatMap(chunk -> chunk)
+                .extracting(EmployeeMessage::getEvent)
+                .containsOnly(EmployeeMessage.Event.DELETED)
+                .hasSize(3);
+    }
+
+    @Test
+    void shouldUpdateEmployeesMatchingFilterPageByPage() {
+        var filter = new EmployeeSearchCriteria(null, "gmail.com", null, null);
+        var firstPage = List.of(UUID.randomUUID(), UUID.randomUUID());
+        var secondPage = List.of(UUID.randomUUID());
+        when(employeeRepository.searchIdsAfter(filter, null, 2)).thenReturn(firstPage);
+        when(employeeRepository.searchIdsAfter(filter, firstPage.get(1), 2)).thenReturn(secondPage);
+        when(employeeRepository.searchIdsAfter(filter, secondPage.get(0), 2)).thenReturn(List.of());
+        when(employeeRepository.lockIdsMatching(eq(filter), anyList())).thenAnswer(invocation -> invocation.getArgument(1));
+        when(employeeRepository.updateBirthdayByIdIn(anyList(), any(), anyInt()))
+                .thenAnswer(invocation -> invocation.<List<UUID>>getArgument(0).size());
+
+        var report = employeeBulkService.updateEmployees(
+                new EmployeeBulkUpdateRequest(null, filter, LocalDate.parse("1990-02-14"), null));
+
+        assertThat(report.affected()).isEqualTo(3);
+        verify(employeeRepository).updateBirthdayByIdIn(firstPage, LocalDate.parse("1990-02-14"), 214);
+        verify(employeeRepository).updateBirthdayByIdIn(secondPage, LocalDate.parse("1990-02-14"), 214);
+        verify(employeeRepository, never()).deleteHobbiesByEmployeeIdIn(anyList());
+    }
+
+    @Test
+    void shouldSkipEmployeesWhichDontMatchFilterAnymoreWhenLocked() {
+        var filter = new EmployeeSearchCriteria(null, "gmail.com", null, null);
+        var matching = UUID.randomUUID();
+        var changedMeanwhile = UUID.randomUUID();
+        when(employeeRepository.searchIdsAfter(filter, null, 2)).thenReturn(List.of(matching, changedMeanwhile));
+        when(employeeRepository.searchIdsAfter(filter, changedMeanwhile, 2)).thenReturn(List.of());
+        when(employeeRepository.lockIdsMatching(filter, List.of(matching, changedMeanwhile))).thenReturn(List.of(matching));
+        when(employeeRepository.findAllWithHobbiesByIdInOrderById(anyList()))
+                .thenAnswer(invocation -> employees(invocation.getArgument(0)));
+        when(employeeRepository.deleteAllByIdIn(anyList()))
+                .thenAnswer(invocation -> invocation.<List<UUID>>getArgument(0).size());
+
+        var report = employeeBulkService.deleteEmployees(new EmployeeBulkDeleteRequest(null, filter));
+
+        assertThat(report.affected()).isEqualTo(1);
+        verify(employeeRepository).deleteAllByIdIn(List.of(matching));
+        verify(employeeRepository, never()).lockIdsByIdIn(anyList());
+    }
+
+    @Test
+    void shouldEvictEmployeesOfCommittedChunksWhenLaterChunkFails() {
+        var ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()).stream().sorted().toList();
+        var employees = cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        ids.forEach(id -> employees.put(id, "cached"));
+        cacheManager.getCache(CacheConfig.UPCOMING_BIRTHDAYS_CACHE).put(7, "cached");
+        when(employeeRepository.lockIdsByIdIn(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(employeeRepository.findAllWithHobbiesByIdInOrderById(anyList()))
+                .thenAnswer(invocation -> employees(invocation.getArgument(0)));
+        when(employeeRepository.deleteAllByIdIn(anyList()))
+                .thenReturn(2)
+                .thenThrow(new QueryTimeoutException("Statement timeout"));
+
+        assertThatThrownBy(() -> employeeBulkService.deleteEmployees(new EmployeeBulkDeleteRequest(ids, null)))
+                .isInstanceOf(QueryTimeoutException.class);
+
+        assertThat(employees.get(ids.get(0))).isNull();
+        assertThat(employees.get(ids.get(1))).isNull();
+        assertThat(employees.get(ids.get(2))).isNotNull();
+        assertThat(cacheManager.getCache(CacheConfig.UPCOMING_BIRTHDAYS_CACHE).get(7)).isNull();
+    }
+
+    @Test
+    void shouldNotAcceptBothIdsAndFilter() {
+        var request = new EmployeeBulkDeleteRequest(
+                List.of(UUID.randomUUID()), new EmployeeSearchCriteria("Test", null, null, null));
+
+        assertThatThrownBy(() -> employeeBulkService.deleteEmployees(request))
+                .isInstanceOf(ApiRequestException.class);
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    void shouldNotUpdateWithoutChanges() {
+        var request = new EmployeeBulkUpdateRequest(List.of(UUID.randomUUID()), null, null, null);
+
+        assertThatThrownBy(() -> employeeBulkService.updateEmployees(request))
+                .isInstanceOf(ApiRequestException.class)
+                .hasMessage("Nothing to update, pass birthday or hobbies!");
+        verifyNoInteractions(employeeRepository);
+    }
+
+    private static List<Employee> employees(List<UUID> ids) {
+        return ids.stream()
+                .map(id -> Employee.builder().id(id).fullName("Test Testeric").email(id + "@gmail.com").build())
+                .toList();
+    }
+}
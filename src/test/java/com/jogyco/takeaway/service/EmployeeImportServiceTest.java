@@ -0,0 +1,164 @@
+package com.jogyco.takeaway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jogyco.takeaway.EmailBloomFilter;
+import com.jogyco.takeaway.EmailValidator;
+import com.jogyco.takeaway.controller.BulkImportRowResult;
+import com.jogyco.takeaway.dao.EmployeeRepository;
+import com.jogyco.takeaway.kafka.EmployeeMessage;
+import com.jogyco.takeaway.model.Employee;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeImportServiceTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EmployeeImportService employeeImportService;
+
+    @BeforeEach
+    void setUp() {
+        employeeImportService = new EmployeeImportService(
+                employeeRepository,
+                outboxService,
+                new EmailValidator(),
+                new EmailBloomFilter(1000, 0.01),
+                entityManager,
+                new TransactionTemplate(transactionManager),
+                new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(employeeImportService, "batchSize", 2);
+    }
+
+    @Test
+    void shouldImportValidEmployeesAndReportEveryRow() {
+        var json = """
+                [
+                  {"firstName": "Nebojsa", "lastName": "Jogric", "email": "first@dot.com", "birthday": "1980-12-12", "hobbies": ["Hobby"]},
+                  {"firstName": "Invalid", "lastName": "Email", "email": "invalidemail.com", "birthday": "1980-12-12"},
+                  {"firstName": "Taken", "lastName": "Email", "email": "taken@dot.com", "birthday": "1980-12-12"}
+                ]
+                """;
+
+        when(employeeRepository.findTakenEmails(List.of("first@dot.com"))).thenReturn(Set.of());
+        when(employeeRepository.findTakenEmails(List.of("taken@dot.com"))).thenReturn(Set.of("taken@dot.com"));
+        when(employeeRepository.saveAll(any())).thenAnswer(invocation -> withIds(invocation.getArgument(0)));
+
+        var report = employeeImportService.importEmployees(inputOf(json));
+
+        assertThat(report.created()).isEqualTo(1);
+        assertThat(report.failed()).isEqualTo(2);
+        assertThat(report.rows()).extracting(BulkImportRowResult::status).containsExactly(
+                BulkImportRowResult.Status.CREATED,
+                BulkImportRowResult.Status.FAILED,
+                BulkImportRowResult.Status.FAILED);
+        assertThat(report.rows().get(0).id()).isNotNull();
+        assertThat(report.rows().get(1).error()).contains("is not valid email address!");
+        assertThat(report.rows().get(2).error()).contains("is taken!");
+
+        ArgumentCaptor<List<EmployeeMessage>> messages = ArgumentCaptor.forClass(List.class);
+        verify(outboxService).appendAll(messages.capture());
+        assertThat(messages.getValue()).hasSize(1);
+        assertThat(messages.getValue().get(0).getEmail()).isEqualTo("first@dot.com");
+        assertThat(messages.getValue().get(0).getEvent()).isEqualTo(EmployeeMessage.Event.CREATED);
+    }
+
+    @Test
+    void shouldImportNdjsonInChunksAndRejectDuplicatedEmails() {
+        var ndjson = """
+                {"firstName": "First", "lastName": "One", "email": "first@dot.com", "birthday": "1980-12-12"}
+                {"firstName": "Second", "lastName": "One", "email": "second@dot.com", "birthday": "1980-12-12"}
+                {"firstName": "Third", "lastName": "One", "email": "third@dot.com", "birthday": "1980-12-12"}
+                {"firstName": "First", "lastName": "Again", "email": "first@dot.com", "birthday": "1980-12-12"}
+                """;
+
+        when(employeeRepository.findTakenEmails(anyCollection())).thenReturn(Set.of());
+        when(employeeRepository.saveAll(any())).thenAnswer(invocation -> withIds(invocation.getArgument(0)));
+
+        var report = employeeImportService.importEmployees(inputOf(ndjson));
+
+        assertThat(report.created()).isEqualTo(3);
+        assertThat(report.failed()).isEqualTo(1);
+        assertThat(report.rows().get(3).error()).contains("is duplicated in the import!");
+        // batch size is 2, so there are two chunks with one query, one insert batch and one outbox batch per chunk
+        verify(employeeRepository, times(2)).findTakenEmails(anyCollection());
+        verify(employeeRepository, times(2)).saveAll(any());
+        verify(outboxService, times(2)).appendAll(any());
+        verify(employeeRepository, never()).isEmailTaken(any());
+    }
+
+    @Test
+    void shouldStopImportOnMalformedInputAndKeepAlreadyImportedRows() {
+        var json = """
+                [
+                  {"firstName": "First", "lastName": "One", "email": "first@dot.com", "birthday": "1980-12-12"},
+                  {"firstName": "Second", "lastName": "One", "email": "second@dot.com", "birthday": "1980-12-12"},
+                  {"firstName": "Broken
+                """;
+
+        when(employeeRepository.findTakenEmails(anyCollection())).thenReturn(Set.of());
+        when(employeeRepository.saveAll(any())).thenAnswer(invocation -> withIds(invocation.getArgument(0)));
+
+        var report = employeeImportService.importEmployees(inputOf(json));
+
+        assertThat(report.created()).isEqualTo(2);
+        assertThat(report.failed()).isEqualTo(1);
+        assertThat(report.rows().get(2).error()).contains("Malformed input");
+    }
+
+    @Test
+    void shouldReportWholeChunkAsFailedIfInsertFails() {
+        var ndjson = """
+                {"firstName": "First", "lastName": "One", "email": "first@dot.com", "birthday": "1980-12-12"}
+                {"firstName": "Second", "lastName": "One", "email": "second@dot.com", "birthday": "1980-12-12"}
+                """;
+
+        when(employeeRepository.findTakenEmails(anyCollection())).thenReturn(Set.of());
+        when(employeeRepository.saveAll(any())).thenThrow(new IllegalStateException("DB is down"));
+
+        var report = employeeImportService.importEmployees(inputOf(ndjson));
+
+        assertThat(report.created()).isZero();
+        assertThat(report.failed()).isEqualTo(2);
+        assertThat(report.rows()).allSatisfy(row -> assertThat(row.error()).contains("DB is down"));
+        verify(outboxService, never()).appendAll(any());
+    }
+
+    private static List<Employee> withIds(List<Employee> employees) {
+        employees.forEach(employee -> employee.setId(UUID.randomUUID()));
+        return employees;
+    }
+
+    private static ByteArrayInputStream inputOf(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,86 @@
+package com.jogyco.takeaway.service;
+
+import com.jogyco.takeaway.dao.EmployeeRepository;
+import com.jogyco.takeaway.dao.EmployeeSearchCriteria;
+import com.jogyco.takeaway.exception.ApiRequestException;
+import com.jogyco.takeaway.model.Employee;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeSearchServiceTest {
+
+    private static final EmployeeSearchCriteria NO_FILTERS = new EmployeeSearchCriteria(null, null, null, null);
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @InjectMocks
+    private EmployeeSearchService employeeSearchService;
+
+    @Test
+    void shouldReturnEmployeesInSearchOrder() {
+        var first = anEmployee();
+        var second = anEmployee();
+        var pageable = PageRequest.of(1, 2, Sort.by(Sort.Order.desc("birthday"), Sort.Order.asc("fullName"), Sort.Order.asc("id")));
+        when(employeeRepository.searchIds(NO_FILTERS, pageable)).thenReturn(List.of(second.getId(), first.getId()));
+        when(employeeRepository.findAllWithHobbiesByIdInOrderById(List.of(second.getId(), first.getId())))
+                .thenReturn(List.of(first, second));
+
+        var employees = employeeSearchService.searchEmployees(NO_FILTERS, "-birthday, fullName", 1, 2);
+
+        assertThat(employees).containsExactly(second, first);
+    }
+
+    @Test
+    void shouldIgnoreBlankFilters() {
+        var pageable = PageRequest.of(0, 10, Sort.by(Sort.Order.asc("fullName"), Sort.Order.asc("id")));
+        when(employeeRepository.searchSummaries(NO_FILTERS, pageable)).thenReturn(List.of());
+
+        var summaries = employeeSearchService.searchEmployeeSummaries(
+                new EmployeeSearchCriteria(" ", "", null, null), null, 0, 10);
+
+        assertThat(summaries).isEmpty();
+    }
+
+    @Test
+    void shouldRejectUnknownSortField() {
+        assertThatThrownBy(() -> employeeSearchService.searchEmployees(NO_FILTERS, "hobbies", 0, 10))
+                .isInstanceOf(ApiRequestException.class)
+                .hasMessageContaining("hobbies is not sortable");
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    void shouldRejectEmptyBirthdayRange() {
+        var criteria = new EmployeeSearchCriteria(null, null, LocalDate.parse("2000-01-01"), LocalDate.parse("1990-01-01"));
+
+        assertThatThrownBy(() -> employeeSearchService.searchEmployeeSummaries(criteria, null, 0, 10))
+                .isInstanceOf(ApiRequestException.class)
+                .hasMessageContaining("is after bornTo");
+        verifyNoInteractions(employeeRepository);
+    }
+
+    private static Employee anEmployee() {
+        return Employee.builder()
+                .id(UUID.randomUUID())
+                .fullName("John Doe")
+                .email(UUID.randomUUID() + "@gmail.com")
+                .birthday(LocalDate.parse("1990-01-01"))
+                .build();
+    }
+}
@@ -0,0 +1,73 @@
+package com.jogyco.takeaway.service;
+
+import com.jogyco.takeaway.controller.EmployeeUpdateRequest;
+import com.jogyco.takeaway.dao.EmployeeRepository;
+import com.jogyco.takeaway.model.Employee;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+class EmployeeServiceCacheTest {
+
+    @MockBean
+    private EmployeeRepository employeeRepository;
+
+    @MockBean
+    private OutboxService outboxService;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Test
+    void shouldLoadEmployeeFromRepositoryOnlyOnce() {
+        var employee = anEmployee();
+        when(employeeRepository.findById(employee.getId())).thenReturn(Optional.of(employee));
+
+        var first = employeeService.findEmployeeById(employee.getId());
+        var second = employeeService.findEmployeeById(employee.getId());
+
+        assertThat(first).isEqualTo(employee);
+        assertThat(second).isEqualTo(employee);
+        verify(employeeRepository, times(1)).findById(employee.getId());
+    }
+
+    @Test
+    void shouldLoadEmployeeFromRepositoryAgainAfterUpdate() {
+        var employee = anEmployee();
+        when(employeeRepository.findById(employee.getId())).thenReturn(Optional.of(employee));
+        when(employeeRepository.isEmailTaken("newemail@dot.com")).thenReturn(false);
+
+        employeeService.findEmployeeById(employee.getId());
+        employeeService.updateEmployee(new EmployeeUpdateRequest(
+                employee.getId(),
+                "Nebojsa",
+                "Jogric",
+                "newemail@dot.com",
+                LocalDate.parse("1980-12-12"),
+                List.of("Test Hobby")), null);
+        employeeService.findEmployeeById(employee.getId());
+
+        // one load for the first read, one for the update and one for the read after the update
+        verify(employeeRepository, times(3)).findById(employee.getId());
+    }
+
+    private Employee anEmployee() {
+        return Employee.builder()
+                .id(UUID.randomUUID())
+                .fullName("Nebojsa Jogric")
+                .email("testemail@dot.com")
+                .birthday(LocalDate.parse("1980-12-12"))
+                .hobbies(List.of("Test Hobby"))
+                .build();
+    }
+}
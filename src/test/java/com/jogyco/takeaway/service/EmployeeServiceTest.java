@@ -1,24 +1,35 @@
 package com.jogyco.takeaway.service;
 
+import com.jogyco.takeaway.EmailBloomFilter;
 import com.jogyco.takeaway.EmailValidator;
 import com.jogyco.takeaway.controller.EmployeeCreationRequest;
+import com.jogyco.takeaway.controller.EmployeePatchRequest;
 import com.jogyco.takeaway.controller.EmployeeUpdateRequest;
 import com.jogyco.takeaway.dao.EmployeeRepository;
 import com.jogyco.takeaway.exception.ApiRequestException;
 import com.jogyco.takeaway.exception.EmployeeNotFoundException;
-import com.jogyco.takeaway.kafka.KafkaProducer;
+import com.jogyco.takeaway.exception.PreconditionFailedException;
+import com.jogyco.takeaway.kafka.EmployeeMessage;
 import com.jogyco.takeaway.model.Employee;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -35,19 +46,29 @@ class EmployeeServiceTest {
     private EmployeeRepository employeeRepository;
 
     @Mock
-    private KafkaProducer kafkaProducer;
+    private OutboxService outboxService;
 
     @Mock
     private EmailValidator emailValidator;
 
+    @Mock
+    private EntityManager entityManager;
+
+    private EmailBloomFilter emailBloomFilter;
+
     private EmployeeService employeeService;
 
     @BeforeEach
     void setUp() {
+        // Filter is not warmed up, so every email is checked in DB unless a test warms it up
+        emailBloomFilter = new EmailBloomFilter(1000, 0.01);
         employeeService = new EmployeeService(
                 employeeRepository,
-                kafkaProducer,
-                emailValidator);
+                outboxService,
+                emailValidator,
+                emailBloomFilter,
+                entityManager,
+                ObservationRegistry.NOOP);
     }
 
     @Test
@@ -72,13 +93,67 @@ class EmployeeServiceTest {
 
         when(emailValidator.test(employeeEmail)).thenReturn(true);
         when(employeeRepository.isEmailTaken(employeeEmail)).thenReturn(false);
-        when(employeeRepository.save(any())).thenReturn(employee);
+        when(employeeRepository.saveAndFlush(any())).thenReturn(employee);
 
         employeeService.createEmployee(employeeCreationRequest);
 
         ArgumentCaptor<Employee> employeeArgumentCaptor = ArgumentCaptor.forClass(Employee.class);
-        verify(employeeRepository).save(employeeArgumentCaptor.capture());
-        verify(kafkaProducer).send(any());
+        verify(employeeRepository).saveAndFlush(employeeArgumentCaptor.capture());
+        verify(outboxService).append(any());
+    }
+
+    @Test
+    void createEmployeeShouldNotCheckEmailInDbIfFilterSaysItIsFree() {
+        var employeeEmail = "testemail@dot.com";
+        var employeeCreationRequest = new EmployeeCreationRequest(
+                "Nebojsa",
+                "Jogric",
+                employeeEmail,
+                LocalDate.parse("1980-12-12"),
+                List.of("Test Hobby"));
+        emailBloomFilter.put("someotheremail@dot.com");
+        emailBloomFilter.markWarm();
+
+        when(emailValidator.test(employeeEmail)).thenReturn(true);
+        when(employeeRepository.saveAndFlush(any())).thenReturn(anEmployee(employeeEmail));
+
+        employeeService.createEmployee(employeeCreationRequest);
+
+        verify(employeeRepository, never()).isEmailTaken(any());
+        verify(employeeRepository).saveAndFlush(any());
+        assertThat(emailBloomFilter.mightContain(employeeEmail)).isTrue();
+    }
+
+    @Test
+    void createEmployeeShouldThrowApiRequestExceptionIfEmailIsTakenInTheMeantime() {
+        var employeeEmail = "testemail@dot.com";
+        var employeeCreationRequest = new EmployeeCreationRequest(
+                "Nebojsa",
+                "Jogric",
+                employeeEmail,
+                LocalDate.parse("1980-12-12"),
+                List.of("Test Hobby"));
+        var violation = new ConstraintViolationException("Unique index violation",
+                new SQLException("duplicate key value violates unique constraint \"uk_employee_email\""), null);
+
+        when(emailValidator.test(employeeEmail)).thenReturn(true);
+        when(employeeRepository.isEmailTaken(employeeEmail)).thenReturn(false);
+        when(employeeRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("Duplicate", violation));
+
+        assertThatThrownBy(() -> employeeService.createEmployee(employeeCreationRequest))
+                .isInstanceOf(ApiRequestException.class)
+                .hasMessageContaining("is taken!");
+        verify(outboxService, never()).append(any());
+    }
+
+    @Test
+    void shouldWarmUpEmailFilterWithAllEmailsFromDb() {
+        when(employeeRepository.streamAllEmails()).thenReturn(Stream.of("testemail@dot.com"));
+
+        employeeService.warmUpEmailFilter();
+
+        assertThat(emailBloomFilter.isWarm()).isTrue();
+        assertThat(emailBloomFilter.mightContain("testemail@dot.com")).isTrue();
     }
 
     @Test
@@ -96,8 +171,8 @@ class EmployeeServiceTest {
         assertThatThrownBy(() -> employeeService.createEmployee(employeeCreationRequest))
                 .isInstanceOf(ApiRequestException.class)
                 .hasMessageContaining("is not valid email address!");
-        verify(employeeRepository, never()).save(any());
-        verify(kafkaProducer, never()).send(any());
+        verify(employeeRepository, never()).saveAndFlush(any());
+        verify(outboxService, never()).append(any());
     }
 
     @Test
@@ -116,8 +191,8 @@ class EmployeeServiceTest {
         assertThatThrownBy(() -> employeeService.createEmployee(employeeCreationRequest))
                 .isInstanceOf(ApiRequestException.class)
                 .hasMessageContaining("is taken!");
-        verify(employeeRepository, never()).save(any());
-        verify(kafkaProducer, never()).send(any());
+        verify(employeeRepository, never()).saveAndFlush(any());
+        verify(outboxService, never()).append(any());
     }
 
 
@@ -147,16 +222,92 @@ class EmployeeServiceTest {
     }
 
     @Test
-    void shouldReturnAllEmployees() {
+    void shouldReturnAllEmployeesWithoutNextCursorForLastPage() {
         List<Employee> employeeList = List.of(anEmployee(), anEmployee("somenewemailaddress@google.com"));
 
-        when(employeeRepository.findAll()).thenReturn(employeeList);
+        var ids = employeeList.stream().map(Employee::getId).toList();
+        when(employeeRepository.findIdsOrderById(PageRequest.ofSize(3))).thenReturn(ids);
+        when(employeeRepository.findAllWithHobbiesByIdInOrderById(ids)).thenReturn(employeeList);
 
-        var allEmployees = employeeService.getAllEmployees();
+        var page = employeeService.getAllEmployees(null, null, 2);
+
+        assertThat(page.employees().size()).isEqualTo(employeeList.size());
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void shouldReturnNextCursorWhichContinuesAfterLastEmployeeOfThePage() {
+        var first = anEmployee();
+        var second = anEmployee("somenewemailaddress@google.com");
+        var third = anEmployee("someotheremailaddress@google.com");
+
+        when(employeeRepository.findIdsOrderById(PageRequest.ofSize(3)))
+                .thenReturn(List.of(first.getId(), second.getId(), third.getId()));
+        when(employeeRepository.findAllWithHobbiesByIdInOrderById(List.of(first.getId(), second.getId(), third.getId())))
+                .thenReturn(List.of(first, second, third));
+        when(employeeRepository.findIdsByIdGreaterThanOrderById(second.getId(), PageRequest.ofSize(3)))
+                .thenReturn(List.of(third.getId()));
+        when(employeeRepository.findAllWithHobbiesByIdInOrderById(List.of(third.getId()))).thenReturn(List.of(third));
+
+        var firstPage = employeeService.getAllEmployees(null, null, 2);
+        var secondPage = employeeService.getAllEmployees(null, firstPage.nextCursor(), 2);
+
+        assertThat(firstPage.employees()).containsExactly(first, second);
+        assertThat(firstPage.nextCursor()).isNotNull();
+        assertThat(secondPage.employees()).containsExactly(third);
+        assertThat(secondPage.nextCursor()).isNull();
+    }
+
+    @Test
+    void shouldReturnOnlyEmployeesWithHobby() {
+        var cyclist = anEmployee();
+
+        when(employeeRepository.findIdsByHobbyOrderById("Cycling", PageRequest.ofSize(3))).thenReturn(List.of(cyclist.getId()));
+        when(employeeRepository.findAllWithHobbiesByIdInOrderById(List.of(cyclist.getId()))).thenReturn(List.of(cyclist));
+
+        var page = employeeService.getAllEmployees("Cycling", null, 2);
+
+        assertThat(page.employees()).containsExactly(cyclist);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void shouldNotLoadEmployeesForEmptyPage() {
+        when(employeeRepository.findIdsByHobbyOrderById("Cycling", PageRequest.ofSize(3))).thenReturn(List.of());
 
-        verify(employeeRepository).findAll();
+        var page = employeeService.getAllEmployees("Cycling", null, 2);
 
-        assertThat(allEmployees.size()).isEqualTo(employeeList.size());
+        assertThat(page.employees()).isEmpty();
+        verify(employeeRepository, never()).findAllWithHobbiesByIdInOrderById(any());
+    }
+
+    @Test
+    void getAllEmployeesShouldThrowApiRequestExceptionForInvalidCursor() {
+        assertThatThrownBy(() -> employeeService.getAllEmployees(null, "not-a-cursor", 2))
+                .isInstanceOf(ApiRequestException.class)
+                .hasMessageContaining("is not valid cursor!");
+    }
+
+    @Test
+    void getAllEmployeesShouldThrowApiRequestExceptionForTooBigPage() {
+        assertThatThrownBy(() -> employeeService.getAllEmployees(null, null, EmployeeService.MAX_PAGE_SIZE + 1))
+                .isInstanceOf(ApiRequestException.class)
+                .hasMessageContaining("Page size must be between");
+        verifyNoInteractions(employeeRepository);
+    }
+
+    @Test
+    void shouldStreamAndDetachAllEmployees() {
+        List<Employee> employeeList = List.of(anEmployee(), anEmployee("somenewemailaddress@google.com"));
+        List<Employee> streamed = new ArrayList<>();
+
+        when(employeeRepository.streamAllOrderedById()).thenReturn(employeeList.stream());
+
+        employeeService.streamAllEmployees(streamed::add);
+
+        assertThat(streamed).isEqualTo(employeeList);
+        verify(entityManager).detach(employeeList.get(0));
+        verify(entityManager).detach(employeeList.get(1));
     }
 
     @Test
@@ -175,10 +326,10 @@ class EmployeeServiceTest {
         when(emailValidator.test(employeeEmail)).thenReturn(true);
         when(employeeRepository.isEmailTaken(employeeEmail)).thenReturn(false);
 
-        employeeService.updateEmployee(employeeUpdateRequest);
+        employeeService.updateEmployee(employeeUpdateRequest, null);
 
-        verify(employeeRepository).save(employee);
-        verify(kafkaProducer).send(any());
+        verify(employeeRepository).saveAndFlush(employee);
+        verify(outboxService).append(any());
     }
 
     @Test
@@ -190,11 +341,11 @@ class EmployeeServiceTest {
         when(employeeRepository.isEmailTaken(employeeEmail)).thenReturn(false);
         when(employeeRepository.findById(employeeUpdateRequest.id())).thenReturn(Optional.empty());
 
-        assertThatThrownBy(() -> employeeService.updateEmployee(employeeUpdateRequest))
+        assertThatThrownBy(() -> employeeService.updateEmployee(employeeUpdateRequest, null))
                 .isInstanceOf(EmployeeNotFoundException.class)
                 .hasMessageContaining("not found!");
 
-        verify(employeeRepository, never()).save(any());
+        verify(employeeRepository, never()).saveAndFlush(any());
     }
 
     @Test
@@ -204,12 +355,12 @@ class EmployeeServiceTest {
 
         when(emailValidator.test(employeeEmail)).thenReturn(false);
 
-        assertThatThrownBy(() -> employeeService.updateEmployee(employeeUpdateRequest))
+        assertThatThrownBy(() -> employeeService.updateEmployee(employeeUpdateRequest, null))
                 .isInstanceOf(ApiRequestException.class)
                 .hasMessageContaining("is not valid email address!");
 
-        verify(employeeRepository, never()).save(any());
-        verify(kafkaProducer, never()).send(any());
+        verify(employeeRepository, never()).saveAndFlush(any());
+        verify(outboxService, never()).append(any());
     }
 
     @Test
@@ -220,11 +371,96 @@ class EmployeeServiceTest {
         when(emailValidator.test(employeeEmail)).thenReturn(true);
         when(employeeRepository.isEmailTaken(employeeEmail)).thenReturn(true);
 
-        assertThatThrownBy(() -> employeeService.updateEmployee(employeeUpdateRequest))
+        assertThatThrownBy(() -> employeeService.updateEmployee(employeeUpdateRequest, null))
+                .isInstanceOf(ApiRequestException.class)
+                .hasMessageContaining("is taken!");
+        verify(employeeRepository, never()).saveAndFlush(any());
+        verify(outboxService, never()).append(any());
+    }
+
+    @Test
+    void updateEmployeeShouldThrowPreconditionFailedExceptionForChangedVersion() {
+        var employeeUpdateRequest = anEmployeeUpdateRequest();
+        var employeeEmail = employeeUpdateRequest.email();
+        var employee = Employee.builder()
+                .id(employeeUpdateRequest.id())
+                .email("old@dot.com")
+                .version(3L)
+                .build();
+
+        when(emailValidator.test(employeeEmail)).thenReturn(true);
+        when(employeeRepository.isEmailTaken(employeeEmail)).thenReturn(false);
+        when(employeeRepository.findById(employeeUpdateRequest.id())).thenReturn(Optional.of(employee));
+
+        assertThatThrownBy(() -> employeeService.updateEmployee(employeeUpdateRequest, 2L))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessageContaining("its version is 3");
+        verify(employeeRepository, never()).saveAndFlush(any());
+        verify(outboxService, never()).append(any());
+    }
+
+    @Test
+    void patchEmployeeShouldChangeOnlyHobbiesAndSendOnlyThem() {
+        var employee = anEmployee();
+        var patch = new EmployeePatchRequest(null, null, employee.getEmail(), null, List.of("Chess"));
+
+        when(employeeRepository.findById(employee.getId())).thenReturn(Optional.of(employee));
+
+        employeeService.patchEmployee(employee.getId(), patch, null);
+
+        // Email is the same, so it's not checked at all
+        verifyNoInteractions(emailValidator);
+        verify(employeeRepository, never()).isEmailTaken(any());
+        verify(employeeRepository).saveAndFlush(employee);
+        assertThat(employee.getHobbies()).containsExactly("Chess");
+        assertThat(employee.getFullName()).isEqualTo("Nebojsa Jogric");
+        var message = ArgumentCaptor.forClass(EmployeeMessage.class);
+        verify(outboxService).append(message.capture());
+        assertThat(message.getValue()).isEqualTo(EmployeeMessage.builder()
+                .id(employee.getId().toString())
+                .hobbies(List.of("Chess"))
+                .event(EmployeeMessage.Event.PATCHED)
+                .build());
+    }
+
+    @Test
+    void patchEmployeeShouldNotWriteAnythingWithoutChanges() {
+        var employee = anEmployee();
+        var patch = new EmployeePatchRequest("Nebojsa", "Jogric", null, employee.getBirthday(), employee.getHobbies());
+
+        when(employeeRepository.findById(employee.getId())).thenReturn(Optional.of(employee));
+
+        var patched = employeeService.patchEmployee(employee.getId(), patch, null);
+
+        assertThat(patched).isSameAs(employee);
+        verify(employeeRepository, never()).saveAndFlush(any());
+        verify(outboxService, never()).append(any());
+    }
+
+    @Test
+    void patchEmployeeShouldThrowApiRequestExceptionIfChangedEmailIsTaken() {
+        var employee = anEmployee();
+        var patch = new EmployeePatchRequest(null, null, "taken@dot.com", null, null);
+
+        when(employeeRepository.findById(employee.getId())).thenReturn(Optional.of(employee));
+        when(emailValidator.test("taken@dot.com")).thenReturn(true);
+        when(employeeRepository.isEmailTaken("taken@dot.com")).thenReturn(true);
+
+        assertThatThrownBy(() -> employeeService.patchEmployee(employee.getId(), patch, null))
                 .isInstanceOf(ApiRequestException.class)
                 .hasMessageContaining("is taken!");
-        verify(employeeRepository, never()).save(any());
-        verify(kafkaProducer, never()).send(any());
+        verify(employeeRepository, never()).saveAndFlush(any());
+        verify(outboxService, never()).append(any());
+    }
+
+    @Test
+    void patchEmployeeShouldThrowApiRequestExceptionForOnlyFirstName() {
+        var patch = new EmployeePatchRequest("Nebojsa", null, null, null, null);
+
+        assertThatThrownBy(() -> employeeService.patchEmployee(UUID.randomUUID(), patch, null))
+                .isInstanceOf(ApiRequestException.class)
+                .hasMessage("firstName and lastName must be changed together!");
+        verifyNoInteractions(employeeRepository);
     }
 
     @Test
@@ -237,7 +473,7 @@ class EmployeeServiceTest {
         employeeService.deleteEmployee(employeeId);
 
         verify(employeeRepository).deleteById(employeeId);
-        verify(kafkaProducer).send(any());
+        verify(outboxService).append(any());
     }
 
     @Test
@@ -0,0 +1,98 @@
+package com.jogyco.takeaway.service;
+
+import com.jogyco.takeaway.config.kafka.EmployeeStateTopicProperties;
+import com.jogyco.takeaway.config.outbox.OutboxProperties;
+import com.jogyco.takeaway.dao.EmployeeRepository;
+import com.jogyco.takeaway.exception.ApiRequestException;
+import com.jogyco.takeaway.kafka.EmployeeStatePublisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.KafkaException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmployeeStateSnapshotServiceTest {
+
+    @Mock
+    private EmployeeRepository employeeRepository;
+
+    @Mock
+    private EmployeeStatePublisher statePublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private EmployeeStateSnapshotService snapshotService;
+
+    @BeforeEach
+    void setUp() {
+        var stateTopicProperties = new EmployeeStateTopicProperties();
+        stateTopicProperties.setSnapshotBatchSize(2);
+        snapshotService = new EmployeeStateSnapshotService(
+                employeeRepository,
+                statePublisher,
+                stateTopicProperties,
+                new OutboxProperties(),
+                new TransactionTemplate(transactionManager));
+    }
+
+    @Test
+    void shouldPublishAllEmployeesInKeysetBatches() {
+        var ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        when(statePublisher.isEnabled()).thenReturn(true);
+        when(employeeRepository.findIdsOrderById(PageRequest.ofSize(2))).thenReturn(ids.subList(0, 2));
+        when(employeeRepository.findIdsByIdGreaterThanOrderById(ids.get(1), PageRequest.ofSize(2))).thenReturn(ids.subList(2, 3));
+        when(employeeRepository.findIdsByIdGreaterThanOrderById(ids.get(2), PageRequest.ofSize(2))).thenReturn(List.of());
+        when(statePublisher.publish(any())).thenAnswer(invocation -> acknowledged(invocation.getArgument(0)));
+
+        var report = snapshotService.publishSnapshot();
+
+        assertThat(report.published()).isEqualTo(3);
+        verify(statePublisher).publish(ids.subList(0, 2));
+        verify(statePublisher).publish(ids.subList(2, 3));
+        // Every batch keeps its locks only until it is acknowledged
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void shouldStopWhenBatchIsNotAcknowledged() {
+        var ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        when(statePublisher.isEnabled()).thenReturn(true);
+        when(employeeRepository.findIdsOrderById(PageRequest.ofSize(2))).thenReturn(ids);
+        when(statePublisher.publish(any())).thenReturn(Map.of(
+                ids.get(0).toString(), CompletableFuture.failedFuture(new KafkaException("Broker is down"))));
+
+        assertThatThrownBy(() -> snapshotService.publishSnapshot())
+                .isInstanceOf(KafkaException.class)
+                .hasMessageContaining("after 0 employees");
+        verify(employeeRepository, never()).findIdsByIdGreaterThanOrderById(any(), any());
+    }
+
+    @Test
+    void shouldRejectSnapshotWhenStateTopicIsNotEnabled() {
+        assertThatThrownBy(() -> snapshotService.publishSnapshot())
+                .isInstanceOf(ApiRequestException.class)
+                .hasMessage("Employee state topic is not enabled!");
+        verifyNoInteractions(employeeRepository);
+    }
+
+    private static Map<String, CompletableFuture<?>> acknowledged(List<UUID> ids) {
+        return ids.stream().collect(Collectors.toMap(UUID::toString, id -> CompletableFuture.completedFuture(null)));
+    }
+}
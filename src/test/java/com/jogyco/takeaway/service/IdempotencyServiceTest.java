@@ -0,0 +1,104 @@
+package com.jogyco.takeaway.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jogyco.takeaway.config.idempotency.IdempotencyProperties;
+import com.jogyco.takeaway.dao.InMemoryIdempotencyStore;
+import com.jogyco.takeaway.exception.ApiRequestException;
+import com.jogyco.takeaway.exception.IdempotencyConflictException;
+import com.jogyco.takeaway.exception.PreconditionFailedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyServiceTest {
+
+    private final IdempotencyService underTest = new IdempotencyService(
+            new InMemoryIdempotencyStore(new IdempotencyProperties()), new ObjectMapper());
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void shouldRunRequestOnceAndReplayItsResponse() {
+        var first = underTest.execute("key-1", "updateEmployee", Map.of("id", 1), this::updated);
+        var retry = underTest.execute("key-1", "updateEmployee", Map.of("id", 1), this::updated);
+
+        assertThat(calls).hasValue(1);
+        assertThat(first.getBody()).isEqualTo(Map.of("id", 1));
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry.getBody()).isEqualTo("{\"id\":1}");
+        assertThat(retry.getHeaders().getFirst(IdempotencyService.IDEMPOTENT_REPLAYED_HEADER)).isEqualTo("true");
+    }
+
+    @Test
+    void shouldRunEveryRequestWithoutKey() {
+        underTest.execute(null, "updateEmployee", Map.of("id", 1), this::updated);
+        underTest.execute(null, "updateEmployee", Map.of("id", 1), this::updated);
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void shouldRejectKeyReusedForDifferentRequest() {
+        underTest.execute("key-1", "updateEmployee", Map.of("id", 1), this::updated);
+
+        assertThatThrownBy(() -> underTest.execute("key-1", "updateEmployee", Map.of("id", 2), this::updated))
+                .isInstanceOf(ApiRequestException.class)
+                .hasMessageContaining("already used for a different request");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void shouldReplayETagOfConditionalWrite() {
+        underTest.execute("key-1", "updateEmployee", Map.of("id", 1), "\"1\"", this::updatedWithETag);
+        var retry = underTest.execute("key-1", "updateEmployee", Map.of("id", 1), "\"1\"", this::updatedWithETag);
+
+        assertThat(calls).hasValue(1);
+        assertThat(retry.getHeaders().getETag()).isEqualTo("\"2\"");
+    }
+
+    @Test
+    void shouldRejectKeyReusedWithDifferentIfMatch() {
+        underTest.execute("key-1", "updateEmployee", Map.of("id", 1), "\"1\"", this::updatedWithETag);
+
+        assertThatThrownBy(() -> underTest.execute("key-1", "updateEmployee", Map.of("id", 1), "\"2\"", this::updatedWithETag))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThatThrownBy(() -> underTest.execute("key-1", "updateEmployee", Map.of("id", 1), this::updatedWithETag))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void shouldRejectRetryWhileRequestIsInProgress() {
+        assertThatThrownBy(() -> underTest.execute("key-1", "updateEmployee", Map.of("id", 1),
+                () -> underTest.execute("key-1", "updateEmployee", Map.of("id", 1), this::updated)))
+                .isInstanceOf(IdempotencyConflictException.class);
+        assertThat(calls).hasValue(0);
+    }
+
+    @Test
+    void shouldRunRetryOfFailedRequestAgain() {
+        assertThatThrownBy(() -> underTest.execute("key-1", "updateEmployee", Map.of("id", 1), () -> {
+            throw new ApiRequestException("Email is taken!");
+        })).isInstanceOf(ApiRequestException.class);
+
+        underTest.execute("key-1", "updateEmployee", Map.of("id", 1), this::updated);
+
+        assertThat(calls).hasValue(1);
+    }
+
+    private ResponseEntity<?> updated() {
+        calls.incrementAndGet();
+        return new ResponseEntity<>(Map.of("id", 1), HttpStatus.CREATED);
+    }
+
+    private ResponseEntity<?> updatedWithETag() {
+        calls.incrementAndGet();
+        return ResponseEntity.status(HttpStatus.CREATED).eTag("\"2\"").body(Map.of("id", 1));
+    }
+}
@@ -1 +1,2 @@
-INSERT INTO employee (id, birthday, email, full_name, hobbies) VALUES ('190c59cf-e8f9-4e98-94b3-2cc44555450a', '1983-10-25', 'testemail1@gmail.com', 'Test Testeric1', ARRAY ['hobi neki tamo novi']), ('190c59cd-e8f9-4e98-94b3-2cc44555450a', '1973-10-25', 'testemail2@gmail.com', 'Test Testeric2', ARRAY['hobi neki tamo novi2', 'test 2']), ('190c59cf-a8f0-4e98-94b3-2cc44555450a', '1963-10-25', 'testemail3@gmail.com', 'Test Testeric3', ARRAY ['hobi31', 'hobi 32']);
\ No newline at end of file
+INSERT INTO employee (id, birthday, email, email_domain, birthday_month_day, version, full_name) VALUES ('190c59cf-e8f9-4e98-94b3-2cc44555450a', '1983-10-25', 'testemail1@gmail.com', 'gmail.com', 1025, 0, 'Test Testeric1'), ('190c59cd-e8f9-4e98-94b3-2cc44555450a', '1973-10-25', 'testemail2@gmail.com', 'gmail.com', 1025, 0, 'Test Testeric2'), ('190c59cf-a8f0-4e98-94b3-2cc44555450a', '1963-10-25', 'testemail3@gmail.com', 'gmail.com', 1025, 0, 'Test Testeric3');
+INSERT INTO employee_hobby (employee_id, position, hobby) VALUES ('190c59cf-e8f9-4e98-94b3-2cc44555450a', 0, 'hobi neki tamo novi'), ('190c59cd-e8f9-4e98-94b3-2cc44555450a', 0, 'hobi neki tamo novi2'), ('190c59cd-e8f9-4e98-94b3-2cc44555450a', 1, 'test 2'), ('190c59cf-a8f0-4e98-94b3-2cc44555450a', 0, 'hobi31'), ('190c59cf-a8f0-4e98-94b3-2cc44555450a', 1, 'hobi 32');